@@ -12,6 +12,7 @@ import com.nedap.archie.aom.utils.AOMUtils;
 import com.nedap.archie.aom.utils.ArchetypeParsePostProcesser;
 import com.nedap.archie.definitions.AdlCodeDefinitions;
 import com.nedap.archie.query.AOMPathQuery;
+import com.nedap.archie.query.ArchetypePathIndex;
 import com.nedap.archie.rminfo.RMProperty;
 import com.nedap.archie.xml.adapters.ArchetypeTerminologyAdapter;
 import com.nedap.archie.xml.adapters.RMOverlayXmlAdapter;
@@ -84,6 +85,9 @@ public class Archetype extends AuthoredResource {
     //this field should be marked transient, but JAXB will not allow it.
     private List<StringDictionaryItem> xmlOtherMetaData;
 
+    private transient boolean pathIndexEnabled;
+    private transient volatile ArchetypePathIndex pathIndex;
+
     // Invoked by Jaxb Marshaller after unmarshalling
     public void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
         if(xmlOtherMetaData != null) {
@@ -137,6 +141,7 @@ public class Archetype extends AuthoredResource {
     public void setDefinition(CComplexObject definition) {
         definition.setArchetype(this);
         this.definition = definition;
+        invalidatePathIndex();
     }
 
     public RulesSection getRules() {
@@ -154,6 +159,7 @@ public class Archetype extends AuthoredResource {
     public void setTerminology(ArchetypeTerminology terminology) {
         this.terminology = terminology;
         terminology.setOwnerArchetype(this);
+        invalidateLogicalPaths();
     }
 
     public String getAdlVersion() {
@@ -243,13 +249,78 @@ public class Archetype extends AuthoredResource {
 
     /** TODO: should this only be on complex objects? */
     public <T extends ArchetypeModelObject> T itemAtPath(String path) {
+        ArchetypePathIndex index = getPathIndex();
+        if(index != null) {
+            return index.find(path);
+        }
         return new AOMPathQuery(path).find(getDefinition());
     }
 
     public List<ArchetypeModelObject> itemsAtPath(String path) {
+        ArchetypePathIndex index = getPathIndex();
+        if(index != null) {
+            return index.findList(path);
+        }
         return new AOMPathQuery(path).findList(getDefinition());
     }
 
+    /**
+     * Enable the path index, which is then used by itemAtPath and itemsAtPath. Useful when querying many paths of an
+     * archetype or operational template that does not change anymore. The index is built lazily and discarded
+     * whenever the definition is changed through its setters, add, remove and replace methods. Direct changes to
+     * the lists returned by the getters are not detected, so call invalidatePathIndex() after those.
+     * <p>
+     * When enabled, itemsAtPath returns unmodifiable lists.
+     */
+    public void enablePathIndex() {
+        pathIndexEnabled = true;
+    }
+
+    public void disablePathIndex() {
+        pathIndexEnabled = false;
+        pathIndex = null;
+    }
+
+    @JsonIgnore
+    public boolean isPathIndexEnabled() {
+        return pathIndexEnabled;
+    }
+
+    /**
+     * Discard the cached paths and logical paths of the definition, and the path index. Call after changes in the
+     * terminology, because the logical paths are based on the terms.
+     */
+    public void invalidateLogicalPaths() {
+        if(definition != null) {
+            definition.invalidatePaths();
+        }
+        invalidatePathIndex();
+    }
+
+    /**
+     * Discard the current path index, if any. If the path index is enabled, a new one is built on first use.
+     */
+    public void invalidatePathIndex() {
+        pathIndex = null;
+    }
+
+    /**
+     * @return the path index of this archetype, which also indexes the node ids and logical paths. Null if the path
+     * index is not enabled
+     */
+    @JsonIgnore
+    public ArchetypePathIndex getPathIndex() {
+        if(!pathIndexEnabled || definition == null) {
+            return null;
+        }
+        ArchetypePathIndex result = pathIndex;
+        if(result == null) {
+            result = new ArchetypePathIndex(definition);
+            pathIndex = result;
+        }
+        return result;
+    }
+
     public boolean hasPath(String path) {
         return !itemsAtPath(path).isEmpty();
     }
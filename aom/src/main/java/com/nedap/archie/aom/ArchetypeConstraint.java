@@ -1,13 +1,18 @@
 package com.nedap.archie.aom;
 
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoCopyable;
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nedap.archie.ArchieLanguageConfiguration;
 import com.nedap.archie.paths.PathSegment;
 import com.nedap.archie.paths.PathUtil;
 
 import javax.annotation.Nullable;
 import javax.xml.bind.annotation.XmlTransient;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Created by pieter.bos on 15/10/15.
@@ -20,6 +25,15 @@ public abstract class ArchetypeConstraint extends ArchetypeModelObject {
     @Nullable
     private transient CSecondOrder<?> socParent;
 
+    /*
+     * The cached path and logical path. If a constraint has a cached path, so do all its parents. That way the
+     * invalidation can stop at the first constraint without cached paths.
+     */
+    @JsonIgnore
+    private transient volatile String cachedPath;
+    @JsonIgnore
+    private transient volatile CachedLogicalPath cachedLogicalPath;
+
     @JsonIgnore
     @XmlTransient
     public ArchetypeConstraint getParent() {
@@ -28,6 +42,7 @@ public abstract class ArchetypeConstraint extends ArchetypeModelObject {
 
     public void setParent(ArchetypeConstraint parent) {
         this.parent = parent;
+        invalidatePaths();
     }
 
     @JsonIgnore
@@ -44,10 +59,73 @@ public abstract class ArchetypeConstraint extends ArchetypeModelObject {
     @XmlTransient
     public abstract List<PathSegment> getPathSegments();
 
+    /**
+     * The path of this constraint. Cached after the first calculation, until this constraint or one of its parents
+     * is moved or renamed through the setters and add, remove and replace methods.
+     * @return the path of this constraint
+     */
     public final String getPath() {
+        String result = cachedPath;
+        if(result == null) {
+            result = calculatePath();
+            cachedPath = result;
+        }
+        return result;
+    }
+
+    /**
+     * Calculate the path of this constraint. Subclasses can override this with a faster calculation based on the
+     * path of the parent, but it must always return the same result as PathUtil.getPath(getPathSegments())
+     * @return the path of this constraint
+     */
+    protected String calculatePath() {
+        if(parent != null) {
+            //the path of the parent must be cached as well, see cachedPath
+            parent.getPath();
+        }
         return PathUtil.getPath(getPathSegments());
     }
 
+    /**
+     * Get the logical path from the cache, or calculate and cache it if not yet cached in the current logical path
+     * language. The calculation must use the logical path of the parent, so that is cached as well.
+     * @param calculation the calculation of the logical path
+     * @return the logical path
+     */
+    protected final String getCachedLogicalPath(Supplier<String> calculation) {
+        String language = ArchieLanguageConfiguration.getLogicalPathLanguage();
+        CachedLogicalPath cached = cachedLogicalPath;
+        if(cached != null && cached.language.equals(language)) {
+            return cached.path;
+        }
+        String result = calculation.get();
+        cachedLogicalPath = new CachedLogicalPath(language, result);
+        return result;
+    }
+
+    /**
+     * Discard the cached paths and logical paths of this constraint and all its descendants
+     */
+    protected void invalidatePaths() {
+        if(cachedPath != null || cachedLogicalPath != null) {
+            cachedPath = null;
+            cachedLogicalPath = null;
+            List<? extends ArchetypeConstraint> children = getChildConstraints();
+            if(children != null) {
+                for(ArchetypeConstraint child:children) {
+                    child.invalidatePaths();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return the direct children of this constraint in the definition, whose paths depend on the path of this constraint
+     */
+    protected List<? extends ArchetypeConstraint> getChildConstraints() {
+        return Collections.emptyList();
+    }
+
     private void setPath(String path){
         //setter hack for jackson, unfortunately
     }
@@ -74,6 +152,22 @@ public abstract class ArchetypeConstraint extends ArchetypeModelObject {
     @JsonIgnore
     public abstract boolean isLeaf();
 
+    private static final class CachedLogicalPath implements KryoCopyable<CachedLogicalPath> {
+        private final String language;
+        private final String path;
+
+        CachedLogicalPath(String language, String path) {
+            this.language = language;
+            this.path = path;
+        }
+
+        @Override
+        public CachedLogicalPath copy(Kryo kryo) {
+            //immutable, so can be shared with the clone
+            return this;
+        }
+    }
+
     @JsonIgnore
     @XmlTransient
     public Archetype getArchetype() {
@@ -81,4 +175,14 @@ public abstract class ArchetypeConstraint extends ArchetypeModelObject {
         return constraint == null ? null : constraint.getArchetype();
     }
 
+    /**
+     * Called after a change that can change the paths in the definition, to discard the path index of the archetype
+     */
+    protected void structureChanged() {
+        Archetype archetype = getArchetype();
+        if(archetype != null) {
+            archetype.invalidatePathIndex();
+        }
+    }
+
 }
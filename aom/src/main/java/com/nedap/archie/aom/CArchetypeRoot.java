@@ -36,5 +36,9 @@ public class CArchetypeRoot extends CComplexObject {
 
     public void setArchetypeRef(String archetypeRef) {
         this.archetypeRef = archetypeRef;
+        //the logical paths in an operational template depend on the archetype ref
+        invalidatePaths();
+        invalidateIndexOfParent();
+        structureChanged();
     }
 }
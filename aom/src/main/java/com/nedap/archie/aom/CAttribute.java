@@ -1,7 +1,10 @@
 package com.nedap.archie.aom;
 
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoCopyable;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.nedap.archie.ArchieStringInterner;
 import com.nedap.archie.aom.utils.AOMUtils;
 import com.nedap.archie.base.Cardinality;
 import com.nedap.archie.base.MultiplicityInterval;
@@ -9,8 +12,10 @@ import com.nedap.archie.definitions.AdlCodeDefinitions;
 import com.nedap.archie.paths.PathSegment;
 import com.nedap.archie.query.APathQuery;
 import com.nedap.archie.rminfo.RMProperty;
+import com.nedap.archie.util.ModificationCountingArrayList;
 
 import javax.annotation.Nullable;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlAttribute;
@@ -18,7 +23,9 @@ import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.XmlType;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by pieter.bos on 15/10/15.
@@ -50,13 +57,16 @@ public class CAttribute extends ArchetypeConstraint {
     private Cardinality cardinality;
 
     @Nullable
-    private List<CObject> children = new ArrayList<>();
+    private List<CObject> children = new ModificationCountingArrayList<>();
+
+    @JsonIgnore
+    private transient volatile ChildIndex childIndex;
 
     public CAttribute() {
 
     }
     public CAttribute(String rmAttributeName) {
-        this.rmAttributeName = rmAttributeName;
+        this.rmAttributeName = ArchieStringInterner.intern(rmAttributeName);
     }
 
     public String getRmAttributeName() {
@@ -64,7 +74,15 @@ public class CAttribute extends ArchetypeConstraint {
     }
 
     public void setRmAttributeName(String rmAttributeName) {
-        this.rmAttributeName = rmAttributeName;
+        this.rmAttributeName = ArchieStringInterner.intern(rmAttributeName);
+        invalidatePaths();
+        invalidateIndexOfParent();
+        structureChanged();
+    }
+
+    // Invoked by Jaxb Unmarshaller after unmarshalling. Jaxb sets the fields directly, so intern them here
+    public void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+        rmAttributeName = ArchieStringInterner.intern(rmAttributeName);
     }
 
     public MultiplicityInterval getExistence() {
@@ -81,6 +99,9 @@ public class CAttribute extends ArchetypeConstraint {
 
     public void setDifferentialPath(String differentialPath) {
         this.differentialPath = differentialPath;
+        invalidatePaths();
+        invalidateIndexOfParent();
+        structureChanged();
     }
 
     public boolean isMultiple() {
@@ -113,6 +134,11 @@ public class CAttribute extends ArchetypeConstraint {
         if(result != null) {
             return result;
         }
+        ChildIndex index = getChildIndex();
+        if(index != null) {
+            //no exact node id or archetype ref match, so the first child with a specialized node id
+            return index.getSpecializedChild(nodeId);
+        }
         for(CObject child:children) {
             if(nodeId.equals(child.getNodeId()) || AOMUtils.codesConformant(child.getNodeId(), nodeId)) {
                 return child;
@@ -127,6 +153,11 @@ public class CAttribute extends ArchetypeConstraint {
     }
 
     private CObject getChild(String nodeId, boolean lookThroughProxies) {
+        ChildIndex index = getChildIndex();
+        if(index != null) {
+            //the proxies are only checked if there is no match by node id or archetype ref, see getChild(String)
+            return lookThroughProxies ? index.getProxy(nodeId) : index.getChild(nodeId);
+        }
         for(CObject child:children) {
             if(nodeId.equals(child.getNodeId())) {
                 return child;
@@ -146,6 +177,37 @@ public class CAttribute extends ArchetypeConstraint {
         return null;
     }
 
+    /**
+     * Get the index of the children, or build it if it is not up to date. Only children in a
+     * ModificationCountingArrayList are indexed, because only then changes to the list are detected. That is the
+     * case unless a different list has been set with setChildren().
+     * @return the index of the children, or null if the children cannot be indexed
+     */
+    private ChildIndex getChildIndex() {
+        if(!(children instanceof ModificationCountingArrayList)) {
+            return null;
+        }
+        ChildIndex index = childIndex;
+        if(index == null || !index.isIndexOf(children)) {
+            index = new ChildIndex((ModificationCountingArrayList<CObject>) children);
+            childIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Discard the index of the children. Called after a change of the node id, archetype ref or target path of a child
+     */
+    void invalidateChildIndex() {
+        childIndex = null;
+    }
+
+    private void invalidateIndexOfParent() {
+        if(getParent() instanceof CComplexObject) {
+            ((CComplexObject) getParent()).invalidateAttributeIndex();
+        }
+    }
+
     public CObject getChildByMeaning(String meaning) {
         meaning = meaning.toLowerCase();
         for(CObject child:children) {
@@ -167,7 +229,7 @@ public class CAttribute extends ArchetypeConstraint {
 
     public void setChildren(List<CObject> children) {
         if(children == null) {
-            this.children = new ArrayList<>();
+            this.children = new ModificationCountingArrayList<>();
         } else {
             this.children = children;
 
@@ -175,15 +237,26 @@ public class CAttribute extends ArchetypeConstraint {
                 child.setParent(this);
             }
         }
+        structureChanged();
     }
 
     /**
      * Add a child at the last position of the children list
+     * <p>
+     * Updates the child index in place, so this must not be called while other threads look up children of this
+     * attribute, just as the children list itself must not be changed then.
      * @param child
      */
     public void addChild(CObject child) {
+        ChildIndex index = childIndex;
+        boolean indexUpToDate = index != null && index.isIndexOf(children);
         children.add(child);
+        if(indexUpToDate) {
+            //adding at the end does not change the position of the other children, so the index can be updated
+            index.indexLastElement();
+        }
         child.setParent(this);
+        structureChanged();
     }
 
     /**
@@ -209,6 +282,7 @@ public class CAttribute extends ArchetypeConstraint {
             children.add(child);
         }
         child.setParent(this);
+        structureChanged();
     }
 
 
@@ -216,8 +290,9 @@ public class CAttribute extends ArchetypeConstraint {
 
         int index = getIndexOfChildWithNodeId(nodeId);
         if(index > -1) {
-            children.set(index, constraint);
+            children.set(index, constraint).invalidatePaths();
             constraint.setParent(this);
+            structureChanged();
         } else {
             addChild(constraint);
         }
@@ -232,14 +307,16 @@ public class CAttribute extends ArchetypeConstraint {
     public void removeChild(String nodeId) {
         int index = getIndexOfChildWithNodeId(nodeId);
         if(index > -1) {
-            children.remove(index);
+            children.remove(index).invalidatePaths();
+            structureChanged();
         }
     }
 
     public void removeChild(CObject child) {
         int index = getIndexOfMatchingCObjectChild(child);
         if(index > -1) {
-            children.remove(index);
+            children.remove(index).invalidatePaths();
+            structureChanged();
         }
     }
 
@@ -256,12 +333,13 @@ public class CAttribute extends ArchetypeConstraint {
         if(index > -1) {
             List<CObject> childrenBefore = children.subList(0, index+1);
             if(!keepOriginal) {
-                childrenBefore.remove(index);
+                childrenBefore.remove(index).invalidatePaths();
             }
             childrenBefore.addAll(newChildren);
             for(CObject constraint:newChildren) {
                 constraint.setParent(this);
             }
+            structureChanged();
         } else {
             for(CObject constraint:newChildren) {
                 addChild(constraint);
@@ -289,6 +367,10 @@ public class CAttribute extends ArchetypeConstraint {
     }
 
     public int getIndexOfChildWithNodeId(String nodeId) {
+        ChildIndex index = getChildIndex();
+        if(index != null) {
+            return index.getPositionOfNodeId(nodeId);
+        }
         for(int i = 0; i < children.size(); i++) {
             CObject child = children.get(i);
             if(nodeId.equals(child.getNodeId())) {
@@ -325,12 +407,31 @@ public class CAttribute extends ArchetypeConstraint {
         return segments;
     }
 
+    @Override
+    protected String calculatePath() {
+        CObject parent = getParent();
+        if(parent == null || differentialPath != null || getClass() != CAttribute.class) {
+            return super.calculatePath();
+        }
+        String parentPath = parent.getPath();
+        return parentPath.equals("/") ? "/" + rmAttributeName : parentPath + "/" + rmAttributeName;
+    }
+
+    @Override
+    protected List<? extends ArchetypeConstraint> getChildConstraints() {
+        return children;
+    }
+
     @Override
     public CObject getParent() {
         return (CObject) super.getParent();
     }
 
     public String getLogicalPath() {
+        return getCachedLogicalPath(this::calculateLogicalPath);
+    }
+
+    private String calculateLogicalPath() {
         String path = "/" + rmAttributeName;
         if(getParent() != null) {
             path = getParent().getLogicalPath() + path;
@@ -508,4 +609,104 @@ public class CAttribute extends ArchetypeConstraint {
 
         return result;
     }
+
+    /**
+     * Index of the children by node id, archetype ref, parent node ids of specialized node ids and the node id a
+     * CComplexObjectProxy refers to, with the same results as the scans over the children that it replaces.
+     */
+    private static final class ChildIndex extends ListIndex<CObject> implements KryoCopyable<ChildIndex> {
+
+        private final Map<String, Integer> nodeIds = new HashMap<>();
+        private final Map<String, Integer> archetypeRefs = new HashMap<>();
+        private final Map<String, Integer> specializedNodeIds = new HashMap<>();
+        /** only built when needed, because it parses the target paths */
+        private volatile Map<String, Integer> proxyTargets;
+
+        ChildIndex(ModificationCountingArrayList<CObject> children) {
+            super(children);
+            indexAll();
+        }
+
+        @Override
+        protected void index(CObject child, int position) {
+            String nodeId = child.getNodeId();
+            if(nodeId != null) {
+                nodeIds.putIfAbsent(nodeId, position);
+                if(AOMUtils.isValidCode(nodeId)) {
+                    //index by every node id this node id specializes, as in AOMUtils.codesConformant
+                    int separator = nodeId.indexOf(AdlCodeDefinitions.SPECIALIZATION_SEPARATOR);
+                    while(separator >= 0) {
+                        specializedNodeIds.putIfAbsent(nodeId.substring(0, separator), position);
+                        separator = nodeId.indexOf(AdlCodeDefinitions.SPECIALIZATION_SEPARATOR, separator + 1);
+                    }
+                }
+            }
+            if(child instanceof CArchetypeRoot && ((CArchetypeRoot) child).getArchetypeRef() != null) {
+                archetypeRefs.putIfAbsent(((CArchetypeRoot) child).getArchetypeRef(), position);
+            }
+            Map<String, Integer> targets = proxyTargets;
+            if(targets != null) {
+                indexProxy(targets, child, position);
+            }
+        }
+
+        private static void indexProxy(Map<String, Integer> targets, CObject child, int position) {
+            if(child instanceof CComplexObjectProxy) {
+                String targetPath = ((CComplexObjectProxy) child).getTargetPath();
+                if(targetPath != null) {
+                    List<PathSegment> pathSegments = new APathQuery(targetPath).getPathSegments();
+                    if(!pathSegments.isEmpty()) {
+                        PathSegment lastPathSegment = pathSegments.get(pathSegments.size() - 1);
+                        if(lastPathSegment.hasIdCode()) {
+                            targets.putIfAbsent(lastPathSegment.getNodeId(), position);
+                        }
+                    }
+                }
+            }
+        }
+
+        int getPositionOfNodeId(String nodeId) {
+            return getPosition(nodeIds, nodeId);
+        }
+
+        /**
+         * @return the first child with the given node id or archetype ref
+         */
+        CObject getChild(String nodeIdOrArchetypeRef) {
+            int nodeIdPosition = getPosition(nodeIds, nodeIdOrArchetypeRef);
+            int archetypeRefPosition = getPosition(archetypeRefs, nodeIdOrArchetypeRef);
+            if(nodeIdPosition < 0 || (archetypeRefPosition >= 0 && archetypeRefPosition < nodeIdPosition)) {
+                return getElement(archetypeRefPosition);
+            }
+            return getElement(nodeIdPosition);
+        }
+
+        /**
+         * @return the first child with a node id that is a specialization of the given node id
+         */
+        CObject getSpecializedChild(String nodeId) {
+            return getElement(getPosition(specializedNodeIds, nodeId));
+        }
+
+        /**
+         * @return the first CComplexObjectProxy with a target path that ends in the given node id
+         */
+        CObject getProxy(String nodeId) {
+            Map<String, Integer> targets = proxyTargets;
+            if(targets == null) {
+                targets = new HashMap<>();
+                for(int i = 0; i < size(); i++) {
+                    indexProxy(targets, getElement(i), i);
+                }
+                proxyTargets = targets;
+            }
+            return getElement(getPosition(targets, nodeId));
+        }
+
+        @Override
+        public ChildIndex copy(Kryo kryo) {
+            //the index refers to the original list of children. Return an empty index, so it is rebuilt when used
+            return new ChildIndex(null);
+        }
+    }
 }
@@ -1,9 +1,12 @@
 package com.nedap.archie.aom;
 
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoCopyable;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 import com.nedap.archie.base.OpenEHRBase;
 import com.nedap.archie.query.AOMPathQuery;
+import com.nedap.archie.util.ModificationCountingArrayList;
 
 import javax.annotation.Nullable;
 import javax.xml.bind.annotation.XmlAccessType;
@@ -11,7 +14,9 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Created by pieter.bos on 15/10/15.
@@ -25,7 +30,7 @@ import java.util.List;
 public class CComplexObject extends CDefinedObject<OpenEHRBase> {
 
     @Nullable
-    private List<CAttribute> attributes = new ArrayList<>();
+    private List<CAttribute> attributes = new ModificationCountingArrayList<>();
 
     @XmlElement(name="attributeTuples")
     @Nullable
@@ -34,6 +39,9 @@ public class CComplexObject extends CDefinedObject<OpenEHRBase> {
     @JsonIgnore
     protected transient Archetype archetype;
 
+    @JsonIgnore
+    private transient volatile AttributeIndex attributeIndex;
+
     public boolean isAnyAllowed() {
         return attributes == null || attributes.isEmpty();
     }
@@ -63,6 +71,8 @@ public class CComplexObject extends CDefinedObject<OpenEHRBase> {
     /** set the archetype this is used in. Only set for root nodes! */
     public void setArchetype(Archetype archetype) {
         this.archetype = archetype;
+        //the logical paths depend on the terminology of the archetype
+        invalidatePaths();
     }
 
     @Override
@@ -82,6 +92,14 @@ public class CComplexObject extends CDefinedObject<OpenEHRBase> {
      */
     @Override
     public CAttribute getAttribute(String nameOrDifferentialpath) {
+        if(attributes instanceof ModificationCountingArrayList) {
+            AttributeIndex index = attributeIndex;
+            if(index == null || !index.isIndexOf(attributes)) {
+                index = new AttributeIndex((ModificationCountingArrayList<CAttribute>) attributes);
+                attributeIndex = index;
+            }
+            return index.getAttribute(nameOrDifferentialpath);
+        }
         for(CAttribute attribute:attributes) {
             if(attribute.getRmAttributeName().equals(nameOrDifferentialpath) && attribute.getDifferentialPath() == null) {
                 return attribute;
@@ -92,24 +110,45 @@ public class CComplexObject extends CDefinedObject<OpenEHRBase> {
         return null;
     }
 
+    /**
+     * Discard the index of the attributes. Called after a change of the name or differential path of an attribute
+     */
+    void invalidateAttributeIndex() {
+        attributeIndex = null;
+    }
+
     public List<CAttribute> getAttributes() {
         return attributes;
     }
 
     public void setAttributes(List<CAttribute> attributes) {
         if(attributes == null) {
-            this.attributes = new ArrayList<>();
+            this.attributes = new ModificationCountingArrayList<>();
         } else {
             this.attributes = attributes;
             for(CAttribute attribute:attributes) {
                 attribute.setParent(this);
             }
         }
+        structureChanged();
     }
 
+    /**
+     * Add an attribute at the last position of the attribute list
+     * <p>
+     * Updates the attribute index in place, so this must not be called while other threads look up attributes of this
+     * object, just as the attribute list itself must not be changed then.
+     * @param attribute the attribute to add
+     */
     public void addAttribute(CAttribute attribute) {
         attribute.setParent(this);
+        AttributeIndex index = attributeIndex;
+        boolean indexUpToDate = index != null && index.isIndexOf(attributes);
         attributes.add(attribute);
+        if(indexUpToDate) {
+            index.indexLastElement();
+        }
+        structureChanged();
     }
 
     public void removeAttribute(CAttribute attribute) {
@@ -138,7 +177,8 @@ public class CComplexObject extends CDefinedObject<OpenEHRBase> {
             if(!allowRemovingTupleMembers && foundAttribute.getSocParent() != null) {
                 throw new IllegalArgumentException("cannot remove a tuple attribute with removeAttribute, remove the tuple attribute instead and rebuild tuple attributes.");
             } else {
-                attributes.remove(indexOfAttribute);
+                attributes.remove(indexOfAttribute).invalidatePaths();
+                structureChanged();
             }
         }
     }
@@ -167,8 +207,9 @@ public class CComplexObject extends CDefinedObject<OpenEHRBase> {
         CAttribute oldAttribute = getAttribute(newAttribute.getRmAttributeName());
         if(oldAttribute != null) {
             int index = attributes.indexOf(oldAttribute);
-            attributes.set(index, newAttribute);
+            attributes.set(index, newAttribute).invalidatePaths();
             newAttribute.setParent(this);
+            structureChanged();
         } else {
             ///...
             addAttribute(newAttribute);
@@ -207,4 +248,33 @@ public class CComplexObject extends CDefinedObject<OpenEHRBase> {
         }
         return -1;
     }
+
+    /**
+     * Index of the attributes by differential path, or by name if they do not have a differential path
+     */
+    private static final class AttributeIndex extends ListIndex<CAttribute> implements KryoCopyable<AttributeIndex> {
+
+        private final Map<String, Integer> names = new HashMap<>();
+
+        AttributeIndex(ModificationCountingArrayList<CAttribute> attributes) {
+            super(attributes);
+            indexAll();
+        }
+
+        @Override
+        protected void index(CAttribute attribute, int position) {
+            String name = attribute.getDifferentialPath() == null ? attribute.getRmAttributeName() : attribute.getDifferentialPath();
+            names.putIfAbsent(name, position);
+        }
+
+        CAttribute getAttribute(String nameOrDifferentialPath) {
+            return getElement(getPosition(names, nameOrDifferentialPath));
+        }
+
+        @Override
+        public AttributeIndex copy(Kryo kryo) {
+            //the index refers to the original list of attributes. Return an empty index, so it is rebuilt when used
+            return new AttributeIndex(null);
+        }
+    }
 }
@@ -19,6 +19,8 @@ public class CComplexObjectProxy extends CObject {
 
     public void setTargetPath(String targetPath) {
         this.targetPath = targetPath;
+        invalidateIndexOfParent();
+        structureChanged();
     }
 
     @Override
@@ -3,16 +3,19 @@ package com.nedap.archie.aom;
 import com.fasterxml.jackson.annotation.JsonAlias;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.nedap.archie.ArchieLanguageConfiguration;
+import com.nedap.archie.ArchieStringInterner;
 import com.nedap.archie.aom.terminology.ArchetypeTerm;
 import com.nedap.archie.aom.utils.AOMUtils;
 import com.nedap.archie.aom.utils.ConformanceCheckResult;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.base.MultiplicityInterval;
+import com.nedap.archie.definitions.AdlCodeDefinitions;
 import com.nedap.archie.paths.PathSegment;
 import com.nedap.archie.rminfo.RMProperty;
 import org.openehr.utils.message.I18n;
 
 import javax.annotation.Nullable;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.*;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -57,7 +60,7 @@ public abstract class CObject extends ArchetypeConstraint {
     }
 
     public void setRmTypeName(String rmTypeName) {
-        this.rmTypeName = rmTypeName;
+        this.rmTypeName = ArchieStringInterner.intern(rmTypeName);
     }
 
     public MultiplicityInterval getOccurrences() {
@@ -73,7 +76,16 @@ public abstract class CObject extends ArchetypeConstraint {
     }
 
     public void setNodeId(String nodeId) {
-        this.nodeId = nodeId;
+        this.nodeId = ArchieStringInterner.intern(nodeId);
+        invalidatePaths();
+        invalidateIndexOfParent();
+        structureChanged();
+    }
+
+    // Invoked by Jaxb Unmarshaller after unmarshalling. Jaxb sets the fields directly, so intern them here
+    public void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+        rmTypeName = ArchieStringInterner.intern(rmTypeName);
+        nodeId = ArchieStringInterner.intern(nodeId);
     }
 
     @JsonAlias("is_deprecated")
@@ -106,6 +118,33 @@ public abstract class CObject extends ArchetypeConstraint {
         return segments;
     }
 
+    /**
+     * Discard the index of the children of the parent, after a change in what this object is indexed by
+     */
+    protected void invalidateIndexOfParent() {
+        CAttribute parent = getParent();
+        if(parent != null) {
+            parent.invalidateChildIndex();
+        }
+    }
+
+    @Override
+    protected String calculatePath() {
+        CAttribute parent = getParent();
+        if(parent == null) {
+            return "/";
+        }
+        if(parent.getDifferentialPath() != null || parent.getClass() != CAttribute.class) {
+            return super.calculatePath();
+        }
+        //the path of the parent ends with the attribute name without a node id, so just add the node id
+        String parentPath = parent.getPath();
+        if(parentPath.equals("/") || nodeId == null || nodeId.equals(AdlCodeDefinitions.PRIMITIVE_NODE_ID)) {
+            return parentPath;
+        }
+        return parentPath + "[" + nodeId + "]";
+    }
+
     /**
      * Get the archetype term, in the defined meaning and description language
      */
@@ -178,6 +217,10 @@ public abstract class CObject extends ArchetypeConstraint {
 
 
     public String getLogicalPath() {
+        return getCachedLogicalPath(this::calculateLogicalPath);
+    }
+
+    private String calculateLogicalPath() {
         //TODO: this can cause name clashes. Solve them!
         //TODO: the text can contain []-characters. Replace them?
         //TODO: lowercase and replace spaces with underscores?
@@ -190,7 +233,6 @@ public abstract class CObject extends ArchetypeConstraint {
             nodeName = nodeId;
         }
         String path = getParent().getLogicalPath();
-        //TODO: this is a bit slow because we have to walk the tree to the archetype every single time
         if(nodeName != null) {
             path += "[" + nodeName + "]";
         }
@@ -240,6 +282,11 @@ public abstract class CObject extends ArchetypeConstraint {
         return Collections.emptyList();
     }
 
+    @Override
+    protected List<? extends ArchetypeConstraint> getChildConstraints() {
+        return getAttributes();
+    }
+
     /**
      * Return true if and only if this is a root node. Implemented in CComplexObject
      * @return
@@ -0,0 +1,75 @@
+package com.nedap.archie.aom;
+
+import com.nedap.archie.util.ModificationCountingArrayList;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class for the hash indexes of the children of a CAttribute and the attributes of a CComplexObject, so lookups
+ * by node id or name do not need to scan the whole list.
+ * <p>
+ * Every key is mapped to the position of the first matching element, so lookups return the same element as a scan of
+ * the list in order. Only a ModificationCountingArrayList can be indexed, so that all changes to the list itself are
+ * detected. Changes to the elements that change their keys have to be signalled to the owner of the list, which then
+ * discards the index.
+ * <p>
+ * Adding an element at the end of the list updates an up to date index in place, instead of discarding it, so
+ * alternately adding and looking up elements does not rebuild the index every time. Like the list itself, an index is
+ * therefore not safe for concurrent reads while elements are being added. Reading from multiple threads at the same
+ * time is safe as long as the list is not changed.
+ * <p>
+ * Subclasses index the elements in their constructor by calling indexAll().
+ *
+ * @param <T> the type of the elements in the list
+ */
+abstract class ListIndex<T> {
+
+    private final ModificationCountingArrayList<T> list;
+    private int modificationCount;
+
+    protected ListIndex(ModificationCountingArrayList<T> list) {
+        this.list = list;
+    }
+
+    protected final void indexAll() {
+        if(list != null) {
+            for(int i = 0; i < list.size(); i++) {
+                index(list.get(i), i);
+            }
+            modificationCount = list.getModificationCount();
+        }
+    }
+
+    /**
+     * @param list the current list
+     * @return true if this index is up to date for the given list
+     */
+    boolean isIndexOf(List<T> list) {
+        return list != null && this.list == list && modificationCount == this.list.getModificationCount();
+    }
+
+    /**
+     * Index the element that has just been added to the end of the list. Only call if this index was up to date
+     * before adding the element. Changes this index in place, so must not be called while other threads read it.
+     */
+    void indexLastElement() {
+        index(list.get(list.size() - 1), list.size() - 1);
+        modificationCount = list.getModificationCount();
+    }
+
+    protected abstract void index(T element, int position);
+
+    protected int size() {
+        return list.size();
+    }
+
+    protected int getPosition(Map<String, Integer> positions, String key) {
+        Integer position = positions.get(key);
+        return position == null ? -1 : position;
+    }
+
+    protected T getElement(int position) {
+        return position < 0 ? null : list.get(position);
+    }
+}
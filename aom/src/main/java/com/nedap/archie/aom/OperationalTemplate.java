@@ -127,10 +127,25 @@ public class OperationalTemplate extends AuthoredArchetype {
 
     public void setComponentTerminologies(Map<String, ArchetypeTerminology> componentTerminologies) {
         this.componentTerminologies = componentTerminologies;
+        invalidateLogicalPaths();
     }
 
     public void addComponentTerminology(String nodeId, ArchetypeTerminology terminology) {
         componentTerminologies.put(nodeId, terminology);
+        invalidateLogicalPaths();
+    }
+
+    /**
+     * Make the term definitions of the terminology and of all component terminologies lazy, so only the languages
+     * that are used are kept in memory. See ArchetypeTerminology.makeTermDefinitionsLazy()
+     */
+    public void makeTermDefinitionsLazy() {
+        if(getTerminology() != null) {
+            getTerminology().makeTermDefinitionsLazy();
+        }
+        for(ArchetypeTerminology terminology:componentTerminologies.values()) {
+            terminology.makeTermDefinitionsLazy();
+        }
     }
 
     /**
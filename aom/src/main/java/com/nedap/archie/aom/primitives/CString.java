@@ -1,10 +1,13 @@
 package com.nedap.archie.aom.primitives;
 
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoCopyable;
 import com.google.common.collect.Lists;
 import com.nedap.archie.aom.CObject;
 import com.nedap.archie.aom.CPrimitiveObject;
 import com.nedap.archie.aom.utils.ConformanceCheckResult;
 import com.nedap.archie.archetypevalidator.ErrorType;
+import com.nedap.archie.util.ModificationCountingArrayList;
 import org.openehr.utils.message.I18n;
 
 import javax.annotation.Nullable;
@@ -13,9 +16,12 @@ import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.function.BiFunction;
+import java.util.regex.Pattern;
 
 /**
  * Created by pieter.bos on 15/10/15.
@@ -27,14 +33,21 @@ public class CString extends CPrimitiveObject<String, String> {
     @XmlElement(name="assumed_value")
     @Nullable
     private String assumedValue;
-    private List<String> constraint = new ArrayList<>();
+    private List<String> constraint = new ModificationCountingArrayList<>();
+
+    /**
+     * The constraint, compiled for fast validation. Recompiled after setConstraint() and addConstraint(), and after
+     * direct modifications of the list returned by getConstraint(), unless a list of a different class has been set
+     * with setConstraint(). In that case call setConstraint() again after modifying it.
+     */
+    private transient volatile CompiledConstraint compiledConstraint;
 
     public CString() {
 
     }
 
     public CString(String constraint) {
-        this.constraint = Lists.newArrayList(constraint);
+        this.constraint = new ModificationCountingArrayList<>(Lists.newArrayList(constraint));
     }
 
     @Override
@@ -55,38 +68,40 @@ public class CString extends CPrimitiveObject<String, String> {
     @Override
     public void setConstraint(List<String> constraint) {
         this.constraint = constraint;
+        this.compiledConstraint = null;
     }
 
     @Override
     public void addConstraint(String constraint) {
         this.constraint.add(constraint);
+        this.compiledConstraint = null;
     }
 
     public boolean isValidValue(String value) {
         if(getConstraint().isEmpty()) {
             return true;
         }
-        for(String constraint:getConstraint()) {
-            if(constraint.length() > 1 &&
-                    isRegexConstraint(constraint)) {
-                //regexp. Strip first and last character and match. If you want to input
-                //data starting and ending with '/', you cannot in the AOM, although ADL lets you express if just fine.
-                //perhaps we should make the constraint object something more expressive than a String?
-                if(matchesRegexp(value, constraint)) {
-                    return true;
-                }
-            } else {
-                //TODO: does case matter here?
-                if(Objects.equals(value, constraint)) {
-                    return true;
-                }
-            }
+        return getCompiledConstraint().isValidValue(value);
+    }
+
+    private CompiledConstraint getCompiledConstraint() {
+        CompiledConstraint result = compiledConstraint;
+        if(result == null || !result.isCompiledFrom(constraint)) {
+            result = new CompiledConstraint(constraint);
+            compiledConstraint = result;
         }
-        return false;
+        return result;
+    }
+
+    private static Pattern compileRegexp(String constraint) {
+        //regexp. Strip first and last character and match. If you want to input
+        //data starting and ending with '/', you cannot in the AOM, although ADL lets you express if just fine.
+        //perhaps we should make the constraint object something more expressive than a String?
+        return Pattern.compile(constraint.substring(1, constraint.length()-1));
     }
 
     private boolean matchesRegexp(String value, String constraint) {
-        return value.matches(constraint.substring(1).substring(0, constraint.length()-2));
+        return compileRegexp(constraint).matcher(value).matches();
     }
 
     public static boolean isRegexConstraint(String constraint) {
@@ -144,5 +159,55 @@ public class CString extends CPrimitiveObject<String, String> {
     public int hashCode() {
         return Objects.hash(assumedValue, constraint);
     }
-}
 
+    /**
+     * The constraint of a CString, with the regular expressions compiled and the literal values in a hash set
+     */
+    private static class CompiledConstraint implements KryoCopyable<CompiledConstraint> {
+        private final List<String> source;
+        private final int sourceModificationCount;
+        private final Set<String> values = new HashSet<>();
+        private final List<Pattern> patterns = new ArrayList<>();
+
+        CompiledConstraint(List<String> constraint) {
+            this.source = constraint;
+            this.sourceModificationCount = ModificationCountingArrayList.getModificationCount(constraint);
+            for(String constraintString:constraint) {
+                if(constraintString.length() > 1 && isRegexConstraint(constraintString)) {
+                    patterns.add(compileRegexp(constraintString));
+                } else {
+                    //TODO: does case matter here?
+                    values.add(constraintString);
+                }
+            }
+        }
+
+        /**
+         * Check in constant time whether this was compiled from the given list, and the list has not been modified since
+         */
+        boolean isCompiledFrom(List<String> constraint) {
+            return source == constraint && sourceModificationCount == ModificationCountingArrayList.getModificationCount(constraint);
+        }
+
+        boolean isValidValue(String value) {
+            if(values.contains(value)) {
+                return true;
+            }
+            for(Pattern pattern:patterns) {
+                if(pattern.matcher(value).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Never changed after creation and checked against the constraint before use, so a clone can share it. The
+         * clone has its own constraint list, so it compiles its own constraint when first used
+         */
+        @Override
+        public CompiledConstraint copy(Kryo kryo) {
+            return this;
+        }
+    }
+}
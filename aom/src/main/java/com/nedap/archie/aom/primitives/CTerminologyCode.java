@@ -1,5 +1,7 @@
 package com.nedap.archie.aom.primitives;
 
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoCopyable;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.nedap.archie.ArchieLanguageConfiguration;
 import com.nedap.archie.ValidationConfiguration;
@@ -15,6 +17,7 @@ import com.nedap.archie.aom.utils.ConformanceCheckResult;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.base.terminology.TerminologyCode;
 import com.nedap.archie.terminology.OpenEHRTerminologyAccess;
+import com.nedap.archie.util.ModificationCountingArrayList;
 import org.openehr.utils.message.I18n;
 
 import javax.annotation.Nullable;
@@ -24,7 +27,10 @@ import javax.xml.bind.annotation.XmlElement;
 import javax.xml.bind.annotation.XmlType;
 import java.net.URI;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.function.BiFunction;
 
 /**
@@ -38,11 +44,20 @@ public class CTerminologyCode extends CPrimitiveObject<String, TerminologyCode>
     @XmlElement(name="assumed_value")
     @Nullable
     private TerminologyCode assumedValue;
-    private List<String> constraint = new ArrayList<>();
+    private List<String> constraint = new ModificationCountingArrayList<>();
 
     @Nullable
     private ConstraintStatus constraintStatus;
 
+    /**
+     * The expanded value sets used for validation, as hash sets. Recalculated after setConstraint(), addConstraint(),
+     * direct modifications of the list returned by getConstraint() and replacing the terminology of the archetype.
+     * Direct modifications are not detected if a list of a different class has been set with setConstraint(), and
+     * changes within the value sets of the same terminology are never detected, so call {@link #clearValueSetCache()}
+     * after changing those.
+     */
+    private transient volatile ValueSetCache valueSetCache;
+
     @Override
     public TerminologyCode getAssumedValue() {
         return assumedValue;
@@ -61,11 +76,13 @@ public class CTerminologyCode extends CPrimitiveObject<String, TerminologyCode>
     @Override
     public void setConstraint(List<String> constraint) {
         this.constraint = constraint;
+        this.valueSetCache = null;
     }
 
     @Override
     public void addConstraint(String constraint) {
         this.constraint.add(constraint);
+        this.valueSetCache = null;
     }
 
     public ConstraintStatus getConstraintStatus() {
@@ -93,12 +110,12 @@ public class CTerminologyCode extends CPrimitiveObject<String, TerminologyCode>
         if(isConstraintRequired()) {
             if (value == null) return false;
 
-            List<String> values;
+            Set<String> values;
             String terminologyId = value.getTerminologyId();
             if (terminologyId == null || terminologyId.equalsIgnoreCase("local") || AOMUtils.isValueSetCode(value.getTerminologyId())) {
-                values = this.getValueSetExpanded();
+                values = this.getValueSetCache().getLocalCodes();
             } else if (terminologyId.equalsIgnoreCase("openehr")) {
-                values = this.getOpenEHRValueSetExpanded();
+                values = this.getValueSetCache().getOpenEHRCodes();
             } else {
                 // This is not a local nor an openehr terminology.
                 // If a term binding is there, we may be able to validate, if external, we wil not be able to.
@@ -179,8 +196,11 @@ public class CTerminologyCode extends CPrimitiveObject<String, TerminologyCode>
 
     @JsonIgnore
     public List<String> getValueSetExpanded() {
+        return getValueSetExpanded(getTerminology());
+    }
+
+    private List<String> getValueSetExpanded(ArchetypeTerminology terminology) {
         List<String> result = new ArrayList<>();
-        ArchetypeTerminology terminology = getTerminology();
         for(String constraint:getConstraint()) {
             if(constraint.startsWith("at")) {
                 result.add(constraint);
@@ -196,9 +216,7 @@ public class CTerminologyCode extends CPrimitiveObject<String, TerminologyCode>
         return result;
     }
     
-    private List<String> getOpenEHRValueSetExpanded() {
-        List<String> atCodes = getValueSetExpanded();
-        ArchetypeTerminology terminology = getTerminology();
+    private static List<String> getOpenEHRValueSetExpanded(ArchetypeTerminology terminology, Collection<String> atCodes) {
         OpenEHRTerminologyAccess terminologyAccess = OpenEHRTerminologyAccess.getInstance();
         List<String> result = new ArrayList<>();
         
@@ -282,6 +300,25 @@ public class CTerminologyCode extends CPrimitiveObject<String, TerminologyCode>
         }
     }
 
+    private ValueSetCache getValueSetCache() {
+        ArchetypeTerminology terminology = getTerminology();
+        ValueSetCache result = valueSetCache;
+        if(result == null || !result.isCalculatedFrom(terminology, constraint)) {
+            result = new ValueSetCache(terminology, constraint, getValueSetExpanded(terminology));
+            valueSetCache = result;
+        }
+        return result;
+    }
+
+    /**
+     * Clear the cached expanded value sets used in {@link #isValidValue(TerminologyCode)}. Only required after changing
+     * the value sets or term bindings of the terminology of the archetype this constraint is in, or after directly
+     * modifying a constraint list that was set with setConstraint() and is not a ModificationCountingArrayList.
+     */
+    public void clearValueSetCache() {
+        this.valueSetCache = null;
+    }
+
     @Override
     public String toString() {
         StringBuilder result = new StringBuilder();
@@ -298,4 +335,52 @@ public class CTerminologyCode extends CPrimitiveObject<String, TerminologyCode>
         return result.toString();
     }
 
+
+    private static class ValueSetCache implements KryoCopyable<ValueSetCache> {
+        private final ArchetypeTerminology terminology;
+        private final List<String> constraint;
+        private final int constraintModificationCount;
+        private final Set<String> localCodes;
+        private volatile Set<String> openEHRCodes;
+
+        ValueSetCache(ArchetypeTerminology terminology, List<String> constraint, List<String> localCodes) {
+            this.terminology = terminology;
+            this.constraint = constraint;
+            this.constraintModificationCount = ModificationCountingArrayList.getModificationCount(constraint);
+            this.localCodes = new HashSet<>(localCodes);
+        }
+
+        /**
+         * Check in constant time whether this was calculated from the given terminology and constraint list, and the
+         * list has not been modified since
+         */
+        boolean isCalculatedFrom(ArchetypeTerminology terminology, List<String> constraint) {
+            return this.terminology == terminology && this.constraint == constraint &&
+                    constraintModificationCount == ModificationCountingArrayList.getModificationCount(constraint);
+        }
+
+        Set<String> getLocalCodes() {
+            return localCodes;
+        }
+
+        Set<String> getOpenEHRCodes() {
+            Set<String> result = openEHRCodes;
+            if(result == null) {
+                result = new HashSet<>(getOpenEHRValueSetExpanded(terminology, localCodes));
+                openEHRCodes = result;
+            }
+            return result;
+        }
+
+        /**
+         * Never changed after creation, except for the thread safe lazy openEHR codes, and checked against the
+         * terminology and constraint before use, so a clone can share it. The clone has its own constraint list, so it
+         * calculates its own value sets when first used
+         */
+        @Override
+        public ValueSetCache copy(Kryo kryo) {
+            return this;
+        }
+    }
+
 }
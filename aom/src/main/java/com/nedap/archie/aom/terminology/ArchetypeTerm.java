@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.nedap.archie.ArchieStringInterner;
 import com.nedap.archie.aom.ArchetypeModelObject;
 
 import javax.xml.bind.annotation.XmlAccessType;
@@ -37,7 +38,7 @@ public class ArchetypeTerm extends ArchetypeModelObject implements Map<String, S
     }
 
     public void setCode(String code) {
-        this.code = code;
+        this.code = ArchieStringInterner.intern(code);
     }
 
     @JsonProperty
@@ -1,6 +1,7 @@
 package com.nedap.archie.aom.terminology;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nedap.archie.ArchieStringInterner;
 import com.nedap.archie.aom.Archetype;
 import com.nedap.archie.aom.ArchetypeModelObject;
 import com.nedap.archie.aom.utils.AOMUtils;
@@ -61,7 +62,7 @@ public class ArchetypeTerminology extends ArchetypeModelObject {
     }
 
     public void setOriginalLanguage(String originalLanguage) {
-        this.originalLanguage = originalLanguage;
+        this.originalLanguage = ArchieStringInterner.intern(originalLanguage);
     }
 
     public String getConceptCode() {
@@ -77,7 +78,17 @@ public class ArchetypeTerminology extends ArchetypeModelObject {
     }
 
     public void setTermDefinitions(Map<String, Map<String, ArchetypeTerm>> termDefinitions) {
-        this.termDefinitions = termDefinitions;
+        this.termDefinitions = internTermDefinitionKeys(termDefinitions);
+    }
+
+    /**
+     * Replace the term definitions with LazyTermDefinitions, that keep the terms of all languages in a compressed form
+     * and only load the languages that are used. The term definitions can no longer be modified after this.
+     */
+    public void makeTermDefinitionsLazy() {
+        if(termDefinitions != null) {
+            termDefinitions = LazyTermDefinitions.compress(termDefinitions);
+        }
     }
 
     public Map<String, Map<String, URI>> getTermBindings() {
@@ -85,7 +96,7 @@ public class ArchetypeTerminology extends ArchetypeModelObject {
     }
 
     public void setTermBindings(Map<String, Map<String, URI>> termBindings) {
-        this.termBindings = termBindings;
+        this.termBindings = internKeys(termBindings);
     }
 
     public Map<String, Map<String, ArchetypeTerm>> getTerminologyExtracts() {
@@ -93,7 +104,37 @@ public class ArchetypeTerminology extends ArchetypeModelObject {
     }
 
     public void setTerminologyExtracts(Map<String, Map<String, ArchetypeTerm>> terminologyExtracts) {
-        this.terminologyExtracts = terminologyExtracts;
+        this.terminologyExtracts = internKeys(terminologyExtracts);
+    }
+
+    /**
+     * Intern the original language and the language, terminology id and code keys of the term definitions, term bindings
+     * and terminology extracts, so every archetype shares the same instances of these strings. The setters already do
+     * this, call this after modifying the maps directly.
+     */
+    public void internStrings() {
+        originalLanguage = ArchieStringInterner.intern(originalLanguage);
+        internTermDefinitionKeys(termDefinitions);
+        internKeys(termBindings);
+        internKeys(terminologyExtracts);
+    }
+
+    private static Map<String, Map<String, ArchetypeTerm>> internTermDefinitionKeys(Map<String, Map<String, ArchetypeTerm>> termDefinitions) {
+        //lazy term definitions are created from already interned term definitions, and iterating would load all languages
+        if(termDefinitions instanceof LazyTermDefinitions) {
+            return termDefinitions;
+        }
+        return internKeys(termDefinitions);
+    }
+
+    private static <V> Map<String, Map<String, V>> internKeys(Map<String, Map<String, V>> map) {
+        if(map != null) {
+            ArchieStringInterner.internKeys(map);
+            for(Map<String, V> codes:map.values()) {
+                ArchieStringInterner.internKeys(codes);
+            }
+        }
+        return map;
     }
 
     @JsonIgnore
@@ -0,0 +1,97 @@
+package com.nedap.archie.aom.terminology;
+
+import com.nedap.archie.ArchieStringInterner;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Stores the terms of every language of term definitions as a single deflated byte array, and loads them from there.
+ * Only the code and the items of the terms are stored.
+ */
+class CompressedTermDefinitions implements Function<String, Map<String, ArchetypeTerm>> {
+
+    private final Map<String, byte[]> compressedLanguages = new HashMap<>();
+
+    CompressedTermDefinitions(Map<String, Map<String, ArchetypeTerm>> termDefinitions) {
+        for(Map.Entry<String, Map<String, ArchetypeTerm>> language:termDefinitions.entrySet()) {
+            compressedLanguages.put(language.getKey(), compress(language.getValue()));
+        }
+    }
+
+    @Override
+    public Map<String, ArchetypeTerm> apply(String language) {
+        byte[] compressed = compressedLanguages.get(language);
+        return compressed == null ? null : decompress(compressed);
+    }
+
+    private static byte[] compress(Map<String, ArchetypeTerm> terms) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream output = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            output.writeInt(terms.size());
+            for(Map.Entry<String, ArchetypeTerm> term:terms.entrySet()) {
+                writeString(output, term.getKey());
+                writeString(output, term.getValue().getCode());
+                output.writeInt(term.getValue().size());
+                for(Map.Entry<String, String> item:term.getValue().entrySet()) {
+                    writeString(output, item.getKey());
+                    writeString(output, item.getValue());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static Map<String, ArchetypeTerm> decompress(byte[] compressed) {
+        try (DataInputStream input = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(compressed)))) {
+            int numberOfTerms = input.readInt();
+            Map<String, ArchetypeTerm> terms = new LinkedHashMap<>();
+            for(int i = 0; i < numberOfTerms; i++) {
+                String key = ArchieStringInterner.intern(readString(input));
+                ArchetypeTerm term = new ArchetypeTerm();
+                term.setCode(readString(input));
+                int numberOfItems = input.readInt();
+                for(int j = 0; j < numberOfItems; j++) {
+                    term.put(readString(input), readString(input));
+                }
+                terms.put(key, term);
+            }
+            return terms;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if(value == null) {
+            output.writeInt(-1);
+        } else {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+    }
+
+    private static String readString(DataInputStream input) throws IOException {
+        int length = input.readInt();
+        if(length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        input.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,137 @@
+package com.nedap.archie.aom.terminology;
+
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoCopyable;
+
+import java.lang.ref.SoftReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Term definitions of an ArchetypeTerminology, of which the terms per language are only loaded when requested. Loaded
+ * languages are softly referenced, so the garbage collector drops them under memory pressure, after which they are
+ * loaded again on the next request.
+ * <p>
+ * Use this as the term definitions of an ArchetypeTerminology to keep all translations of for example a large
+ * operational template available without keeping them all in memory. ArchetypeTerminology.getTermDefinition() and the
+ * other Map methods keep working as usual.
+ * <p>
+ * This map and the maps of terms it returns cannot be modified, as changes would be lost after a language is dropped.
+ */
+public class LazyTermDefinitions extends AbstractMap<String, Map<String, ArchetypeTerm>> implements KryoCopyable<LazyTermDefinitions> {
+
+    private final Set<String> languages;
+    private final Function<String, Map<String, ArchetypeTerm>> loader;
+    private final Map<String, SoftReference<Map<String, ArchetypeTerm>>> loadedLanguages = new ConcurrentHashMap<>();
+
+    /**
+     * @param languages the languages that are available
+     * @param loader the function that loads all terms of a language, keyed by code. Can be called more than once for
+     *               the same language, and from more than one thread at the same time
+     */
+    public LazyTermDefinitions(Set<String> languages, Function<String, Map<String, ArchetypeTerm>> loader) {
+        this.languages = Collections.unmodifiableSet(new LinkedHashSet<>(languages));
+        this.loader = loader;
+    }
+
+    /**
+     * Create lazy term definitions that store the given term definitions in a compressed form, and load them from
+     * there on demand.
+     * @param termDefinitions the term definitions to store
+     * @return the lazy term definitions
+     */
+    public static LazyTermDefinitions compress(Map<String, Map<String, ArchetypeTerm>> termDefinitions) {
+        if(termDefinitions instanceof LazyTermDefinitions) {
+            return (LazyTermDefinitions) termDefinitions;
+        }
+        return new LazyTermDefinitions(termDefinitions.keySet(), new CompressedTermDefinitions(termDefinitions));
+    }
+
+    @Override
+    public Map<String, ArchetypeTerm> get(Object language) {
+        if(!languages.contains(language)) {
+            return null;
+        }
+        SoftReference<Map<String, ArchetypeTerm>> reference = loadedLanguages.get(language);
+        Map<String, ArchetypeTerm> terms = reference == null ? null : reference.get();
+        if(terms == null) {
+            Map<String, ArchetypeTerm> loaded = loader.apply((String) language);
+            terms = loaded == null ? Collections.emptyMap() : Collections.unmodifiableMap(loaded);
+            loadedLanguages.put((String) language, new SoftReference<>(terms));
+        }
+        return terms;
+    }
+
+    @Override
+    public boolean containsKey(Object language) {
+        return languages.contains(language);
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return languages;
+    }
+
+    @Override
+    public int size() {
+        return languages.size();
+    }
+
+    @Override
+    public Set<Entry<String, Map<String, ArchetypeTerm>>> entrySet() {
+        return new AbstractSet<Entry<String, Map<String, ArchetypeTerm>>>() {
+            @Override
+            public Iterator<Entry<String, Map<String, ArchetypeTerm>>> iterator() {
+                Iterator<String> languageIterator = languages.iterator();
+                return new Iterator<Entry<String, Map<String, ArchetypeTerm>>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return languageIterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, Map<String, ArchetypeTerm>> next() {
+                        String language = languageIterator.next();
+                        return new SimpleImmutableEntry<>(language, get(language));
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return languages.size();
+            }
+        };
+    }
+
+    /**
+     * @param language the language
+     * @return true if the terms of the given language are currently loaded
+     */
+    public boolean isLoaded(String language) {
+        SoftReference<Map<String, ArchetypeTerm>> reference = loadedLanguages.get(language);
+        return reference != null && reference.get() != null;
+    }
+
+    /**
+     * Drop all loaded languages, without waiting for the garbage collector to do so
+     */
+    public void dropLoadedLanguages() {
+        loadedLanguages.clear();
+    }
+
+    /**
+     * The loader is shared with the copy, the loaded languages are not.
+     */
+    @Override
+    public LazyTermDefinitions copy(Kryo kryo) {
+        return new LazyTermDefinitions(languages, loader);
+    }
+}
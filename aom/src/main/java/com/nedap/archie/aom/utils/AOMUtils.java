@@ -298,6 +298,14 @@ public class AOMUtils {
         } else if (path.equals("/")) {
             throw new IllegalArgumentException("cannot retrieve attribute information for path '/'");
         }
+        if(selectedModel instanceof ReflectionModelInfoLookup) {
+            return ((ReflectionModelInfoLookup) selectedModel).getAttributeInfoAtPathCache().get(rmTypeName, path,
+                    (typeName, attributePath) -> findAttributeInfoAtPath(selectedModel, typeName, attributePath));
+        }
+        return findAttributeInfoAtPath(selectedModel, rmTypeName, path);
+    }
+
+    private static RMAttributeInfo findAttributeInfoAtPath(ModelInfoLookup selectedModel, String rmTypeName, String path) {
         APathQuery query = new APathQuery(path);
 
         RMTypeInfo typeInfo = selectedModel.getTypeInfo(rmTypeName);
@@ -9,6 +9,7 @@ import com.nedap.archie.aom.CPrimitiveObject;
 import com.nedap.archie.aom.CPrimitiveTuple;
 import com.nedap.archie.aom.terminology.ArchetypeTerm;
 import com.nedap.archie.aom.terminology.ArchetypeTerminology;
+import com.nedap.archie.util.ModificationCountingArrayList;
 
 import java.util.Map;
 import java.util.Stack;
@@ -30,8 +31,31 @@ public class ArchetypeParsePostProcesser {
                 originalLanguage = archetype.getOriginalLanguage().getCodeString();
             }
             archetype.getTerminology().setOriginalLanguage(originalLanguage);
+            terminology.internStrings();
         }
         setParents(archetype);
+        cachePaths(archetype);
+    }
+
+    /**
+     * Calculate and cache the paths of all constraints in the definition in a single pass, from the root down, so
+     * every path is calculated by appending to the cached path of its parent.
+     * The logical paths are not calculated, since they depend on the logical path language
+     */
+    public static void cachePaths(Archetype archetype) {
+        if(archetype.getDefinition() == null) {
+            return;
+        }
+        Stack<CObject> workList = new Stack<>();
+        workList.add(archetype.getDefinition());
+        while(!workList.empty()) {
+            CObject cObject = workList.pop();
+            cObject.getPath();
+            for(CAttribute attribute:cObject.getAttributes()) {
+                attribute.getPath();
+                workList.addAll(attribute.getChildren());
+            }
+        }
     }
 
     private static void setParents(Archetype archetype) {
@@ -42,8 +66,14 @@ public class ArchetypeParsePostProcesser {
             if(cObject instanceof CPrimitiveObject) {
                 cObject.setNodeId("id9999");//also in the implementation, but check to be sure
             }
+            if(cObject instanceof CComplexObject && !(cObject.getAttributes() instanceof ModificationCountingArrayList)) {
+                //only attributes and children in a ModificationCountingArrayList are indexed for fast lookups
+                ((CComplexObject) cObject).setAttributes(new ModificationCountingArrayList<>(cObject.getAttributes()));
+            }
             for(CAttribute attribute:cObject.getAttributes()) {
-
+                if(!(attribute.getChildren() instanceof ModificationCountingArrayList)) {
+                    attribute.setChildren(new ModificationCountingArrayList<>(attribute.getChildren()));
+                }
                 attribute.setParent(cObject);
                 for(CObject child:attribute.getChildren()) {
                     child.setParent(attribute);
@@ -0,0 +1,136 @@
+package com.nedap.archie.query;
+
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoCopyable;
+import com.nedap.archie.ArchieLanguageConfiguration;
+import com.nedap.archie.aom.ArchetypeModelObject;
+import com.nedap.archie.aom.CAttribute;
+import com.nedap.archie.aom.CComplexObject;
+import com.nedap.archie.aom.CObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the paths, logical paths and node ids in an archetype definition, so repeated queries do not have to parse
+ * the path and walk the definition again.
+ * <p>
+ * Path queries are memoized: the first query of a path is done with an AOMPathQuery, after which the result is
+ * stored, so the results are always exactly the same as those of an AOMPathQuery. The node id and logical path
+ * indexes are built on first use by walking the definition once.
+ * <p>
+ * The index is not updated when the definition changes, so it must be discarded after every change. Use it through
+ * Archetype.enablePathIndex(), which does so automatically.
+ */
+public class ArchetypePathIndex implements KryoCopyable<ArchetypePathIndex> {
+
+    private final CComplexObject root;
+
+    private final Map<String, List<ArchetypeModelObject>> pathResults = new ConcurrentHashMap<>();
+    private volatile Map<String, List<CObject>> nodeIdIndex;
+    /** The logical paths depend on the logical path language, so there is one index per language */
+    private final Map<String, Map<String, List<CObject>>> logicalPathIndexes = new ConcurrentHashMap<>();
+
+    public ArchetypePathIndex(CComplexObject root) {
+        this.root = root;
+    }
+
+    /**
+     * Find the object at the given path. Same semantics as AOMPathQuery.find()
+     * @param path the path to find
+     * @return the single object at the path, or null if not found
+     * @throws UnsupportedOperationException if more than one object is found
+     */
+    public <T extends ArchetypeModelObject> T find(String path) {
+        List<T> list = findList(path);
+        if(list.isEmpty()) {
+            return null;
+        } else if (list.size() == 1) {
+            return list.get(0);
+        } else {
+            throw new UnsupportedOperationException("cannot find without list with more than 1 element");
+        }
+    }
+
+    /**
+     * Find all objects at the given path. Same semantics as AOMPathQuery.findList()
+     * @param path the path to find
+     * @return an unmodifiable list of all objects at the path
+     */
+    @SuppressWarnings("unchecked")
+    public <T extends ArchetypeModelObject> List<T> findList(String path) {
+        List<ArchetypeModelObject> result = pathResults.get(path);
+        if(result == null) {
+            //no computeIfAbsent here: the query can find through CComplexObjectProxies, which in turn can query this index
+            result = Collections.unmodifiableList(new AOMPathQuery(path).findList(root));
+            pathResults.put(path, result);
+        }
+        return (List<T>) result;
+    }
+
+    /**
+     * @param nodeId the node id
+     * @return all CObjects in the definition with exactly the given node id, in depth first order. Empty if none found
+     */
+    public List<CObject> getConstraintsWithNodeId(String nodeId) {
+        Map<String, List<CObject>> index = nodeIdIndex;
+        if(index == null) {
+            index = new HashMap<>();
+            for(CObject cObject:getAllCObjects()) {
+                if(cObject.getNodeId() != null) {
+                    index.computeIfAbsent(cObject.getNodeId(), id -> new ArrayList<>()).add(cObject);
+                }
+            }
+            nodeIdIndex = index;
+        }
+        return index.getOrDefault(nodeId, Collections.emptyList());
+    }
+
+    /**
+     * @param logicalPath the logical path, in the logical path language of ArchieLanguageConfiguration
+     * @return all CObjects in the definition with the given logical path, in depth first order. Empty if none found
+     */
+    public List<CObject> findByLogicalPath(String logicalPath) {
+        Map<String, List<CObject>> index = logicalPathIndexes.computeIfAbsent(ArchieLanguageConfiguration.getLogicalPathLanguage(), language -> {
+            Map<String, List<CObject>> result = new HashMap<>();
+            for(CObject cObject:getAllCObjects()) {
+                result.computeIfAbsent(cObject.getLogicalPath(), path -> new ArrayList<>()).add(cObject);
+            }
+            return result;
+        });
+        return index.getOrDefault(logicalPath, Collections.emptyList());
+    }
+
+    /**
+     * The index refers to the objects of the original definition, so a clone of an archetype gets a new, empty index
+     * of the cloned definition.
+     */
+    @Override
+    public ArchetypePathIndex copy(Kryo kryo) {
+        return new ArchetypePathIndex(kryo.copy(root));
+    }
+
+    private List<CObject> getAllCObjects() {
+        List<CObject> result = new ArrayList<>();
+        Deque<CObject> workList = new ArrayDeque<>();
+        workList.push(root);
+        while(!workList.isEmpty()) {
+            CObject cObject = workList.pop();
+            result.add(cObject);
+            List<CAttribute> attributes = cObject.getAttributes();
+            for(int i = attributes.size() - 1; i >= 0; i--) {
+                List<CObject> children = attributes.get(i).getChildren();
+                for(int j = children.size() - 1; j >= 0; j--) {
+                    workList.push(children.get(j));
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -12,7 +12,6 @@ import org.openehr.bmm.core.*;
 import org.openehr.bmm.persistence.validation.BmmDefinitions;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class MetaModel implements MetaModelInterface {
 
@@ -108,12 +107,11 @@ public class MetaModel implements MetaModelInterface {
             if(childClass == null) {
                 return true;//will be checked elsewhere
             }
-            List<String> allAncestors = childClass.findAllAncestors();
-            allAncestors = allAncestors.stream().map((s) -> BmmDefinitions.typeNameToClassKey(s)).collect(Collectors.toList());
-            if(!parentClassName.equalsIgnoreCase(childClassName) && !allAncestors.contains(parentClassName)) {
-                return false;
+            if(parentClassName.equalsIgnoreCase(childClassName)) {
+                return true;
             }
-            return true;
+            BmmClass parentClass = selectedBmmModel.getClassDefinition(parentClassName);
+            return parentClass != null && childClass.conformsTo(parentClass);
         } else {
             return selectedModel.rmTypesConformant(childTypeName, parentTypeName);
         }
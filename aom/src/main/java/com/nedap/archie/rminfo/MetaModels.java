@@ -55,6 +55,19 @@ public class MetaModels implements MetaModelInterface {
         aomProfiles = profiles;
     }
 
+    /**
+     * Create a copy of this MetaModels with the same models, AOM profiles, overridden model versions and selected model.
+     * Use this to work with the same selected model in another thread.
+     * @return the copy
+     */
+    public MetaModels copy() {
+        MetaModels copy = new MetaModels(models, bmmRepository, aomProfiles);
+        copy.overriddenMetaModelVersions.putAll(overriddenMetaModelVersions);
+        copy.selectedModel = selectedModel;
+        copy.selectedAomProfile = selectedAomProfile;
+        return copy;
+    }
+
     /**
      * Indicate that the model version for the given package by the given publisher should be fixed
      * to a specific version. Useful for validating archetypes against new RM versions, for example OpenEHR
@@ -2,6 +2,7 @@ package com.nedap.archie.rminfo;
 
 import com.google.common.reflect.TypeToken;
 import com.nedap.archie.aom.CPrimitiveObject;
+import com.nedap.archie.paths.PathResolutionCache;
 import org.reflections.ReflectionUtils;
 import org.reflections.Reflections;
 import org.reflections.scanners.Scanners;
@@ -36,6 +37,7 @@ public abstract class ReflectionModelInfoLookup implements ModelInfoLookup {
 
     private Map<String, RMTypeInfo> rmTypeNamesToRmTypeInfo = new HashMap<>();
     private Map<Class<?>, RMTypeInfo> classesToRmTypeInfo = new HashMap<>();
+    private final PathResolutionCache<RMAttributeInfo> attributeInfoAtPathCache = new PathResolutionCache<>();
 
     private boolean inConstructor = true;
     private boolean addAttributesWithoutField = true;
@@ -150,6 +152,7 @@ public abstract class ReflectionModelInfoLookup implements ModelInfoLookup {
             //should not be a problem to do it this way
             addSuperAndSubclassInfo();
             addAlternativeTypeNames();
+            attributeInfoAtPathCache.clear();
         }
     }
 
@@ -489,6 +492,14 @@ public abstract class ReflectionModelInfoLookup implements ModelInfoLookup {
         return new ArrayList<>(classesToRmTypeInfo.values());
     }
 
+    /**
+     * The cache used by AOMUtils.getAttributeInfoAtPath for this model. Its counters show how effective it is.
+     * @return the attribute info at path cache
+     */
+    public PathResolutionCache<RMAttributeInfo> getAttributeInfoAtPathCache() {
+        return attributeInfoAtPathCache;
+    }
+
     @Override
     public ModelNamingStrategy getNamingStrategy() {
         return namingStrategy;
@@ -3,6 +3,8 @@ package com.nedap.archie.serializer.adl;
 import com.nedap.archie.aom.*;
 import com.nedap.archie.rminfo.RMObjectMapperProvider;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.function.Function;
 
 /**
@@ -37,14 +39,40 @@ abstract public class ADLArchetypeSerializer<T extends Archetype> {
      * @return the ADL output
      */
     public static String serialize(Archetype archetype, Function<String, Archetype> flatArchetypeProvider, RMObjectMapperProvider rmObjectMapperProvider) {
+        return createSerializer(archetype, flatArchetypeProvider, rmObjectMapperProvider).serialize();
+    }
+
+    /**
+     * Serialize the archetype to ADL, writing it to the given output while serializing instead of building the full
+     * ADL in memory first. Useful to write many or large archetypes to a file or network stream.
+     * The output is not flushed or closed.
+     * @param archetype the archetype to serialize
+     * @param flatArchetypeProvider the function to retrieve flat parent archetypes
+     * @param rmObjectMapperProvider the RM Object Mapper provider used to serialize default values. If not provided,
+     *                               the standard ODIN serializer will be used, which will likekely not be correct.
+     * @param output the output to write the ADL to, for example a Writer
+     * @throws IOException in case writing to the output fails
+     */
+    public static void serialize(Archetype archetype, Function<String, Archetype> flatArchetypeProvider, RMObjectMapperProvider rmObjectMapperProvider, Appendable output) throws IOException {
+        ADLArchetypeSerializer<?> serializer = createSerializer(archetype, flatArchetypeProvider, rmObjectMapperProvider);
+        try {
+            serializer.builder.streamTo(output);
+            serializer.serialize();
+            serializer.builder.finish();
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static ADLArchetypeSerializer<?> createSerializer(Archetype archetype, Function<String, Archetype> flatArchetypeProvider, RMObjectMapperProvider rmObjectMapperProvider) {
         if (archetype instanceof Template) {
-            return new ADLTemplateSerializer((Template) archetype, flatArchetypeProvider, rmObjectMapperProvider).serialize();
+            return new ADLTemplateSerializer((Template) archetype, flatArchetypeProvider, rmObjectMapperProvider);
         } else if (archetype instanceof OperationalTemplate) {
-            return new ADLOperationalTemplateSerializer((OperationalTemplate) archetype, flatArchetypeProvider, rmObjectMapperProvider).serialize();
+            return new ADLOperationalTemplateSerializer((OperationalTemplate) archetype, flatArchetypeProvider, rmObjectMapperProvider);
         } else if (archetype instanceof TemplateOverlay) {
-            return new ADLTemplateOverlaySerializer((TemplateOverlay) archetype, flatArchetypeProvider, rmObjectMapperProvider).serialize();
+            return new ADLTemplateOverlaySerializer((TemplateOverlay) archetype, flatArchetypeProvider, rmObjectMapperProvider);
         } else if (archetype instanceof AuthoredArchetype) {
-            return new ADLAuthoredArchetypeSerializer<>((AuthoredArchetype) archetype, flatArchetypeProvider, rmObjectMapperProvider).serialize();
+            return new ADLAuthoredArchetypeSerializer<>((AuthoredArchetype) archetype, flatArchetypeProvider, rmObjectMapperProvider);
         }
         throw new AssertionError("Could not serialize archetype of class " +
                 (archetype == null ? null : archetype.getClass().getName()));
@@ -60,15 +88,24 @@ abstract public class ADLArchetypeSerializer<T extends Archetype> {
         return serialize(archetype, null, null);
     }
 
+    /**
+     * Serialize the archetype. If the builder is streaming, the returned String only contains the part of the ADL
+     * that has not been written to the output yet.
+     * @return the ADL output
+     */
     protected String serialize() {
         appendHead();
         appendSpecialize();
         appendLanguage();
+        builder.flush();
         appendDescription();
+        builder.flush();
         appendDefinition();
+        builder.flush();
         appendRules();
         appendRmOverlay();
         appendTerminology();
+        builder.flush();
         appendAnnotations();
 
         return builder.toString();
@@ -99,6 +99,10 @@ public class ADLDefinitionSerializer {
         ConstraintSerializer<CObject> serializer = getSerializer(cobj);
         if (serializer != null) {
             serializer.serialize(cobj);
+            if (cobj instanceof CComplexObject) {
+                //no marks are active around complex objects, so this is a safe place to stream the output so far
+                builder.flush();
+            }
         } else {
             throw new AssertionError("Unsupported constraint: " + cobj.getClass().getName());
         }
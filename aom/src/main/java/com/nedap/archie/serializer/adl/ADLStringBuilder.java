@@ -1,11 +1,13 @@
 package com.nedap.archie.serializer.adl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.nedap.archie.serializer.adl.jackson.ArchetypeODINMapperFactory;
 import com.nedap.archie.serializer.odin.StructureStringBuilder;
 import com.nedap.archie.serializer.odin.StructuredStringAppendable;
 import org.openehr.odin.jackson.ODINMapper;
 
+import java.io.IOException;
+import java.io.Writer;
+
 import static com.nedap.archie.serializer.odin.OdinStringBuilder.quoteText;
 
 /**
@@ -18,7 +20,7 @@ public class ADLStringBuilder implements StructuredStringAppendable {
     private final ODINMapper odinMapper;
 
     public ADLStringBuilder() {
-        odinMapper = new ArchetypeODINMapperFactory().createMapper();
+        odinMapper = ArchetypeODINMapperFactory.getSharedMapper();
     }
 
     @Override
@@ -53,9 +55,9 @@ public class ADLStringBuilder implements StructuredStringAppendable {
 
     public ADLStringBuilder odin(Object structure) {
         try {
-            String odin = odinMapper.writeValueAsString(structure);
-            appendMultipleLines(odin);
-        } catch (JsonProcessingException e) {
+            //write the ODIN line by line directly into this builder, instead of creating an intermediate String
+            odinMapper.writeValue(new MultipleLinesWriter(), structure);
+        } catch (IOException e) {
             throw new RuntimeException(e);
         }
         return this;
@@ -98,6 +100,29 @@ public class ADLStringBuilder implements StructuredStringAppendable {
         builder.clearMark();
     }
 
+    /**
+     * Stream all completed lines to the given output from now on, instead of keeping them in memory.
+     * See {@link StructureStringBuilder#streamTo(Appendable)}
+     * @param output the output to write to
+     */
+    public void streamTo(Appendable output) {
+        builder.streamTo(output);
+    }
+
+    /**
+     * Write the completed lines to the output, if streaming. Must not be called while a mark is active.
+     */
+    public void flush() {
+        builder.flush();
+    }
+
+    /**
+     * Write all remaining content to the output, if streaming.
+     */
+    public void finish() {
+        builder.finish();
+    }
+
     @Override
     public String toString() {
         return builder.toString();
@@ -125,8 +150,62 @@ public class ADLStringBuilder implements StructuredStringAppendable {
         return builder.getCurrentLineLength();
     }
 
+    /**
+     * @return the ODIN mapper used by this builder. It is shared, so it must not be reconfigured
+     */
     public ODINMapper getOdinMapper() {
         return odinMapper;
     }
+
+    /**
+     * Writer that appends the written text in the same way as {@link #appendMultipleLines(String)}, but without
+     * needing the full text first.
+     */
+    private class MultipleLinesWriter extends Writer {
+
+        private final StringBuilder currentLine = new StringBuilder();
+        /** empty lines are only written when followed by a non-empty line, just like String.split does */
+        private int pendingEmptyLines = 0;
+        private boolean anyLineWritten = false;
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            for(int i = off; i < off + len; i++) {
+                char c = cbuf[i];
+                if(c == '\n') {
+                    if(currentLine.length() == 0) {
+                        pendingEmptyLines++;
+                    } else {
+                        writeCurrentLine();
+                    }
+                } else {
+                    currentLine.append(c);
+                }
+            }
+        }
+
+        private void writeCurrentLine() {
+            for(int i = 0; i < pendingEmptyLines; i++) {
+                builder.append("");
+                builder.newline();
+            }
+            pendingEmptyLines = 0;
+            builder.append(currentLine);
+            builder.newline();
+            currentLine.setLength(0);
+            anyLineWritten = true;
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+            if(currentLine.length() > 0 || (!anyLineWritten && pendingEmptyLines == 0)) {
+                writeCurrentLine();
+            }
+        }
+    }
 }
 
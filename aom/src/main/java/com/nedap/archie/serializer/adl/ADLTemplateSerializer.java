@@ -29,6 +29,7 @@ class ADLTemplateSerializer extends ADLAuthoredArchetypeSerializer<Template> {
     }
 
     private void appendTemplateOverlay(TemplateOverlay templateOverlay) {
+        builder.flush();
         builder.newline()
                 .append("------------------------------------------------------------------------").newline()
                 .append(ADLArchetypeSerializer.serialize(templateOverlay, flatArchetypeProvider, rmObjectMapperProvider));
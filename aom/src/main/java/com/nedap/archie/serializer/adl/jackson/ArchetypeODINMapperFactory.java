@@ -8,6 +8,23 @@ import org.openehr.odin.jackson.ODINMapper;
 
 public class ArchetypeODINMapperFactory {
 
+    //threadsafe, can be cached
+    private volatile static ODINMapper sharedMapper;
+
+    /**
+     * Get an ODIN mapper for archetypes. It will be cached in a static variable for performance reasons, so it must
+     * not be reconfigured. Use {@link #createMapper()} for a mapper that can be changed.
+     * @return the shared ODIN mapper
+     */
+    public static ODINMapper getSharedMapper() {
+        if(sharedMapper == null) {
+            // Assign to the static variable after configuration, so it can't be accessed by other thread before it is
+            // fully configured.
+            sharedMapper = new ArchetypeODINMapperFactory().createMapper();
+        }
+        return sharedMapper;
+    }
+
     public ODINMapper createMapper() {
         ODINMapper result = new ODINMapper();
         SimpleModule module = new SimpleModule();
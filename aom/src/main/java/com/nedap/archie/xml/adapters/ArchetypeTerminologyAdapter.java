@@ -117,6 +117,8 @@ public class ArchetypeTerminologyAdapter extends XmlAdapter<XmlArchetypeTerminol
         for(CodeDefinitionSet set:list) {
             Map<String, ArchetypeTerm> termMap = new LinkedHashMap<>();
             for(ArchetypeTerm term:set.getItems()) {
+                //interns the code, as set by Jaxb
+                term.setCode(term.getCode());
                 termMap.put(term.getCode(), term);
             }
             result.put(set.getLanguage(), termMap);
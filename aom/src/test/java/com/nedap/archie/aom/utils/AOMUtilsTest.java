@@ -1,8 +1,13 @@
 package com.nedap.archie.aom.utils;
 
+import com.nedap.archie.paths.PathResolutionCache;
+import com.nedap.archie.rminfo.ArchieAOMInfoLookup;
+import com.nedap.archie.rminfo.RMAttributeInfo;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 
 public class AOMUtilsTest {
 
@@ -15,4 +20,26 @@ public class AOMUtilsTest {
         assertEquals("id1", AOMUtils.codeAtLevel("id1.0.1", 1));
     }
 
+    @Test
+    public void attributeInfoAtPathCached() {
+        ArchieAOMInfoLookup lookup = new ArchieAOMInfoLookup();
+        PathResolutionCache<RMAttributeInfo> cache = lookup.getAttributeInfoAtPathCache();
+
+        RMAttributeInfo attributeInfo = AOMUtils.getAttributeInfoAtPath(lookup, "C_COMPLEX_OBJECT", "/attributes/children");
+        assertEquals("children", attributeInfo.getRmName());
+        assertNull(AOMUtils.getAttributeInfoAtPath(lookup, "C_COMPLEX_OBJECT", "/attributes/unknown"));
+        assertEquals(0, cache.getHits());
+        assertEquals(2, cache.getMisses());
+
+        assertSame(attributeInfo, AOMUtils.getAttributeInfoAtPath(lookup, "C_COMPLEX_OBJECT", "/attributes/children"));
+        assertNull(AOMUtils.getAttributeInfoAtPath(lookup, "C_COMPLEX_OBJECT", "/attributes/unknown"));
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getMisses());
+        assertEquals(2, cache.size());
+
+        //node ids and indices do not create new entries
+        assertSame(attributeInfo, AOMUtils.getAttributeInfoAtPath(lookup, "C_COMPLEX_OBJECT", "/attributes[1]/children[id2]"));
+        assertEquals(2, cache.size());
+    }
+
 }
@@ -12,6 +12,7 @@ public class ArchieJacksonConfiguration {
     private boolean archetypeBooleanIsPrefix = true;
     private boolean addPatternConstraintTypo = false;
     private boolean standardsCompliantExpressions = true;
+    private boolean generatedPropertyAccessors = false;
 
     private ArchieJacksonConfiguration() {
 
@@ -191,6 +192,26 @@ public class ArchieJacksonConfiguration {
         this.standardsCompliantExpressions = standardsCompliantExpressions;
     }
 
+    /**
+     * Return whether generated property accessors are used instead of reflection to get and set property values.
+     * See {@link GeneratedAccessorModule}
+     * Defaults to false
+     * @return true if generated property accessors are used, false otherwise
+     */
+    public boolean isGeneratedPropertyAccessors() {
+        return generatedPropertyAccessors;
+    }
+
+    /**
+     * Set whether to use generated property accessors instead of reflection to get and set property values. This
+     * does not change the JSON output, but makes serialization and deserialization faster, at the cost of a slightly
+     * slower first use of every class. See {@link GeneratedAccessorModule}
+     * @param generatedPropertyAccessors true to use generated property accessors, false to use reflection
+     */
+    public void setGeneratedPropertyAccessors(boolean generatedPropertyAccessors) {
+        this.generatedPropertyAccessors = generatedPropertyAccessors;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -204,11 +225,12 @@ public class ArchieJacksonConfiguration {
                 archetypeBooleanIsPrefix == that.archetypeBooleanIsPrefix &&
                 addPatternConstraintTypo == that.addPatternConstraintTypo &&
                 standardsCompliantExpressions == that.standardsCompliantExpressions &&
+                generatedPropertyAccessors == that.generatedPropertyAccessors &&
                 Objects.equals(typePropertyName, that.typePropertyName);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(typePropertyName, alwaysIncludeTypeProperty, addPathProperty, addExtraFieldsInArchetypeId, failOnUnknownProperties, serializeEmptyCollections, archetypeBooleanIsPrefix, addPatternConstraintTypo, standardsCompliantExpressions);
+        return Objects.hash(typePropertyName, alwaysIncludeTypeProperty, addPathProperty, addExtraFieldsInArchetypeId, failOnUnknownProperties, serializeEmptyCollections, archetypeBooleanIsPrefix, addPatternConstraintTypo, standardsCompliantExpressions, generatedPropertyAccessors);
     }
 }
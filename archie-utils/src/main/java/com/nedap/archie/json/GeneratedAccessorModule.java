@@ -0,0 +1,141 @@
+package com.nedap.archie.json;
+
+import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerBuilder;
+import com.fasterxml.jackson.databind.deser.BeanDeserializerModifier;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.impl.MethodProperty;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMember;
+import com.fasterxml.jackson.databind.introspect.AnnotatedMethod;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.BeanSerializerModifier;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A Jackson module that replaces the reflective getter and setter calls of bean properties with generated accessors,
+ * created with LambdaMetafactory once per property. This is the same technique as the Jackson Blackbird module uses.
+ * The JSON output is exactly the same as without this module, only the way property values are obtained and set
+ * changes.
+ *
+ * Properties for which no accessor can be generated, for example because the getter is not public, keep using
+ * reflection.
+ */
+public class GeneratedAccessorModule extends SimpleModule {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    public GeneratedAccessorModule() {
+        super("archie-generated-accessor-module");
+        setSerializerModifier(new BeanSerializerModifier() {
+            @Override
+            public List<BeanPropertyWriter> changeProperties(SerializationConfig config, BeanDescription beanDesc, List<BeanPropertyWriter> beanProperties) {
+                List<BeanPropertyWriter> result = new ArrayList<>(beanProperties.size());
+                for(BeanPropertyWriter writer:beanProperties) {
+                    result.add(createPropertyWriter(writer));
+                }
+                return result;
+            }
+        });
+        setDeserializerModifier(new BeanDeserializerModifier() {
+            @Override
+            public BeanDeserializerBuilder updateBuilder(DeserializationConfig config, BeanDescription beanDesc, BeanDeserializerBuilder builder) {
+                Iterator<SettableBeanProperty> properties = builder.getProperties();
+                List<SettableBeanProperty> replacements = new ArrayList<>();
+                while(properties.hasNext()) {
+                    SettableBeanProperty property = properties.next();
+                    if(property instanceof MethodProperty) {
+                        BiConsumer<Object, Object> setter = createSetter(property.getMember());
+                        if(setter != null) {
+                            replacements.add(new GeneratedSetterProperty(property, setter));
+                        }
+                    }
+                }
+                for(SettableBeanProperty replacement:replacements) {
+                    builder.addOrReplaceProperty(replacement, true);
+                }
+                return builder;
+            }
+        });
+    }
+
+    private static BeanPropertyWriter createPropertyWriter(BeanPropertyWriter writer) {
+        if(writer.getClass() != BeanPropertyWriter.class) {
+            //a custom or already wrapped property writer, leave it alone
+            return writer;
+        }
+        Function<Object, Object> getter = createGetter(writer.getMember());
+        if(getter == null) {
+            return writer;
+        }
+        return new GeneratedGetterPropertyWriter(writer, getter);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> createGetter(AnnotatedMember member) {
+        if(!(member instanceof AnnotatedMethod) || ((AnnotatedMethod) member).getParameterCount() != 0) {
+            return null;
+        }
+        Method method = ((AnnotatedMethod) member).getAnnotated();
+        if(!isAccessible(method)) {
+            return null;
+        }
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP,
+                    "apply",
+                    MethodType.methodType(Function.class),
+                    MethodType.methodType(Object.class, Object.class),
+                    handle,
+                    handle.type().wrap());
+            return (Function<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            //cannot generate an accessor, for example because the class is not visible. Use reflection instead
+            return null;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> createSetter(AnnotatedMember member) {
+        if(!(member instanceof AnnotatedMethod) || ((AnnotatedMethod) member).getParameterCount() != 1) {
+            return null;
+        }
+        Method method = ((AnnotatedMethod) member).getAnnotated();
+        if(!isAccessible(method)) {
+            return null;
+        }
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP,
+                    "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    handle.type().wrap().changeReturnType(void.class));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            //cannot generate an accessor, for example because the class is not visible. Use reflection instead
+            return null;
+        }
+    }
+
+    private static boolean isAccessible(Method method) {
+        return Modifier.isPublic(method.getModifiers()) &&
+                !Modifier.isStatic(method.getModifiers()) &&
+                Modifier.isPublic(method.getDeclaringClass().getModifiers());
+    }
+}
@@ -0,0 +1,67 @@
+package com.nedap.archie.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.BeanPropertyWriter;
+import com.fasterxml.jackson.databind.ser.impl.PropertySerializerMap;
+
+import java.util.function.Function;
+
+/**
+ * BeanPropertyWriter that obtains the property value with a generated getter instead of reflection.
+ * The serialization logic is the same as in {@link BeanPropertyWriter#serializeAsField(Object, JsonGenerator, SerializerProvider)}.
+ */
+class GeneratedGetterPropertyWriter extends BeanPropertyWriter {
+
+    private final Function<Object, Object> getter;
+
+    GeneratedGetterPropertyWriter(BeanPropertyWriter base, Function<Object, Object> getter) {
+        super(base);
+        this.getter = getter;
+    }
+
+    @Override
+    public void serializeAsField(Object bean, JsonGenerator gen, SerializerProvider prov) throws Exception {
+        final Object value = getter.apply(bean);
+        if (value == null) {
+            if (_suppressableValue != null && prov.includeFilterSuppressNulls(_suppressableValue)) {
+                return;
+            }
+            if (_nullSerializer != null) {
+                gen.writeFieldName(_name);
+                _nullSerializer.serialize(null, gen, prov);
+            }
+            return;
+        }
+        JsonSerializer<Object> ser = _serializer;
+        if (ser == null) {
+            Class<?> cls = value.getClass();
+            PropertySerializerMap map = _dynamicSerializers;
+            ser = map.serializerFor(cls);
+            if (ser == null) {
+                ser = _findAndAddDynamic(map, cls, prov);
+            }
+        }
+        if (_suppressableValue != null) {
+            if (MARKER_FOR_EMPTY == _suppressableValue) {
+                if (ser.isEmpty(prov, value)) {
+                    return;
+                }
+            } else if (_suppressableValue.equals(value)) {
+                return;
+            }
+        }
+        if (value == bean) {
+            if (_handleSelfReference(bean, gen, prov, ser)) {
+                return;
+            }
+        }
+        gen.writeFieldName(_name);
+        if (_typeSerializer == null) {
+            ser.serialize(value, gen, prov);
+        } else {
+            ser.serializeWithType(value, gen, prov, _typeSerializer);
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.nedap.archie.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.impl.NullsConstantProvider;
+
+import java.io.IOException;
+import java.util.function.BiConsumer;
+
+/**
+ * SettableBeanProperty that sets the property value with a generated setter instead of reflection.
+ * The deserialization logic is the same as in Jackson's MethodProperty.
+ */
+class GeneratedSetterProperty extends SettableBeanProperty.Delegating {
+
+    private final BiConsumer<Object, Object> setter;
+    private final boolean skipNulls;
+
+    GeneratedSetterProperty(SettableBeanProperty delegate, BiConsumer<Object, Object> setter) {
+        super(delegate);
+        this.setter = setter;
+        this.skipNulls = NullsConstantProvider.isSkipper(_nullProvider);
+    }
+
+    @Override
+    protected SettableBeanProperty withDelegate(SettableBeanProperty delegate) {
+        return new GeneratedSetterProperty(delegate, setter);
+    }
+
+    @Override
+    public void deserializeAndSet(JsonParser p, DeserializationContext ctxt, Object instance) throws IOException {
+        Object value;
+        if (p.hasToken(JsonToken.VALUE_NULL)) {
+            if (skipNulls) {
+                return;
+            }
+            value = _nullProvider.getNullValue(ctxt);
+        } else if (_valueTypeDeserializer == null) {
+            value = _valueDeserializer.deserialize(p, ctxt);
+            if (value == null) {
+                if (skipNulls) {
+                    return;
+                }
+                value = _nullProvider.getNullValue(ctxt);
+            }
+        } else {
+            value = _valueDeserializer.deserializeWithType(p, ctxt, _valueTypeDeserializer);
+        }
+        try {
+            setter.accept(instance, value);
+        } catch (Exception e) {
+            _throwAsIOE(p, e, value);
+        }
+    }
+
+    @Override
+    public Object deserializeSetAndReturn(JsonParser p, DeserializationContext ctxt, Object instance) throws IOException {
+        deserializeAndSet(p, ctxt, instance);
+        return instance;
+    }
+
+    @Override
+    public void set(Object instance, Object value) throws IOException {
+        try {
+            setter.accept(instance, value);
+        } catch (Exception e) {
+            _throwAsIOE(e, value);
+        }
+    }
+
+    @Override
+    public Object setAndReturn(Object instance, Object value) throws IOException {
+        set(instance, value);
+        return instance;
+    }
+}
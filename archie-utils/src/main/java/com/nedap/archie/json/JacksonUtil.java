@@ -99,6 +99,9 @@ public class JacksonUtil {
 
         objectMapper.registerModule(new JavaTimeModule());
         objectMapper.registerModule(new ArchieDurationModule());
+        if(configuration.isGeneratedPropertyAccessors()) {
+            objectMapper.registerModule(new GeneratedAccessorModule());
+        }
 
 
         SimpleModule module = new SimpleModule("archie-module");
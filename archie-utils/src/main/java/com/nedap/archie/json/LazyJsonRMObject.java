@@ -0,0 +1,301 @@
+package com.nedap.archie.json;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import com.nedap.archie.paths.PathSegment;
+import com.nedap.archie.query.APathQuery;
+import com.nedap.archie.rminfo.ArchieRMInfoLookup;
+import com.nedap.archie.rminfo.ModelInfoLookup;
+import com.nedap.archie.rminfo.RMAttributeInfo;
+import com.nedap.archie.rminfo.RMTypeInfo;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An RM object read from JSON, of which the attributes are only deserialized when they are first requested. Until
+ * then every attribute is kept as a raw token buffer, which is much cheaper to create than the RM objects. Useful
+ * when only a few attributes or paths of a large object are needed, for example the context or the uid of a large
+ * composition.
+ *
+ * Attributes are requested by their RM name, the same as the JSON property name. Nested objects can again be read
+ * lazily with {@link #getLazy(String)} and {@link #getLazyList(String)}, or with simple paths using {@link #find(String)}.
+ * Deserialized attributes are not connected to a parent object. Use {@link #materialize()} to obtain the full object.
+ *
+ * Not thread-safe.
+ */
+public class LazyJsonRMObject {
+
+    private final ObjectMapper objectMapper;
+    private final ModelInfoLookup lookup;
+    private final String typePropertyName;
+    private final String typeName;
+    private final RMTypeInfo typeInfo;
+    private final Map<String, TokenBuffer> attributes;
+    private final Map<String, Object> materializedAttributes = new HashMap<>();
+
+    private LazyJsonRMObject(ObjectMapper objectMapper, ModelInfoLookup lookup, String typePropertyName, String typeName, RMTypeInfo typeInfo, Map<String, TokenBuffer> attributes) {
+        this.objectMapper = objectMapper;
+        this.lookup = lookup;
+        this.typePropertyName = typePropertyName;
+        this.typeName = typeName;
+        this.typeInfo = typeInfo;
+        this.attributes = attributes;
+    }
+
+    /**
+     * Read a lazy RM object with the standards compliant configuration of {@link JacksonUtil}
+     * @param json the input to read from
+     * @param defaultType the type of the object, if the JSON does not contain a type property
+     * @return the lazy RM object
+     * @throws IOException in case the JSON cannot be parsed
+     */
+    public static LazyJsonRMObject read(InputStream json, Class<?> defaultType) throws IOException {
+        return read(ArchieJacksonConfiguration.createStandardsCompliant(), json, defaultType);
+    }
+
+    public static LazyJsonRMObject read(ArchieJacksonConfiguration configuration, InputStream json, Class<?> defaultType) throws IOException {
+        ObjectMapper objectMapper = JacksonUtil.getObjectMapper(configuration);
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            parser.nextToken();
+            return read(objectMapper, ArchieRMInfoLookup.getInstance(), configuration.getTypePropertyName(), parser, defaultType);
+        }
+    }
+
+    private static LazyJsonRMObject read(ObjectMapper objectMapper, ModelInfoLookup lookup, String typePropertyName, JsonParser parser, Class<?> defaultType) throws IOException {
+        if (parser.currentToken() != JsonToken.START_OBJECT) {
+            throw new IOException("expected a JSON object, but got " + parser.currentToken());
+        }
+        String typeName = null;
+        Map<String, TokenBuffer> attributes = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            parser.nextToken();
+            if (fieldName.equals(typePropertyName)) {
+                typeName = parser.getText();
+            } else {
+                TokenBuffer buffer = new TokenBuffer(parser);
+                buffer.copyCurrentStructure(parser);
+                attributes.put(fieldName, buffer);
+            }
+        }
+        RMTypeInfo typeInfo = typeName == null ? lookup.getTypeInfo(defaultType) : lookup.getTypeInfo(typeName);
+        if (typeInfo == null) {
+            throw new IOException("unknown type " + (typeName == null ? defaultType : typeName));
+        }
+        if (typeName == null) {
+            typeName = typeInfo.getRmName();
+        }
+        return new LazyJsonRMObject(objectMapper, lookup, typePropertyName, typeName, typeInfo, attributes);
+    }
+
+    /**
+     * @return the RM type name of this object
+     */
+    public String getTypeName() {
+        return typeName;
+    }
+
+    public RMTypeInfo getTypeInfo() {
+        return typeInfo;
+    }
+
+    /**
+     * @return the names of the attributes present in the JSON
+     */
+    public Set<String> getAttributeNames() {
+        return Collections.unmodifiableSet(attributes.keySet());
+    }
+
+    public boolean hasAttribute(String attributeName) {
+        return attributes.containsKey(attributeName);
+    }
+
+    /**
+     * Deserialize the given attribute, using the declared type of the attribute. The result is cached.
+     * @param attributeName the RM name of the attribute
+     * @param <T> the type of the attribute
+     * @return the attribute value, or null if it is not present in the JSON
+     * @throws IOException in case the attribute cannot be deserialized
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String attributeName) throws IOException {
+        if (materializedAttributes.containsKey(attributeName)) {
+            return (T) materializedAttributes.get(attributeName);
+        }
+        TokenBuffer buffer = attributes.get(attributeName);
+        if (buffer == null) {
+            return null;
+        }
+        Object result;
+        try (JsonParser parser = buffer.asParser()) {
+            result = objectMapper.readValue(parser, getDeclaredType(attributeName));
+        }
+        materializedAttributes.put(attributeName, result);
+        return (T) result;
+    }
+
+    /**
+     * Get the given single valued attribute as a lazy RM object, without deserializing it
+     * @param attributeName the RM name of the attribute
+     * @return the lazy object, or null if it is not present in the JSON
+     * @throws IOException in case the attribute is not a JSON object
+     */
+    public LazyJsonRMObject getLazy(String attributeName) throws IOException {
+        TokenBuffer buffer = attributes.get(attributeName);
+        if (buffer == null) {
+            return null;
+        }
+        try (JsonParser parser = buffer.asParser()) {
+            parser.nextToken();
+            return readChild(parser, getAttributeInfo(attributeName).getType());
+        }
+    }
+
+    /**
+     * Get the given multiple valued attribute as a list of lazy RM objects, without deserializing them
+     * @param attributeName the RM name of the attribute
+     * @return the lazy objects, or an empty list if the attribute is not present in the JSON
+     * @throws IOException in case the attribute is not a JSON array of objects
+     */
+    public List<LazyJsonRMObject> getLazyList(String attributeName) throws IOException {
+        TokenBuffer buffer = attributes.get(attributeName);
+        List<LazyJsonRMObject> result = new ArrayList<>();
+        if (buffer == null) {
+            return result;
+        }
+        Class<?> typeInCollection = getAttributeInfo(attributeName).getTypeInCollection();
+        try (JsonParser parser = buffer.asParser()) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                //single values are accepted as arrays, just as in JacksonUtil
+                result.add(readChild(parser, typeInCollection));
+                return result;
+            }
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                result.add(readChild(parser, typeInCollection));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Find the value at the given path, deserializing only the object at the end of the path. The path consists of
+     * RM attribute names, each optionally followed by an archetype node id or a one based index in square brackets,
+     * for example "/content[id2]/data/events[1]". As with the RMPathQuery, an index is the position in the entire list.
+     * Without a predicate the first element of a list is used.
+     * @param path the path to find
+     * @param <T> the type of the result
+     * @return the value at the path, or null if not found
+     * @throws IOException in case the JSON cannot be deserialized
+     * @throws IllegalArgumentException in case the path contains an index lower than 1
+     */
+    public <T> T find(String path) throws IOException {
+        LazyJsonRMObject current = this;
+        List<PathSegment> segments = new APathQuery(path).getPathSegments();
+        for (int i = 0; i < segments.size(); i++) {
+            PathSegment segment = segments.get(i);
+            String attributeName = segment.getNodeName();
+            if (!current.hasAttribute(attributeName)) {
+                return null;
+            }
+            boolean lastSegment = i == segments.size() - 1;
+            RMAttributeInfo attributeInfo = current.getAttributeInfo(attributeName);
+            boolean multiple = attributeInfo != null && attributeInfo.isMultipleValued();
+            if (lastSegment && !segment.hasExpressions()) {
+                return current.get(attributeName);
+            }
+            if (multiple) {
+                current = select(current.getLazyList(attributeName), segment);
+            } else {
+                current = current.getLazy(attributeName);
+            }
+            if (current == null) {
+                return null;
+            }
+            if (lastSegment) {
+                return current.materialize();
+            }
+        }
+        return current.materialize();
+    }
+
+    private static LazyJsonRMObject select(List<LazyJsonRMObject> objects, PathSegment segment) throws IOException {
+        if (!segment.hasExpressions()) {
+            return objects.isEmpty() ? null : objects.get(0);
+        }
+        if (segment.hasNumberIndex()) {
+            int index = segment.getIndex();
+            if (index < 1) {
+                throw new IllegalArgumentException("indices in paths start at 1, but got " + index + " in " + segment);
+            }
+            return index <= objects.size() ? objects.get(index - 1) : null;
+        }
+        for (LazyJsonRMObject object : objects) {
+            if (segment.getNodeId().equals(object.get("archetype_node_id"))) {
+                return object;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Deserialize the complete object, including all attributes that have not yet been deserialized.
+     * @param <T> the type of the result
+     * @return the complete RM object
+     * @throws IOException in case the JSON cannot be deserialized
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T materialize() throws IOException {
+        TokenBuffer buffer = new TokenBuffer(objectMapper, false);
+        buffer.writeStartObject();
+        for (Map.Entry<String, TokenBuffer> attribute : attributes.entrySet()) {
+            buffer.writeFieldName(attribute.getKey());
+            try (JsonParser parser = attribute.getValue().asParser()) {
+                parser.nextToken();
+                buffer.copyCurrentStructure(parser);
+            }
+        }
+        buffer.writeEndObject();
+        try (JsonParser parser = buffer.asParser()) {
+            return (T) objectMapper.readValue(parser, typeInfo.getJavaClass());
+        }
+    }
+
+    private LazyJsonRMObject readChild(JsonParser parser, Class<?> declaredType) throws IOException {
+        return read(objectMapper, lookup, typePropertyName, parser, declaredType);
+    }
+
+    private RMAttributeInfo getAttributeInfo(String attributeName) throws IOException {
+        RMAttributeInfo attributeInfo = typeInfo.getAttribute(attributeName);
+        if (attributeInfo == null) {
+            throw new IOException("unknown attribute " + attributeName + " in type " + typeName);
+        }
+        return attributeInfo;
+    }
+
+    private JavaType getDeclaredType(String attributeName) {
+        RMAttributeInfo attributeInfo = typeInfo.getAttribute(attributeName);
+        Type type;
+        if (attributeInfo == null) {
+            type = Object.class;
+        } else if (attributeInfo.getGetMethod() != null) {
+            type = attributeInfo.getGetMethod().getGenericReturnType();
+        } else if (attributeInfo.getField() != null) {
+            type = attributeInfo.getField().getGenericType();
+        } else {
+            type = attributeInfo.getType();
+        }
+        return objectMapper.getTypeFactory().constructType(type);
+    }
+}
@@ -12,21 +12,30 @@ import com.nedap.archie.rminfo.ModelInfoLookup;
 import com.nedap.archie.rminfo.RMTypeInfo;
 
 import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Class that handles naming of Archie RM and AOM objects for use in Jackson.
  *
  * The AOM class CComplexObject will get the type name "C_COMPLEX_OBJECT"
  * The RM class DvDateTime will get the type name "DV_DATE_TIME"
+ *
+ * The resolved type names and types are cached, and shared between all instances with the same expression class name
+ * setting, so between all ObjectMappers created by JacksonUtil.
  */
 public class OpenEHRTypeNaming extends ClassNameIdResolver {
 
+    private static final TypeNameCache standardsCompliantCache = new TypeNameCache();
+    private static final TypeNameCache legacyCache = new TypeNameCache();
+
     private ModelInfoLookup rmInfoLookup = ArchieRMInfoLookup.getInstance();
     private ModelInfoLookup aomInfoLookup;
+    private final TypeNameCache cache;
 
     protected OpenEHRTypeNaming(boolean standardsCompliantExpressionClassNames) {
         super(TypeFactory.defaultInstance().constructType(OpenEHRBase.class), TypeFactory.defaultInstance());
         aomInfoLookup = ArchieAOMInfoLookup.getInstance(standardsCompliantExpressionClassNames);
+        cache = standardsCompliantExpressionClassNames ? standardsCompliantCache : legacyCache;
     }
 
     public JsonTypeInfo.Id getMechanism() {
@@ -35,16 +44,19 @@ public class OpenEHRTypeNaming extends ClassNameIdResolver {
 
     @Override
     public String idFromValue(Object value) {
+        return cache.idsByClass.computeIfAbsent(value.getClass(), this::idFromClass);
+    }
 
-        RMTypeInfo typeInfo = rmInfoLookup.getTypeInfo(value.getClass());
+    private String idFromClass(Class<?> clazz) {
+        RMTypeInfo typeInfo = rmInfoLookup.getTypeInfo(clazz);
         if(typeInfo == null) {
-            typeInfo = aomInfoLookup.getTypeInfo(value.getClass());
+            typeInfo = aomInfoLookup.getTypeInfo(clazz);
         }
         if(typeInfo != null) {
             //this case is faster and should always work. If for some reason it does not, the case below works fine instead.
             return typeInfo.getRmName();
         } else {
-            return rmInfoLookup.getNamingStrategy().getTypeName(value.getClass());
+            return rmInfoLookup.getNamingStrategy().getTypeName(clazz);
         }
 // This should work in all cases for openEHR-classes and this should not be used for other classes
 // Additional code for making this work on non-ehr-types:
@@ -60,15 +72,35 @@ public class OpenEHRTypeNaming extends ClassNameIdResolver {
 
     @Override
     protected JavaType _typeFromId(String typeName, DatabindContext ctxt) throws IOException {
+        TypeFactory typeFactory = (ctxt == null) ? _typeFactory : ctxt.getTypeFactory();
+        //a custom type factory could construct different types, so only use the cache for the default one
+        boolean cacheable = typeFactory == _typeFactory;
+        if(cacheable) {
+            JavaType cached = cache.typesById.get(typeName);
+            if(cached != null) {
+                return cached;
+            }
+        }
         Class<?> result = rmInfoLookup.getClass(typeName);
         if(result == null) {
             //AOM class?
             result = aomInfoLookup.getClass(typeName);
         }
         if(result != null) {
-            TypeFactory typeFactory = (ctxt == null) ? _typeFactory : ctxt.getTypeFactory();
-            return typeFactory.constructSpecializedType(_baseType, result);
+            JavaType type = typeFactory.constructSpecializedType(_baseType, result);
+            if(cacheable) {
+                cache.typesById.putIfAbsent(typeName, type);
+            }
+            return type;
         }
         return super._typeFromId(typeName, ctxt);
     }
+
+    /**
+     * The cached type names by class, and types by type name, including alternative type names
+     */
+    private static class TypeNameCache {
+        private final ConcurrentHashMap<Class<?>, String> idsByClass = new ConcurrentHashMap<>();
+        private final ConcurrentHashMap<String, JavaType> typesById = new ConcurrentHashMap<>();
+    }
 }
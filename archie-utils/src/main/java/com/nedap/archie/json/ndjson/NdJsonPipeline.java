@@ -0,0 +1,174 @@
+package com.nedap.archie.json.ndjson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.nedap.archie.json.JacksonUtil;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Processes newline delimited JSON (NDJSON) in parallel: every record is parsed, processed, for example validated and
+ * flattened, and the result is written as NDJSON, in the same order as the input.
+ *
+ * The calling thread splits the input into records and writes the results. Parsing and processing happen in a
+ * fixed thread pool. At most maxRecordsInFlight records are in memory at any time, so memory stays bounded for
+ * inputs of any size.
+ *
+ * Processors are usually not thread-safe, so a new processor is created for every worker thread with the given
+ * supplier. A processor can return null to skip writing a record. If parsing or processing any record fails, the
+ * pipeline stops with an IOException.
+ *
+ * @param <T> the type of the input records
+ * @param <R> the type of the processed records
+ */
+public class NdJsonPipeline<T, R> {
+
+    private final ObjectMapper objectMapper;
+    private final Class<T> type;
+    private final Supplier<? extends NdJsonRecordProcessor<T, R>> processorSupplier;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private int maxRecordsInFlight = 1000;
+
+    public NdJsonPipeline(Class<T> type, Supplier<? extends NdJsonRecordProcessor<T, R>> processorSupplier) {
+        this(JacksonUtil.getObjectMapper(), type, processorSupplier);
+    }
+
+    public NdJsonPipeline(ObjectMapper objectMapper, Class<T> type, Supplier<? extends NdJsonRecordProcessor<T, R>> processorSupplier) {
+        this.objectMapper = objectMapper;
+        this.type = type;
+        this.processorSupplier = processorSupplier;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    /**
+     * Set the amount of threads to parse and process records with. Defaults to the amount of available processors.
+     * @param threads the amount of threads
+     */
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+
+    public int getMaxRecordsInFlight() {
+        return maxRecordsInFlight;
+    }
+
+    /**
+     * Set the maximum amount of records that are read but not yet written. Defaults to 1000.
+     * @param maxRecordsInFlight the maximum amount of records in memory
+     */
+    public void setMaxRecordsInFlight(int maxRecordsInFlight) {
+        this.maxRecordsInFlight = maxRecordsInFlight;
+    }
+
+    /**
+     * Run the pipeline. The streams are not closed.
+     * @param input the NDJSON input
+     * @param output the output to write the processed records to as NDJSON
+     * @return the statistics of this run
+     * @throws IOException in case reading, parsing, processing or writing fails
+     */
+    public NdJsonPipelineResult run(InputStream input, OutputStream output) throws IOException {
+        long startTime = System.nanoTime();
+        ObjectReader reader = objectMapper.readerFor(type);
+        ThreadLocal<NdJsonRecordProcessor<T, R>> processors = ThreadLocal.withInitial(processorSupplier);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        Deque<Future<R>> inFlight = new ArrayDeque<>();
+        long recordCount = 0;
+        long writtenCount = 0;
+        try {
+            NdJsonWriter writer = new NdJsonWriter(objectMapper, output);
+            LineSplitter lines = new LineSplitter(input);
+            byte[] line;
+            while ((line = lines.next()) != null) {
+                final byte[] record = line;
+                inFlight.add(executor.submit(() -> processors.get().process(reader.readValue(record))));
+                recordCount++;
+                if (inFlight.size() >= maxRecordsInFlight) {
+                    writtenCount += writeResult(inFlight.poll(), writer);
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writtenCount += writeResult(inFlight.poll(), writer);
+            }
+            writer.flush();
+        } finally {
+            executor.shutdownNow();
+        }
+        return new NdJsonPipelineResult(recordCount, writtenCount, System.nanoTime() - startTime);
+    }
+
+    private int writeResult(Future<R> future, NdJsonWriter writer) throws IOException {
+        R result;
+        try {
+            result = future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+        if (result == null) {
+            return 0;
+        }
+        writer.write(result);
+        return 1;
+    }
+
+    /**
+     * Splits the input into lines, without parsing them. JSON records never contain a raw newline, so this is safe.
+     * Empty lines are skipped.
+     */
+    private static class LineSplitter {
+        private final InputStream input;
+        private byte[] buffer = new byte[8192];
+
+        LineSplitter(InputStream input) {
+            this.input = new BufferedInputStream(input);
+        }
+
+        byte[] next() throws IOException {
+            int length = 0;
+            int b;
+            while ((b = input.read()) != -1) {
+                if (b == '\n') {
+                    if (isBlank(length)) {
+                        length = 0;
+                        continue;
+                    }
+                    return Arrays.copyOf(buffer, length);
+                }
+                if (length == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                buffer[length++] = (byte) b;
+            }
+            return isBlank(length) ? null : Arrays.copyOf(buffer, length);
+        }
+
+        private boolean isBlank(int length) {
+            for (int i = 0; i < length; i++) {
+                if (!Character.isWhitespace(buffer[i])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.nedap.archie.json.ndjson;
+
+/**
+ * The statistics of a run of an {@link NdJsonPipeline}
+ */
+public class NdJsonPipelineResult {
+
+    private final long recordCount;
+    private final long writtenCount;
+    private final long durationNanos;
+
+    public NdJsonPipelineResult(long recordCount, long writtenCount, long durationNanos) {
+        this.recordCount = recordCount;
+        this.writtenCount = writtenCount;
+        this.durationNanos = durationNanos;
+    }
+
+    /**
+     * @return the amount of records read
+     */
+    public long getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * @return the amount of records written. Lower than the record count if the processor skipped records
+     */
+    public long getWrittenCount() {
+        return writtenCount;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * @return the amount of records read per second
+     */
+    public double getRecordsPerSecond() {
+        if (durationNanos == 0) {
+            return 0;
+        }
+        return recordCount * 1_000_000_000d / durationNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d records, %d written in %d ms, %.1f records/sec", recordCount, writtenCount, durationNanos / 1_000_000, getRecordsPerSecond());
+    }
+}
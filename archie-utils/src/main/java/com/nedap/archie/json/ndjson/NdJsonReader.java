@@ -0,0 +1,53 @@
+package com.nedap.archie.json.ndjson;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nedap.archie.json.JacksonUtil;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads newline delimited JSON (NDJSON), one record at a time. A single parser is used for the whole input, so
+ * its buffers are reused for every record, and only one record is in memory at a time.
+ *
+ * Not thread-safe.
+ *
+ * @param <T> the type of the records
+ */
+public class NdJsonReader<T> implements Closeable {
+
+    private final MappingIterator<T> iterator;
+
+    /**
+     * Create a reader using the standards compliant object mapper from {@link JacksonUtil}
+     * @param input the input to read from. Closed when this reader is closed.
+     * @param type the type of the records
+     * @throws IOException in case the input cannot be read
+     */
+    public NdJsonReader(InputStream input, Class<T> type) throws IOException {
+        this(JacksonUtil.getObjectMapper(), input, type);
+    }
+
+    public NdJsonReader(ObjectMapper objectMapper, InputStream input, Class<T> type) throws IOException {
+        this.iterator = objectMapper.readerFor(type).readValues(input);
+    }
+
+    /**
+     * Read the next record
+     * @return the next record, or null if there are no more records
+     * @throws IOException in case the record cannot be read or parsed
+     */
+    public T read() throws IOException {
+        if (!iterator.hasNextValue()) {
+            return null;
+        }
+        return iterator.nextValue();
+    }
+
+    @Override
+    public void close() throws IOException {
+        iterator.close();
+    }
+}
@@ -0,0 +1,19 @@
+package com.nedap.archie.json.ndjson;
+
+/**
+ * Processes a single record in an {@link NdJsonPipeline}, for example by validating and flattening it.
+ *
+ * @param <T> the type of the input records
+ * @param <R> the type of the processed records
+ */
+@FunctionalInterface
+public interface NdJsonRecordProcessor<T, R> {
+
+    /**
+     * Process a single record
+     * @param record the parsed record
+     * @return the result to write, or null to skip this record
+     * @throws Exception in case processing fails. This stops the pipeline.
+     */
+    R process(T record) throws Exception;
+}
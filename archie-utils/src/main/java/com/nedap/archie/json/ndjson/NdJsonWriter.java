@@ -0,0 +1,62 @@
+package com.nedap.archie.json.ndjson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nedap.archie.json.JacksonUtil;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes newline delimited JSON (NDJSON), one record per line. A single generator is used for all records, so its
+ * buffers are reused. Indentation is always disabled, since every record must be on a single line.
+ *
+ * Not thread-safe.
+ */
+public class NdJsonWriter implements Closeable, Flushable {
+
+    private final ObjectWriter writer;
+    private final JsonGenerator generator;
+
+    /**
+     * Create a writer using the standards compliant object mapper from {@link JacksonUtil}
+     * @param output the output to write to. Closed when this writer is closed.
+     * @throws IOException in case a generator cannot be created
+     */
+    public NdJsonWriter(OutputStream output) throws IOException {
+        this(JacksonUtil.getObjectMapper(), output);
+    }
+
+    public NdJsonWriter(ObjectMapper objectMapper, OutputStream output) throws IOException {
+        this.writer = objectMapper.writer()
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                //by default Jackson writes a space before every root value after the first
+                .withRootValueSeparator("");
+        this.generator = writer.createGenerator(output);
+    }
+
+    /**
+     * Write a single record, followed by a newline
+     * @param value the record to write
+     * @throws IOException in case writing fails
+     */
+    public void write(Object value) throws IOException {
+        writer.writeValue(generator, value);
+        generator.writeRaw('\n');
+    }
+
+    @Override
+    public void flush() throws IOException {
+        generator.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
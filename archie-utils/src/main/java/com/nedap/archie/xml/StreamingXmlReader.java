@@ -0,0 +1,78 @@
+package com.nedap.archie.xml;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Unmarshaller;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+
+/**
+ * Reads RM objects one at a time from a large XML document, for example all compositions or versions from an
+ * EHR extract, without unmarshalling the full document in memory.
+ *
+ * Every element with the given local name is unmarshalled to the given type, at any depth in the document. Elements
+ * nested inside an element that has been read are not returned separately. The type of every element can be
+ * overridden with an xsi:type attribute, as usual in JAXB. Memory use is bounded by the size of a single element.
+ *
+ * Not thread-safe. Use one reader per document.
+ *
+ * @param <T> the type of the objects to read
+ */
+public class StreamingXmlReader<T> implements AutoCloseable {
+
+    private final XMLStreamReader reader;
+    private final Unmarshaller unmarshaller;
+    private final String elementName;
+    private final Class<T> type;
+
+    /**
+     * Create a reader that reads objects using the Archie JAXB context
+     * @param input the xml input. Not closed by this reader.
+     * @param elementName the local name of the elements to read, for example "composition" or "versions"
+     * @param type the type to unmarshal the elements to
+     * @throws XMLStreamException in case the xml cannot be read
+     * @throws JAXBException in case no unmarshaller can be created
+     */
+    public StreamingXmlReader(InputStream input, String elementName, Class<T> type) throws XMLStreamException, JAXBException {
+        this(JAXBUtil.getArchieJAXBContext(), input, elementName, type);
+    }
+
+    public StreamingXmlReader(JAXBContext context, InputStream input, String elementName, Class<T> type) throws XMLStreamException, JAXBException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        //no DTDs or external entities, to prevent XXE attacks
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        this.reader = factory.createXMLStreamReader(input);
+        this.unmarshaller = context.createUnmarshaller();
+        this.elementName = elementName;
+        this.type = type;
+    }
+
+    /**
+     * Read the next object from the document
+     * @return the next object, or null if there are no more matching elements
+     * @throws XMLStreamException in case the xml cannot be read
+     * @throws JAXBException in case the element cannot be unmarshalled
+     */
+    public T read() throws XMLStreamException, JAXBException {
+        while (reader.hasNext()) {
+            if (reader.isStartElement() && elementName.equals(reader.getLocalName())) {
+                //unmarshalling moves the reader past the end of this element
+                return unmarshaller.unmarshal(reader, type).getValue();
+            }
+            reader.next();
+        }
+        return null;
+    }
+
+    /**
+     * Closes the underlying XML stream reader, but not the input stream.
+     * @throws XMLStreamException in case closing fails
+     */
+    @Override
+    public void close() throws XMLStreamException {
+        reader.close();
+    }
+}
@@ -0,0 +1,81 @@
+package com.nedap.archie.xml;
+
+import javax.xml.bind.JAXBContext;
+import javax.xml.bind.JAXBElement;
+import javax.xml.bind.JAXBException;
+import javax.xml.bind.Marshaller;
+import javax.xml.namespace.QName;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.OutputStream;
+
+/**
+ * Writes RM objects one at a time into a single XML document, so large documents such as EHR extracts can be written
+ * without building the full object tree in memory. The counterpart of {@link StreamingXmlReader}.
+ *
+ * Not thread-safe. Use one writer per document. Call {@link #close()} to end the document.
+ */
+public class StreamingXmlWriter implements AutoCloseable {
+
+    public static final String OPENEHR_NAMESPACE = "http://schemas.openehr.org/v1";
+
+    private final XMLStreamWriter writer;
+    private final Marshaller marshaller;
+
+    /**
+     * Create a writer using the Archie JAXB context, and write the start of the document
+     * @param output the output to write to. Not closed by this writer.
+     * @param rootElementName the local name of the root element, in the openEHR namespace
+     * @throws XMLStreamException in case writing fails
+     * @throws JAXBException in case no marshaller can be created
+     */
+    public StreamingXmlWriter(OutputStream output, String rootElementName) throws XMLStreamException, JAXBException {
+        this(JAXBUtil.getArchieJAXBContext(), output, rootElementName);
+    }
+
+    public StreamingXmlWriter(JAXBContext context, OutputStream output, String rootElementName) throws XMLStreamException, JAXBException {
+        this.writer = XMLOutputFactory.newFactory().createXMLStreamWriter(output, "UTF-8");
+        this.marshaller = context.createMarshaller();
+        marshaller.setProperty(Marshaller.JAXB_FRAGMENT, Boolean.TRUE);
+        writer.writeStartDocument("UTF-8", "1.0");
+        writer.writeStartElement("", rootElementName, OPENEHR_NAMESPACE);
+        writer.writeDefaultNamespace(OPENEHR_NAMESPACE);
+    }
+
+    /**
+     * Write the object as an element with the given local name in the openEHR namespace, without type information
+     * @param elementName the local name of the element
+     * @param value the object to write
+     * @throws JAXBException in case the object cannot be marshalled
+     */
+    public void write(String elementName, Object value) throws JAXBException {
+        write(elementName, value.getClass(), value);
+    }
+
+    /**
+     * Write the object as an element with the given local name in the openEHR namespace. If the class of the object
+     * is not the declared type, an xsi:type attribute is added, so it can be read as the declared type.
+     * @param elementName the local name of the element
+     * @param declaredType the declared type of the element, for example Version.class
+     * @param value the object to write
+     * @param <T> the declared type
+     * @throws JAXBException in case the object cannot be marshalled
+     */
+    public <T> void write(String elementName, Class<T> declaredType, Object value) throws JAXBException {
+        JAXBElement<T> element = new JAXBElement<>(new QName(OPENEHR_NAMESPACE, elementName), declaredType, declaredType.cast(value));
+        marshaller.marshal(element, writer);
+    }
+
+    /**
+     * End the document and flush the output. Does not close the output stream.
+     * @throws XMLStreamException in case writing fails
+     */
+    @Override
+    public void close() throws XMLStreamException {
+        writer.writeEndElement();
+        writer.writeEndDocument();
+        writer.flush();
+        writer.close();
+    }
+}
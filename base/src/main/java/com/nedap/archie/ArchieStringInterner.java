@@ -0,0 +1,81 @@
+package com.nedap.archie;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Deduplicates strings that are repeated very often in archetypes and operational templates, such as node ids, RM type
+ * names, attribute names, language codes and terminology ids. Archetypes in memory then share a single instance of
+ * every such string, instead of each having their own copy.
+ * <p>
+ * The pool only holds weak references, so strings that are no longer used anywhere are garbage collected.
+ * <p>
+ * Enabled by default. This configuration is applied globally to the entire JVM!
+ */
+public class ArchieStringInterner {
+
+    private static final Interner<String> interner = Interners.newWeakInterner();
+
+    private static volatile boolean enabled = true;
+
+    /**
+     * Return the canonical instance of the given string, if interning is enabled
+     * @param value the string to intern, can be null
+     * @return a string equal to the given string, or null if the value is null
+     */
+    public static String intern(String value) {
+        if(value == null || !enabled) {
+            return value;
+        }
+        return interner.intern(value);
+    }
+
+    /**
+     * Replace the keys of the given map with their canonical instance, if interning is enabled. The map is modified in
+     * place and keeps its iteration order. Maps of which all keys are already interned are not modified, so this can
+     * also be called on unmodifiable maps that have been interned before.
+     * @param map the map of which to intern the keys, can be null
+     * @return the given map
+     */
+    public static <V> Map<String, V> internKeys(Map<String, V> map) {
+        if(map == null || !enabled) {
+            return map;
+        }
+        boolean allInterned = true;
+        for(String key:map.keySet()) {
+            if(key != null && key != interner.intern(key)) {
+                allInterned = false;
+                break;
+            }
+        }
+        if(!allInterned) {
+            List<Map.Entry<String, V>> entries = new ArrayList<>(map.size());
+            for(Map.Entry<String, V> entry:map.entrySet()) {
+                entries.add(new AbstractMap.SimpleImmutableEntry<>(intern(entry.getKey()), entry.getValue()));
+            }
+            map.clear();
+            for(Map.Entry<String, V> entry:entries) {
+                map.put(entry.getKey(), entry.getValue());
+            }
+        }
+        return map;
+    }
+
+    /**
+     * Set whether to intern strings. Only strings set after changing this are affected.
+     * Sets this globally for the entire JVM!
+     * @param enabled whether to intern strings or not
+     */
+    public static void setEnabled(boolean enabled) {
+        ArchieStringInterner.enabled = enabled;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+}
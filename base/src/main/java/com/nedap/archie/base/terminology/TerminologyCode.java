@@ -3,9 +3,11 @@ package com.nedap.archie.base.terminology;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.nedap.archie.ArchieStringInterner;
 import com.nedap.archie.base.OpenEHRBase;
 
 import javax.annotation.Nullable;
+import javax.xml.bind.Unmarshaller;
 import javax.xml.bind.annotation.XmlAccessType;
 import javax.xml.bind.annotation.XmlAccessorType;
 import javax.xml.bind.annotation.XmlElement;
@@ -57,12 +59,18 @@ public class TerminologyCode extends OpenEHRBase {
                                                    @JsonProperty("terminology_version") String terminologyVersion,
                                                    @JsonProperty("code_string") String codeString) {
         TerminologyCode result = new TerminologyCode();
-        result.terminologyId = terminologyId;
+        result.terminologyId = ArchieStringInterner.intern(terminologyId);
         result.terminologyVersion = terminologyVersion;
-        result.codeString = codeString;
+        result.codeString = ArchieStringInterner.intern(codeString);
         return result;
     }
 
+    // Invoked by Jaxb Unmarshaller after unmarshalling. Jaxb sets the fields directly, so intern them here
+    public void afterUnmarshal(Unmarshaller unmarshaller, Object parent) {
+        terminologyId = ArchieStringInterner.intern(terminologyId);
+        codeString = ArchieStringInterner.intern(codeString);
+    }
+
     public String getTerminologyVersion() {
         return terminologyVersion;
     }
@@ -86,7 +94,7 @@ public class TerminologyCode extends OpenEHRBase {
     }
 
     public void setTerminologyId(String terminologyId) {
-        this.terminologyId = terminologyId;
+        this.terminologyId = ArchieStringInterner.intern(terminologyId);
     }
 
     public String getCodeString() {
@@ -94,7 +102,7 @@ public class TerminologyCode extends OpenEHRBase {
     }
 
     public void setCodeString(String codeString) {
-        this.codeString = codeString;
+        this.codeString = ArchieStringInterner.intern(codeString);
     }
 
     public URI getUri() {
@@ -25,6 +25,8 @@ import org.openehr.bmm.persistence.validation.BmmDefinitions;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
@@ -87,6 +89,18 @@ public abstract class BmmClass extends BmmEntity implements Serializable {
      */
     private boolean isOverride;
 
+    /**
+     * Precomputed flat properties, all ancestors and all descendants. Only present if the model is frozen, see {@link BmmModel#freeze()}
+     */
+    private transient Map<String, BmmProperty<?>> frozenFlatProperties;
+    private transient List<String> frozenAllAncestors;
+    private transient List<String> frozenAllDescendants;
+    /**
+     * The dense id of this class in the frozen model, and the ids of all classes this class conforms to, including itself
+     */
+    private transient int typeId;
+    private transient BitSet conformingTypeIds;
+
     public BmmClass(String aName, String aDocumentation, boolean abstractFlag) {
         name = aName;
         setDocumentation(aDocumentation);
@@ -138,6 +152,7 @@ public abstract class BmmClass extends BmmEntity implements Serializable {
      */
     public void setAncestors(Map<String, BmmDefinedType> ancestors) {
         this.ancestors = ancestors;
+        modelChanged();
     }
 
     /**
@@ -147,6 +162,7 @@ public abstract class BmmClass extends BmmEntity implements Serializable {
      */
     public void addAncestor(BmmDefinedType ancestor) {
         ancestors.put(ancestor.getTypeName(), ancestor);
+        modelChanged();
     }
 
     /**
@@ -178,8 +194,14 @@ public abstract class BmmClass extends BmmEntity implements Serializable {
 
     /**
      * Flat list of properties defined in this class and ancestors
+     * <p>
+     * If the model is frozen, this returns a shared unmodifiable map, otherwise a new map. See {@link BmmModel#freeze()}
      */
     public Map<String, BmmProperty<?>> getFlatProperties() {
+        Map<String, BmmProperty<?>> frozen = frozenFlatProperties;
+        if(frozen != null) {
+            return frozen;
+        }
         Map<String, BmmProperty<?>> result = new LinkedHashMap<>();
         getAncestors().forEach( (ancestorName, ancestor) -> {
             result.putAll(ancestor.getBaseClass().getFlatProperties());
@@ -195,6 +217,7 @@ public abstract class BmmClass extends BmmEntity implements Serializable {
      */
     public void setProperties(Map<String, BmmProperty<?>> properties) {
         this.properties = properties;
+        modelChanged();
     }
 
     /**
@@ -204,6 +227,7 @@ public abstract class BmmClass extends BmmEntity implements Serializable {
      */
     public void addProperty(BmmProperty<?> property) {
         properties.put(property.getName(), property);
+        modelChanged();
     }
 
     /**
@@ -242,6 +266,7 @@ public abstract class BmmClass extends BmmEntity implements Serializable {
      */
     public void setImmediateDescendants(List<String> immediateDescendants) {
         this.immediateDescendants = immediateDescendants;
+        modelChanged();
     }
 
     /**
@@ -251,6 +276,7 @@ public abstract class BmmClass extends BmmEntity implements Serializable {
      */
     public void addImmediateDescendant(String immediateDescendant) {
         this.immediateDescendants.add(immediateDescendant);
+        modelChanged();
     }
 
     /**
@@ -309,10 +335,16 @@ public abstract class BmmClass extends BmmEntity implements Serializable {
 
     /**
      * Returns list of all inheritance parent class names, recursively.
+     * <p>
+     * If the model is frozen, this returns a shared unmodifiable list, otherwise a new list. See {@link BmmModel#freeze()}
      *
      * @return
      */
     public List<String> findAllAncestors() {
+        List<String> frozen = frozenAllAncestors;
+        if(frozen != null) {
+            return frozen;
+        }
         Map<String, BmmDefinedType> ancestors = getAncestors();
         List<String> result = new ArrayList<>(ancestors.keySet());
         for (BmmDefinedType ancestor:ancestors.values()) {
@@ -323,10 +355,16 @@ public abstract class BmmClass extends BmmEntity implements Serializable {
 
     /**
      * Compute all descendants by following immediate_descendants.
+     * <p>
+     * If the model is frozen, this returns a shared unmodifiable list, otherwise a new list. See {@link BmmModel#freeze()}
      *
      * @return
      */
     public List<String> findAllDescendants() {
+        List<String> frozen = frozenAllDescendants;
+        if(frozen != null) {
+            return frozen;
+        }
         List<String> descendants = getImmediateDescendants();
         List<String> result = new ArrayList<>(descendants);
         for(String descendant:descendants) {
@@ -338,6 +376,66 @@ public abstract class BmmClass extends BmmEntity implements Serializable {
         return result;
     }
 
+    /**
+     * Returns true if this class is the given class, or has it as one of its ancestors. Uses the conformance bitset
+     * if the model is frozen.
+     *
+     * @param other the possible ancestor
+     * @return true if this class conforms to the other class
+     */
+    public boolean conformsTo(BmmClass other) {
+        if(this == other) {
+            return true;
+        }
+        BitSet conforming = conformingTypeIds;
+        if(conforming != null && other.conformingTypeIds != null && other.getBmmModel() == getBmmModel()) {
+            return conforming.get(other.typeId);
+        }
+        String otherClassKey = BmmDefinitions.typeNameToClassKey(other.getName());
+        if(BmmDefinitions.typeNameToClassKey(name).equals(otherClassKey)) {
+            return true;
+        }
+        for(String ancestor:findAllAncestors()) {
+            if(BmmDefinitions.typeNameToClassKey(ancestor).equals(otherClassKey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Precompute the flat properties and all ancestors and descendants. The ancestors and descendants should be
+     * frozen first for best performance, but this is not required for correctness.
+     */
+    void freeze(int typeId) {
+        this.frozenFlatProperties = Collections.unmodifiableMap(getFlatProperties());
+        this.frozenAllAncestors = Collections.unmodifiableList(findAllAncestors());
+        this.frozenAllDescendants = Collections.unmodifiableList(findAllDescendants());
+        this.typeId = typeId;
+    }
+
+    void setConformingTypeIds(BitSet conformingTypeIds) {
+        this.conformingTypeIds = conformingTypeIds;
+    }
+
+    int getTypeId() {
+        return typeId;
+    }
+
+    void unfreeze() {
+        this.frozenFlatProperties = null;
+        this.frozenAllAncestors = null;
+        this.frozenAllDescendants = null;
+        this.conformingTypeIds = null;
+    }
+
+    private void modelChanged() {
+        if(bmmModel != null) {
+            bmmModel.unfreeze();
+        }
+        unfreeze();
+    }
+
     /**
      * List of names of immediate supplier classes, including concrete generic parameters, concrete descendants of
      * abstract statically defined types, and inherited suppliers. (Where generics are unconstrained, no class name is
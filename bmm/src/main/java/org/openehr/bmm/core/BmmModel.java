@@ -1,5 +1,6 @@
 package org.openehr.bmm.core;
 
+import com.nedap.archie.paths.PathResolutionCache;
 import com.nedap.archie.paths.PathSegment;
 import com.nedap.archie.query.APathQuery;
 import org.openehr.bmm.persistence.validation.BasicDefinitions;
@@ -7,6 +8,7 @@ import org.openehr.bmm.persistence.validation.BmmDefinitions;
 
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
@@ -42,6 +44,8 @@ public class BmmModel extends BmmPackageContainer implements IBmmSchemaCore, IBm
      */
     private Map<String, BmmClass> classDefinitions;
     private IBmmSchemaCore bmmSchemaCore;
+    private transient boolean frozen;
+    private transient volatile PathResolutionCache<BmmProperty<?>> propertyAtPathCache;
 
     public BmmModel() {
         this.bmmSchemaCore = new BmmSchemaCore();
@@ -53,13 +57,64 @@ public class BmmModel extends BmmPackageContainer implements IBmmSchemaCore, IBm
     }
 
     public void setClassDefinitions(Map<String, BmmClass> classDefinitions) {
+        unfreeze();
         this.classDefinitions = classDefinitions;
     }
 
     public void addClassDefinition(BmmClass bmmClassDefinition) {
+        unfreeze();
         this.classDefinitions.put(bmmClassDefinition.getName().toUpperCase(), bmmClassDefinition);
     }
 
+    /**
+     * Precomputes the flat properties and all ancestors and descendants of every class, plus a conformance bitset
+     * based on dense type ids, so these no longer have to be calculated by walking the class hierarchy on every call.
+     * Done by the BmmSchemaConverter after converting a schema. While frozen, the results of propertyAtPath are cached.
+     * <p>
+     * Changing the model with its setters and add methods unfreezes it again. Direct changes to the maps and lists
+     * returned by getters are not detected, so call freeze() again after those.
+     * <p>
+     * While frozen, {@link BmmClass#getFlatProperties()}, {@link BmmClass#findAllAncestors()} and
+     * {@link BmmClass#findAllDescendants()} return the same unmodifiable collection on every call, instead of a new
+     * mutable one. Callers that need to modify the result must copy it first.
+     */
+    public void freeze() {
+        unfreeze();
+        List<BmmClass> classes = new ArrayList<>(classDefinitions.values());
+        for(int i = 0; i < classes.size(); i++) {
+            //the recursive calculations in the class use the results of the classes that are already frozen
+            classes.get(i).freeze(i);
+        }
+        for(BmmClass bmmClass:classes) {
+            BitSet conforming = new BitSet(classes.size());
+            conforming.set(bmmClass.getTypeId());
+            for(String ancestorName:bmmClass.findAllAncestors()) {
+                BmmClass ancestor = getClassDefinition(ancestorName);
+                if(ancestor != null && ancestor.getBmmModel() == this) {
+                    conforming.set(ancestor.getTypeId());
+                }
+            }
+            bmmClass.setConformingTypeIds(conforming);
+        }
+        frozen = true;
+    }
+
+    public boolean isFrozen() {
+        return frozen;
+    }
+
+    void unfreeze() {
+        if(frozen) {
+            frozen = false;
+            if(propertyAtPathCache != null) {
+                propertyAtPathCache.clear();
+            }
+            for(BmmClass bmmClass:classDefinitions.values()) {
+                bmmClass.unfreeze();
+            }
+        }
+    }
+
     public void addClassDefinition(BmmClass bmmClassDefinition, BmmPackage packageDefinition) {
         if(getClassDefinition(bmmClassDefinition.getName()) == null) {// && recursiveHasPackage(packageDefinition)) {
             addClassDefinition(bmmClassDefinition);
@@ -167,6 +222,31 @@ public class BmmModel extends BmmPackageContainer implements IBmmSchemaCore, IBm
      * @return BmmProperty
      */
     public BmmProperty<?> propertyAtPath (String typeName, String propertyPath) {
+        if(frozen) {
+            return getPropertyAtPathCache().get(typeName, propertyPath, this::findPropertyAtPath);
+        }
+        return findPropertyAtPath(typeName, propertyPath);
+    }
+
+    /**
+     * The cache used by propertyAtPath when this model is frozen. Its counters show how effective it is.
+     * @return the property at path cache
+     */
+    public PathResolutionCache<BmmProperty<?>> getPropertyAtPathCache() {
+        PathResolutionCache<BmmProperty<?>> result = propertyAtPathCache;
+        if(result == null) {
+            synchronized (this) {
+                result = propertyAtPathCache;
+                if(result == null) {
+                    result = new PathResolutionCache<>();
+                    propertyAtPathCache = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    private BmmProperty<?> findPropertyAtPath (String typeName, String propertyPath) {
         BmmClass bmmClass = getClassDefinition(typeName);
         if (bmmClass != null) {
             return propertyAtPath (bmmClass, new APathQuery(propertyPath).getPathSegments());
@@ -259,7 +339,12 @@ public class BmmModel extends BmmPackageContainer implements IBmmSchemaCore, IBm
      * @return
      */
     public boolean descendantOf (String descendantType, String ancestorType) {
-        return getClassDefinition (descendantType).findAllAncestors().contains (ancestorType);
+        BmmClass descendantClass = getClassDefinition(descendantType);
+        BmmClass ancestorClass = getClassDefinition(ancestorType);
+        if(frozen && ancestorClass != null && ancestorClass.getName().equals(ancestorType)) {
+            return descendantClass != ancestorClass && descendantClass.conformsTo(ancestorClass);
+        }
+        return descendantClass.findAllAncestors().contains (ancestorType);
     }
 
     /**
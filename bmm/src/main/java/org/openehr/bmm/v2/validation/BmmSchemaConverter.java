@@ -105,6 +105,8 @@ public class BmmSchemaConverter {
 
             // set the descendants and ancestors properties
             new DescendantsCalculator().calculateDescendants(bmmModel);
+            //precompute flat properties and conformance, the model is not changed after this
+            bmmModel.freeze();
             result.setModel(bmmModel);
 
             //add the model and closure to the repository, but only if no errors
@@ -0,0 +1,134 @@
+package org.openehr.bmm.core;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openehr.bmm.persistence.validation.BmmDefinitions;
+import org.openehr.bmm.v2.validation.BmmRepository;
+import org.openehr.bmm.v2.validation.BmmSchemaConverter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.openehr.bmm.v2.persistence.converters.BmmTestUtil.parse;
+
+public class FrozenBmmModelTest {
+
+    private BmmModel model;
+
+    @Before
+    public void setup() throws Exception {
+        BmmRepository repo = new BmmRepository();
+        repo.addPersistentSchema(parse("/openehr/openehr_basic_types_102.bmm"));
+        repo.addPersistentSchema(parse("/openehr/openehr_demographic_102.bmm"));
+        repo.addPersistentSchema(parse("/openehr/openehr_ehr_102.bmm"));
+        repo.addPersistentSchema(parse("/openehr/openehr_primitive_types_102.bmm"));
+        repo.addPersistentSchema(parse("/openehr/openehr_rm_102.bmm"));
+        repo.addPersistentSchema(parse("/openehr/openehr_structures_102.bmm"));
+
+        new BmmSchemaConverter(repo).validateAndConvertRepository();
+        model = repo.getModel("openehr_ehr_1.0.2").getModel();
+    }
+
+    @Test
+    public void frozenAfterConversion() {
+        assertTrue(model.isFrozen());
+        BmmClass element = model.getClassDefinition("ELEMENT");
+        try {
+            element.getFlatProperties().remove("value");
+            fail("frozen flat properties should not be modifiable");
+        } catch (UnsupportedOperationException e) {
+            //expected
+        }
+        assertTrue(element.findAllAncestors().contains("LOCATABLE"));
+        assertTrue(model.descendantOf("ELEMENT", "LOCATABLE"));
+        assertFalse(model.descendantOf("ELEMENT", "ELEMENT"));
+    }
+
+    @Test
+    public void frozenEqualsCalculated() {
+        Map<String, List<String>> frozenFlatProperties = new HashMap<>();
+        Map<String, List<String>> frozenAncestors = new HashMap<>();
+        Map<String, List<String>> frozenDescendants = new HashMap<>();
+        Map<String, List<String>> frozenConformance = new HashMap<>();
+        for(BmmClass bmmClass:model.getClassDefinitions().values()) {
+            frozenFlatProperties.put(bmmClass.getName(), new ArrayList<>(bmmClass.getFlatProperties().keySet()));
+            frozenAncestors.put(bmmClass.getName(), new ArrayList<>(bmmClass.findAllAncestors()));
+            frozenDescendants.put(bmmClass.getName(), new ArrayList<>(bmmClass.findAllDescendants()));
+            frozenConformance.put(bmmClass.getName(), getConformingClasses(bmmClass));
+        }
+
+        //replacing the class definitions unfreezes the model
+        model.setClassDefinitions(model.getClassDefinitions());
+        assertFalse(model.isFrozen());
+
+        for(BmmClass bmmClass:model.getClassDefinitions().values()) {
+            assertEquals(frozenFlatProperties.get(bmmClass.getName()), new ArrayList<>(bmmClass.getFlatProperties().keySet()));
+            assertEquals(frozenAncestors.get(bmmClass.getName()), bmmClass.findAllAncestors());
+            assertEquals(frozenDescendants.get(bmmClass.getName()), bmmClass.findAllDescendants());
+            assertEquals(frozenConformance.get(bmmClass.getName()), getConformingClasses(bmmClass));
+        }
+        //and the names are the same as those determined from the ancestors directly
+        for(BmmClass bmmClass:model.getClassDefinitions().values()) {
+            List<String> expected = new ArrayList<>();
+            for(BmmClass other:model.getClassDefinitions().values()) {
+                String otherKey = BmmDefinitions.typeNameToClassKey(other.getName());
+                if(other == bmmClass || bmmClass.findAllAncestors().stream().anyMatch(ancestor -> BmmDefinitions.typeNameToClassKey(ancestor).equals(otherKey))) {
+                    expected.add(other.getName());
+                }
+            }
+            assertEquals(expected, frozenConformance.get(bmmClass.getName()));
+        }
+    }
+
+    @Test
+    public void changeUnfreezes() {
+        BmmClass locatable = model.getClassDefinition("LOCATABLE");
+        BmmClass element = model.getClassDefinition("ELEMENT");
+        assertFalse(element.getFlatProperties().containsKey("new_property"));
+
+        BmmUnitaryProperty property = new BmmUnitaryProperty("new_property", model.getClassDefinition("STRING").getType(), "", false, false);
+        locatable.addProperty(property);
+        assertFalse(model.isFrozen());
+        assertTrue(element.getFlatProperties().containsKey("new_property"));
+
+        model.freeze();
+        assertTrue(model.isFrozen());
+        assertTrue(element.getFlatProperties().containsKey("new_property"));
+        assertTrue(element.conformsTo(locatable));
+        assertFalse(locatable.conformsTo(element));
+    }
+
+    @Test
+    public void propertyAtPathCached() {
+        assertEquals(0, model.getPropertyAtPathCache().size());
+        BmmProperty<?> property = model.propertyAtPath("OBSERVATION", "/data/events/data/items/value");
+        assertEquals("value", property.getName());
+        assertNull(model.propertyAtPath("OBSERVATION", "/data/unknown"));
+        assertSame(property, model.propertyAtPath("OBSERVATION", "/data/events/data/items/value"));
+        assertNull(model.propertyAtPath("OBSERVATION", "/data/unknown"));
+        assertEquals(2, model.getPropertyAtPathCache().getHits());
+        assertEquals(2, model.getPropertyAtPathCache().getMisses());
+        //node ids and indices do not create new entries
+        assertSame(property, model.propertyAtPath("OBSERVATION", "/data[id2]/events[id3]/data[id4]/items[id5]/value[1]"));
+        assertEquals(2, model.getPropertyAtPathCache().size());
+
+        //a change clears the cache
+        BmmUnitaryProperty newProperty = new BmmUnitaryProperty("unknown", model.getClassDefinition("STRING").getType(), "", false, false);
+        model.getClassDefinition("HISTORY").addProperty(newProperty);
+        assertEquals(0, model.getPropertyAtPathCache().size());
+        assertSame(newProperty, model.propertyAtPath("OBSERVATION", "/data/unknown"));
+    }
+
+    private List<String> getConformingClasses(BmmClass bmmClass) {
+        List<String> result = new ArrayList<>();
+        for(BmmClass other:model.getClassDefinitions().values()) {
+            if(bmmClass.conformsTo(other)) {
+                result.add(other.getName());
+            }
+        }
+        return result;
+    }
+}
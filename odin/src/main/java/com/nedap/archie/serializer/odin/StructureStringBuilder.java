@@ -1,8 +1,15 @@
 package com.nedap.archie.serializer.odin;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
 
 /**
+ * By default all content is kept in memory until {@link #toString()} is called. After {@link #streamTo(Appendable)},
+ * completed lines are written to the given output on every call to {@link #flush()}. Only the current line, which
+ * can still be changed by indentation, is kept in memory. Flushing while a mark is active is not allowed, as the
+ * marked content might still be reverted.
+ *
  * @author markopi
  */
 public class StructureStringBuilder implements StructuredStringAppendable {
@@ -15,6 +22,8 @@ public class StructureStringBuilder implements StructuredStringAppendable {
 
     int currentLineLength = 0;
 
+    private Appendable output;
+
     public StructureStringBuilder() {
     }
 
@@ -125,6 +134,45 @@ public class StructureStringBuilder implements StructuredStringAppendable {
         currentLineLength += toAppend.length();
     }
 
+    /**
+     * Stream all completed lines to the given output from now on, including the ones already in this builder.
+     * After this call, {@link #toString()} will only return the content that has not yet been flushed.
+     * @param output the output to write to
+     */
+    public void streamTo(Appendable output) {
+        this.output = output;
+        flush();
+    }
+
+    /**
+     * Write all completed lines to the output, if streaming. Must not be called while a mark is active.
+     * @throws UncheckedIOException in case writing to the output failed
+     */
+    public void flush() {
+        if (output == null || startOfLineIndex == 0) {
+            return;
+        }
+        try {
+            output.append(builder, 0, startOfLineIndex);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        builder.delete(0, startOfLineIndex);
+        startOfLineIndex = 0;
+    }
+
+    /**
+     * Write all content, including the current line, to the output, if streaming. Call this when done.
+     * @throws UncheckedIOException in case writing to the output failed
+     */
+    public void finish() {
+        if (output == null) {
+            return;
+        }
+        startOfLineIndex = builder.length();
+        flush();
+    }
+
     public int getCurrentLineLength() {
         return currentLineLength;
     }
@@ -0,0 +1,92 @@
+package com.nedap.archie.rm.archetyped;
+
+import com.esotericsoftware.kryo.kryo5.Kryo;
+import com.esotericsoftware.kryo.kryo5.KryoCopyable;
+import com.nedap.archie.paths.PathUtil;
+import com.nedap.archie.rmutil.PathableUtil;
+
+import java.util.Collections;
+
+/**
+ * The cached path and unique path of a Pathable, relative to the root of the RM object tree it is in.
+ * <p>
+ * An entry is valid as long as the parent of the Pathable is the same, and the entry of the parent is still the same.
+ * Changing the parent of a Pathable, adding children to a Pathable or changing the archetype node id of a Locatable
+ * through its setters invalidates the entries of the Pathable and all its descendants.
+ * <p>
+ * Enable with {@link PathableUtil#cachePaths(Pathable)}
+ */
+public final class CachedPath implements KryoCopyable<CachedPath> {
+
+    /**
+     * Marker for a Pathable that has path caching enabled, but whose path needs to be recalculated
+     */
+    static final CachedPath INVALIDATED = new CachedPath(null, null, null, null);
+
+    private final Pathable pathable;
+    private final Pathable parent;
+    private final CachedPath parentEntry;
+    private final String path;
+    private volatile String uniquePath;
+
+    CachedPath(Pathable pathable, Pathable parent, CachedPath parentEntry, String path) {
+        this.pathable = pathable;
+        this.parent = parent;
+        this.parentEntry = parentEntry;
+        this.path = path;
+    }
+
+    /**
+     * @return true if this is the marker for an entry that needs to be recalculated
+     */
+    boolean isInvalidated() {
+        return path == null;
+    }
+
+    Pathable getParent() {
+        return parent;
+    }
+
+    CachedPath getParentEntry() {
+        return parentEntry;
+    }
+
+    /**
+     * @return a new entry with the same contents, to invalidate the entries of the children
+     */
+    CachedPath renew() {
+        CachedPath result = new CachedPath(pathable, parent, parentEntry, path);
+        result.uniquePath = uniquePath;
+        return result;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * A clone of an RM object consists of new objects, so its entries have to be recalculated. Path caching stays
+     * enabled for the clone.
+     */
+    @Override
+    public CachedPath copy(Kryo kryo) {
+        return INVALIDATED;
+    }
+
+    public String getUniquePath() {
+        String result = uniquePath;
+        if(result == null) {
+            if(parentEntry == null) {
+                result = PathUtil.getPath(Collections.emptyList());
+            } else {
+                result = append(parentEntry.getUniquePath(), PathUtil.getPath(Collections.singletonList(PathableUtil.getUniquePathSegment(pathable, pathable.getLastPathSegment()))));
+            }
+            uniquePath = result;
+        }
+        return result;
+    }
+
+    static String append(String parentPath, String segment) {
+        return parentPath.equals("/") ? segment : parentPath + segment;
+    }
+}
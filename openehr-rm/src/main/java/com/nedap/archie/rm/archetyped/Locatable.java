@@ -86,6 +86,7 @@ public abstract class Locatable extends Pathable {
 
     public void setArchetypeNodeId(String archetypeNodeId) {
         this.archetypeNodeId = archetypeNodeId;
+        invalidatePathCache();
     }
 
     public UIDBasedId getUid() {
@@ -126,10 +127,15 @@ public abstract class Locatable extends Pathable {
         }
 
         List<PathSegment> segments = parent.getPathSegments();
-        segments.add(new PathSegment(getParentAttributeName(), archetypeNodeId));
+        segments.add(getLastPathSegment());
         return segments;
     }
 
+    @Override
+    protected PathSegment getLastPathSegment() {
+        return new PathSegment(getParentAttributeName(), archetypeNodeId);
+    }
+
     @JsonIgnore
     @RMPropertyIgnore
     public String getNameAsString() {
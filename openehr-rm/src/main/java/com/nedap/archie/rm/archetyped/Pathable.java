@@ -18,6 +18,7 @@ import javax.xml.bind.annotation.XmlTransient;
 import javax.xml.bind.annotation.XmlType;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -37,6 +38,8 @@ public abstract class Pathable extends RMObject {
     @XmlTransient
     @Nullable
     private String parentAttributeName;
+    @JsonIgnore
+    private transient CachedPath cachedPath;
 
     public Pathable() {
     }
@@ -93,6 +96,15 @@ public abstract class Pathable extends RMObject {
         if (child != null) {
             child.setParent(this);
             child.setParentAttributeName(attributeName);
+            if (cachedPath != null) {
+                child.cachedPath = CachedPath.INVALIDATED;
+                if (!cachedPath.isInvalidated()) {
+                    //the indices in the unique paths of the siblings of the child can have changed
+                    cachedPath = cachedPath.renew();
+                }
+            } else {
+                child.invalidatePathCache();
+            }
         }
     }
 
@@ -121,10 +133,68 @@ public abstract class Pathable extends RMObject {
         }
 
         List<PathSegment> segments = parent.getPathSegments();
-        segments.add(new PathSegment(parentAttributeName));
+        segments.add(getLastPathSegment());
         return segments;
     }
 
+    /**
+     * @return the last segment of the path of this object, in its parent. Only valid if this object has a parent
+     */
+    protected PathSegment getLastPathSegment() {
+        return new PathSegment(parentAttributeName);
+    }
+
+    /**
+     * Enable caching of the path and unique path of this object. Only has effect if this object is the root, or
+     * if path caching is enabled for the parent. To enable it for a full tree, use {@link com.nedap.archie.rmutil.PathableUtil#cachePaths(Pathable)}
+     */
+    public void enablePathCache() {
+        if (cachedPath == null) {
+            cachedPath = CachedPath.INVALIDATED;
+        }
+    }
+
+    /**
+     * Marks the cached path of this object, and with that of all its descendants, as no longer valid. Call when the
+     * path of this object changes in a way that is not detected by setting the parent, such as a change of archetype node id.
+     */
+    protected void invalidatePathCache() {
+        if (cachedPath != null) {
+            cachedPath = CachedPath.INVALIDATED;
+        }
+    }
+
+    /**
+     * Returns the cached path of this object, recalculating it if it is no longer valid.
+     *
+     * @return the cached path, or null if path caching is not enabled for this object or one of its parents
+     */
+    @JsonIgnore
+    @RMPropertyIgnore
+    public CachedPath getCachedPath() {
+        CachedPath entry = cachedPath;
+        if (entry == null) {
+            return null;
+        }
+        Pathable parent = getParent();
+        CachedPath parentEntry = null;
+        if (parent != null) {
+            parentEntry = parent.getCachedPath();
+            if (parentEntry == null) {
+                return null;
+            }
+        }
+        if (!entry.isInvalidated() && entry.getParent() == parent && entry.getParentEntry() == parentEntry) {
+            return entry;
+        }
+        String path = parentEntry == null ?
+                PathUtil.getPath(Collections.emptyList()) :
+                CachedPath.append(parentEntry.getPath(), PathUtil.getPath(Collections.singletonList(getLastPathSegment())));
+        entry = new CachedPath(this, parent, parentEntry, path);
+        cachedPath = entry;
+        return entry;
+    }
+
     /**
      * Path from the toplevel-RM object. Not sure if this should be here, because the EHR and Folder objects are also in
      * the RM. But for now, it works because the most toplevel element is a Composition
@@ -135,6 +205,10 @@ public abstract class Pathable extends RMObject {
      */
     @RMPropertyIgnore
     public final String getPath() {
+        CachedPath entry = getCachedPath();
+        if (entry != null) {
+            return entry.getPath();
+        }
         return PathUtil.getPath(getPathSegments());
     }
 
@@ -3,9 +3,12 @@ package com.nedap.archie.rmutil;
 import com.nedap.archie.paths.PathSegment;
 import com.nedap.archie.paths.PathUtil;
 import com.nedap.archie.query.RMObjectAttributes;
+import com.nedap.archie.rm.archetyped.CachedPath;
 import com.nedap.archie.rm.archetyped.Pathable;
 import com.nedap.archie.rminfo.ArchieRMInfoLookup;
 import com.nedap.archie.rminfo.ModelInfoLookup;
+import com.nedap.archie.rminfo.RMAttributeInfo;
+import com.nedap.archie.rminfo.RMTypeInfo;
 
 import java.util.ArrayList;
 import java.util.Collection;
@@ -31,8 +34,14 @@ public class PathableUtil {
 
     private static PathSegment getUniquePathSegment(Pathable pathable) {
         List<PathSegment> unindexedPathSegments = pathable.getPathSegments();
-        PathSegment unindexedPathSegment = unindexedPathSegments.get(unindexedPathSegments.size() - 1);
+        return getUniquePathSegment(pathable, unindexedPathSegments.get(unindexedPathSegments.size() - 1));
+    }
 
+    /**
+     * Determine the last segment of the unique path of the given pathable, given the last segment of its path without index.
+     * The pathable must have a parent.
+     */
+    public static PathSegment getUniquePathSegment(Pathable pathable, PathSegment unindexedPathSegment) {
         Pathable parent = pathable.getParent();
         String parentAttributeName = unindexedPathSegment.getNodeName();
 
@@ -68,6 +77,49 @@ public class PathableUtil {
      * Adds index when necessary.
      */
     public static String getUniquePath(Pathable pathable) {
+        CachedPath cachedPath = pathable.getCachedPath();
+        if (cachedPath != null) {
+            return cachedPath.getUniquePath();
+        }
         return PathUtil.getPath(getUniquePathSegments(pathable));
     }
+
+    /**
+     * Enables path caching for the given tree of RM objects, and calculates the path and unique path of every
+     * Pathable in it in a single traversal. After this, {@link Pathable#getPath()} and {@link #getUniquePath(Pathable)}
+     * return the cached paths, until the tree is changed through its setters, after which the changed paths are
+     * recalculated when requested.
+     * <p>
+     * Changing lists of children directly, without calling a setter or add method afterwards, is not detected.
+     */
+    public static void cachePaths(Pathable root) {
+        if (root.getParent() != null && root.getParent().getCachedPath() == null) {
+            throw new IllegalArgumentException("path caching can only be enabled for a root object, or for an object of which the parent has path caching enabled");
+        }
+        cachePaths(root, ArchieRMInfoLookup.getInstance());
+    }
+
+    private static void cachePaths(Pathable pathable, ModelInfoLookup modelInfoLookup) {
+        pathable.enablePathCache();
+        pathable.getCachedPath().getUniquePath();
+        RMTypeInfo typeInfo = modelInfoLookup.getTypeInfo(pathable.getClass());
+        if (typeInfo == null) {
+            return;
+        }
+        for (RMAttributeInfo attributeInfo : typeInfo.getAttributes().values()) {
+            if (attributeInfo.isComputed() || attributeInfo.getGetMethod() == null) {
+                continue;
+            }
+            Object value = RMObjectAttributes.getAttributeValueFromRMObject(pathable, attributeInfo.getRmName(), modelInfoLookup);
+            if (value instanceof Pathable) {
+                cachePaths((Pathable) value, modelInfoLookup);
+            } else if (value instanceof Collection) {
+                for (Object element : (Collection<?>) value) {
+                    if (element instanceof Pathable) {
+                        cachePaths((Pathable) element, modelInfoLookup);
+                    }
+                }
+            }
+        }
+    }
 }
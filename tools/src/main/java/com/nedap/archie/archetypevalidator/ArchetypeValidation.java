@@ -13,4 +13,16 @@ public interface ArchetypeValidation {
 
     List<ValidationMessage> validate(MetaModels models, Archetype archetype, Archetype flatParent, FullArchetypeRepository repository, ArchetypeValidationSettings settings);
 
+    /**
+     * Whether this validation can run at the same time as other independent validations of the same phase, if the
+     * ArchetypeValidator is set to run validations in parallel. Only return true if this validation does not change the
+     * archetype, the flat parent or the repository, so that it does not matter in which order it runs.
+     *
+     * @param settings the settings the validation will run with
+     * @return true if this validation is independent of the other validations, false otherwise
+     */
+    default boolean isIndependent(ArchetypeValidationSettings settings) {
+        return false;
+    }
+
 }
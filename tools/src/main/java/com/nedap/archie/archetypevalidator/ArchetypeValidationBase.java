@@ -24,6 +24,15 @@ public abstract class ArchetypeValidationBase implements ArchetypeValidation {
 
     @Override
     public List<ValidationMessage> validate(MetaModels models, Archetype archetype, Archetype flatParent, FullArchetypeRepository repository, ArchetypeValidationSettings settings) {
+        initialize(models, archetype, flatParent, repository, settings);
+        validate();
+        return messages;
+    }
+
+    /**
+     * Prepare this validation to validate the given archetype, without validating it yet
+     */
+    protected void initialize(MetaModels models, Archetype archetype, Archetype flatParent, FullArchetypeRepository repository, ArchetypeValidationSettings settings) {
         this.archetype = archetype;
         this.flatParent = flatParent;
         this.repository = repository;
@@ -32,8 +41,6 @@ public abstract class ArchetypeValidationBase implements ArchetypeValidation {
         this.settings = settings;
 
         messages = new ArrayList<>();
-        validate();
-        return messages;
     }
 
     public abstract void validate();
@@ -1,6 +1,7 @@
 package com.nedap.archie.archetypevalidator;
 
 import com.google.common.base.Joiner;
+import com.nedap.archie.ArchieLanguageConfiguration;
 import com.nedap.archie.adlparser.modelconstraints.ReflectionConstraintImposer;
 import com.nedap.archie.aom.Archetype;
 import com.nedap.archie.aom.OperationalTemplate;
@@ -18,9 +19,19 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
 
 /**
  * Created by pieter.bos on 31/03/2017.
@@ -30,6 +41,10 @@ public class ArchetypeValidator {
 
     private MetaModels combinedModels;
     private FlattenerConfiguration flattenerConfiguration = FlattenerConfiguration.forFlattened();
+    private ExecutorService parallelValidationExecutor;
+    private final List<ArchetypeValidatorListener> listeners = new ArrayList<>();
+    private boolean collectTimings = false;
+    private boolean shareVisitorWalks = false;
 
     //see comment on why there is a phase 0
     private List<ArchetypeValidation> validationsPhase0;
@@ -86,6 +101,69 @@ public class ArchetypeValidator {
     }
 
 
+    /**
+     * Run the independent validations of every phase at the same time, on the given executor service. Validations are
+     * independent if ArchetypeValidation.isIndependent() returns true for the settings used. Consecutive independent
+     * validations run concurrently, each with its own copy of the MetaModels. Other validations run on their own, after
+     * the validations before them have finished. The validation messages are in the same order as when running
+     * sequentially.
+     *
+     * The FullArchetypeRepository used for validation must be safe to read from multiple threads at the same time.
+     *
+     * The validating thread does not just wait for the validations it submitted: it runs every validation the executor
+     * has not yet started itself. So the executor may be bounded, and may be the same executor that runs the validation
+     * of the archetypes, for example when compiling a repository in parallel, without risk of a deadlock. Validations
+     * that the executor rejects also run on the validating thread.
+     *
+     * @param executorService the executor service to run the validations on, or null to run all validations sequentially
+     */
+    public void setParallelValidationExecutor(ExecutorService executorService) {
+        this.parallelValidationExecutor = executorService;
+    }
+
+    public ExecutorService getParallelValidationExecutor() {
+        return parallelValidationExecutor;
+    }
+
+    /**
+     * Set whether consecutive independent ValidatingVisitors of a phase share a single walk over the definition,
+     * instead of each walking it separately. Only visitors for which ValidatingVisitor.canShareWalk() returns true share
+     * a walk. Does not change the validation messages. Not used for validations that run in parallel. Default false
+     * @param shareVisitorWalks true to share walks, false to let every visitor walk the definition separately
+     */
+    public void setShareVisitorWalks(boolean shareVisitorWalks) {
+        this.shareVisitorWalks = shareVisitorWalks;
+    }
+
+    public boolean isShareVisitorWalks() {
+        return shareVisitorWalks;
+    }
+
+    /**
+     * Add a listener that is notified of the duration of the validations, phases, flattening, operational template
+     * creation and repository lookups, for every archetype validated
+     * @param listener the listener to add
+     */
+    public void addListener(ArchetypeValidatorListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(ArchetypeValidatorListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Set whether to attach the aggregated ValidationTimings to every ValidationResult. Default false
+     * @param collectTimings true to collect timings, false otherwise
+     */
+    public void setCollectTimings(boolean collectTimings) {
+        this.collectTimings = collectTimings;
+    }
+
+    public boolean isCollectTimings() {
+        return collectTimings;
+    }
+
     public ValidationResult validate(Archetype archetype) {
         return validate(archetype, null);
     }
@@ -108,6 +186,24 @@ public class ArchetypeValidator {
      * @return
      */
     public ValidationResult validate(Archetype archetype, FullArchetypeRepository repository) {
+        long start = System.nanoTime();
+        List<ArchetypeValidatorListener> currentListeners = new ArrayList<>(listeners);
+        ValidationTimings timings = null;
+        if(collectTimings) {
+            timings = new ValidationTimings();
+            currentListeners.add(timings);
+        }
+        ValidationResult result = validate(archetype, repository, currentListeners);
+        if(timings != null) {
+            result.setTimings(timings);
+        }
+        long duration = System.nanoTime() - start;
+        notifyListeners(currentListeners, listener -> listener.archetypeValidated(result, duration));
+        return result;
+    }
+
+    private ValidationResult validate(Archetype archetype, FullArchetypeRepository repository, List<ArchetypeValidatorListener> listeners) {
+        String archetypeId = archetype.getArchetypeId().toString();
         ArchetypeValidationSettings settings = repository == null ? null : repository.getArchetypeValidationSettings();
         if(settings == null) {
             settings = new ArchetypeValidationSettings();
@@ -134,7 +230,11 @@ public class ArchetypeValidator {
             if (!infiniteLoopResult.passes()) {
                 return infiniteLoopResult;
             }
+            long lookupStart = System.nanoTime();
             ValidationResult parentValidationResult = repository.compileAndRetrieveValidationResult(archetype.getParentArchetypeId(), this);
+            long lookupDuration = System.nanoTime() - lookupStart;
+            String parentArchetypeId = archetype.getParentArchetypeId();
+            notifyListeners(listeners, listener -> listener.repositoryLookupCompleted(archetypeId, parentArchetypeId, lookupDuration));
             combinedModels.selectModel(archetype);
             if(parentValidationResult != null) {
                 if(parentValidationResult.passes()) {
@@ -170,24 +270,27 @@ public class ArchetypeValidator {
             }
             for(TemplateOverlay overlay:((Template) archetype).getTemplateOverlays()) {
                 //validate the overlays first, but make sure to do that only once (so don't call this same method!)
+                long lookupStart = System.nanoTime();
                 extraRepository.compileAndRetrieveValidationResult(overlay.getArchetypeId().toString(), this);
+                long lookupDuration = System.nanoTime() - lookupStart;
+                notifyListeners(listeners, listener -> listener.repositoryLookupCompleted(archetypeId, overlay.getArchetypeId().toString(), lookupDuration));
                 combinedModels.selectModel(archetype);
             }
         }
 
-        List<ValidationMessage> messages = runValidations(archetype, repository, settings, flatParent, validationsPhase0);
         ValidationResult result = new ValidationResult(archetype);
+        List<ValidationMessage> messages = runValidations(archetype, repository, settings, flatParent, 0, validationsPhase0, result, listeners);
         result.setErrors(messages);
         if(result.passes()) {
             //continue running only if the basic phase 0 validation run, otherwise we get annoying exceptions
-            messages.addAll(runValidations(archetype, repository, settings, flatParent, validationsPhase1));
+            messages.addAll(runValidations(archetype, repository, settings, flatParent, 1, validationsPhase1, result, listeners));
 
             //the separate validations will check if the archtype is specialized and if they need this in phase 2
             //because the RM validations are technically phase 2 and required to run
             //also the separate validations are implemented so that they can run with errors in phase 1 without exceptions
             //plus exceptions will nicely be logged as an OTHER error type - we can safely run it and you will get
             //more errors in one go - could be useful
-            messages.addAll(runValidations(archetype, repository, settings, flatParent, validationsPhase2));
+            messages.addAll(runValidations(archetype, repository, settings, flatParent, 2, validationsPhase2, result, listeners));
         }
         result.setErrors(messages);
 
@@ -203,8 +306,16 @@ public class ArchetypeValidator {
 
         if(result.passes() || settings.isAlwaysTryToFlatten()) {
             try {
-                Archetype flattened = new Flattener(repository, combinedModels, flattenerConfiguration).flatten(archetype);
+                long flatteningStart = System.nanoTime();
+                Archetype flattened;
+                try {
+                    flattened = new Flattener(repository, combinedModels, flattenerConfiguration).flatten(archetype);
+                } finally {
+                    long flatteningDuration = System.nanoTime() - flatteningStart;
+                    notifyListeners(listeners, listener -> listener.flatteningCompleted(archetypeId, flatteningDuration));
+                }
 
+                long operationalTemplateStart = System.nanoTime();
                 try {
                     OperationalTemplate operationalTemplate = (OperationalTemplate) new Flattener(repository, combinedModels).createOperationalTemplate(true).flatten(archetype);
                     extraRepository.addExtraOperationalTemplate(operationalTemplate);
@@ -214,10 +325,13 @@ public class ArchetypeValidator {
                     ValidationMessage message = new ValidationMessage(ErrorType.OTHER, null, "Error during Operational template creation. This does not necessarily mean the current archetype has a problem, but perhaps one that is included with use_archetype: " + e);
                     message.setWarning(true);
                     messages.add(message);
+                } finally {
+                    long operationalTemplateDuration = System.nanoTime() - operationalTemplateStart;
+                    notifyListeners(listeners, listener -> listener.operationalTemplateCreationCompleted(archetypeId, operationalTemplateDuration));
                 }
                 result.setFlattened(flattened);
                 if(result.passes()) {
-                    messages.addAll(runValidations(flattened, repository, settings, flatParent, validationsPhase3));
+                    messages.addAll(runValidations(flattened, repository, settings, flatParent, 3, validationsPhase3, result, listeners));
                 }
             } catch (Exception e) {
                 messages.add(new ValidationMessage(ErrorType.OTHER, null, "flattening failed with exception " + e));
@@ -235,22 +349,173 @@ public class ArchetypeValidator {
         return preprocessed;
     }
 
-    private List<ValidationMessage> runValidations(Archetype archetype, FullArchetypeRepository repository, ArchetypeValidationSettings settings, Archetype flatParent, List<ArchetypeValidation> validations) {
-
+    private List<ValidationMessage> runValidations(Archetype archetype, FullArchetypeRepository repository, ArchetypeValidationSettings settings, Archetype flatParent, int phase, List<ArchetypeValidation> validations, ValidationResult result, List<ArchetypeValidatorListener> listeners) {
+        long start = System.nanoTime();
+        String archetypeId = result.getArchetypeId();
         List<ValidationMessage> messages = new ArrayList<>();
-        for(ArchetypeValidation validation: validations) {
+        int i = 0;
+        while(i < validations.size()) {
+            //find the consecutive independent validations starting at i, to run them at the same time or in a single walk
+            int end = i;
+            if(parallelValidationExecutor != null || shareVisitorWalks) {
+                while(end < validations.size() && validations.get(end).isIndependent(settings)) {
+                    end++;
+                }
+            }
+            List<ValidationRun> runs;
+            if(end - i <= 1) {
+                runs = Collections.singletonList(runValidation(validations.get(i), combinedModels, archetype, flatParent, repository, settings));
+                i++;
+            } else if(parallelValidationExecutor != null) {
+                runs = runInParallel(validations.subList(i, end), archetype, flatParent, repository, settings);
+                i = end;
+            } else {
+                runs = runWithSharedWalk(validations.subList(i, end), archetype, flatParent, repository, settings);
+                i = end;
+            }
+            for(ValidationRun run:runs) {
+                messages.addAll(run.messages);
+                notifyListeners(listeners, listener -> listener.validationCompleted(archetypeId, phase, run.validation, run.duration));
+            }
+        }
+        long duration = System.nanoTime() - start;
+        notifyListeners(listeners, listener -> listener.phaseCompleted(archetypeId, phase, duration));
+        return messages;
+    }
+
+    private static void notifyListeners(List<ArchetypeValidatorListener> listeners, Consumer<ArchetypeValidatorListener> event) {
+        for(ArchetypeValidatorListener listener:listeners) {
+            event.accept(listener);
+        }
+    }
+
+    private List<ValidationRun> runInParallel(List<ArchetypeValidation> validations, Archetype archetype, Archetype flatParent, FullArchetypeRepository repository, ArchetypeValidationSettings settings) {
+        List<FutureTask<ValidationRun>> tasks = new ArrayList<>();
+        for(ArchetypeValidation validation:validations) {
+            MetaModels models = combinedModels.copy();
+            FutureTask<ValidationRun> task = new FutureTask<>(withCurrentLanguages(() ->
+                    runValidation(validation, models, archetype, flatParent, repository, settings)));
+            tasks.add(task);
             try {
-                messages.addAll(validation.validate(combinedModels, archetype, flatParent, repository, settings));
-            } catch (Exception e) {
-                logger.error("error running validation processor", e);
-                e.printStackTrace();
-                messages.add(new ValidationMessage(ErrorType.OTHER, null, "error running validator : " + e.getClass().getSimpleName() +
-                        Joiner.on("\n").join(e.getStackTrace())));
+                parallelValidationExecutor.execute(task);
+            } catch (RejectedExecutionException e) {
+                //runs on this thread below
             }
         }
+        List<ValidationRun> runs = new ArrayList<>();
+        for(FutureTask<ValidationRun> task:tasks) {
+            //run the tasks the executor has not yet started on this thread instead of waiting for them. This prevents a
+            //deadlock when this thread is itself one of the threads of the executor, for example when validating a
+            //repository in parallel on the same executor. A task that has already started is not run again
+            task.run();
+            runs.add(getRun(task));
+        }
+        return runs;
+    }
+
+    /**
+     * Run the given independent validations, with a single walk over the definition for all ValidatingVisitors
+     */
+    private List<ValidationRun> runWithSharedWalk(List<ArchetypeValidation> validations, Archetype archetype, Archetype flatParent, FullArchetypeRepository repository, ArchetypeValidationSettings settings) {
+        ValidationRun[] runs = new ValidationRun[validations.size()];
+        List<ValidatingVisitor> visitors = new ArrayList<>();
+        List<Integer> visitorPositions = new ArrayList<>();
+        for(int i = 0; i < validations.size(); i++) {
+            ArchetypeValidation validation = validations.get(i);
+            if(validation instanceof ValidatingVisitor && ((ValidatingVisitor) validation).canShareWalk()) {
+                visitors.add((ValidatingVisitor) validation);
+                visitorPositions.add(i);
+            } else {
+                runs[i] = runValidation(validation, combinedModels, archetype, flatParent, repository, settings);
+            }
+        }
+        if(visitors.size() == 1) {
+            runs[visitorPositions.get(0)] = runValidation(visitors.get(0), combinedModels, archetype, flatParent, repository, settings);
+        } else if(!visitors.isEmpty()) {
+            ValidatingVisitorWalk walk = new ValidatingVisitorWalk(visitors);
+            walk.validate(combinedModels, archetype, flatParent, repository, settings);
+            for(int i = 0; i < visitors.size(); i++) {
+                Exception exception = walk.getException(i);
+                List<ValidationMessage> messages = exception == null ? walk.getMessages(i) : createExceptionMessages(exception);
+                runs[visitorPositions.get(i)] = new ValidationRun(visitors.get(i), messages, walk.getDuration(i));
+            }
+        }
+        return Arrays.asList(runs);
+    }
+
+    private ValidationRun runValidation(ArchetypeValidation validation, MetaModels models, Archetype archetype, Archetype flatParent, FullArchetypeRepository repository, ArchetypeValidationSettings settings) {
+        long start = System.nanoTime();
+        List<ValidationMessage> messages;
+        try {
+            messages = validation.validate(models, archetype, flatParent, repository, settings);
+        } catch (Exception e) {
+            messages = createExceptionMessages(e);
+        }
+        return new ValidationRun(validation, messages, System.nanoTime() - start);
+    }
+
+    private List<ValidationMessage> createExceptionMessages(Exception e) {
+        logger.error("error running validation processor", e);
+        List<ValidationMessage> messages = new ArrayList<>();
+        messages.add(new ValidationMessage(ErrorType.OTHER, null, "error running validator : " + e.getClass().getSimpleName() +
+                Joiner.on("\n").join(e.getStackTrace())));
         return messages;
     }
 
+    private ValidationRun getRun(Future<ValidationRun> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("interrupted while running validations", e);
+        } catch (ExecutionException e) {
+            //runValidation already turns all exceptions into validation messages, so rethrow whatever is left unwrapped
+            Throwable cause = e.getCause();
+            if(cause instanceof Error) {
+                throw (Error) cause;
+            } else if(cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Wrap the task so it runs with the languages of the current thread, for the validation messages and logical paths
+     */
+    private static <T> Callable<T> withCurrentLanguages(Callable<T> task) {
+        Locale locale = I18n.getCurrentLocale();
+        String logicalPathLanguage = ArchieLanguageConfiguration.getLogicalPathLanguage();
+        String meaningAndDescriptionLanguage = ArchieLanguageConfiguration.getMeaningAndDescriptionLanguage();
+        return () -> {
+            Locale previousLocale = I18n.getCurrentLocale();
+            String previousLogicalPathLanguage = ArchieLanguageConfiguration.getLogicalPathLanguage();
+            String previousMeaningAndDescriptionLanguage = ArchieLanguageConfiguration.getThreadLocalDescriptiongAndMeaningLanguage();
+            I18n.setCurrentLocale(locale);
+            ArchieLanguageConfiguration.setThreadLocalLogicalPathLanguage(logicalPathLanguage);
+            ArchieLanguageConfiguration.setThreadLocalDescriptiongAndMeaningLanguage(meaningAndDescriptionLanguage);
+            try {
+                return task.call();
+            } finally {
+                I18n.setCurrentLocale(previousLocale);
+                ArchieLanguageConfiguration.setThreadLocalLogicalPathLanguage(previousLogicalPathLanguage);
+                ArchieLanguageConfiguration.setThreadLocalDescriptiongAndMeaningLanguage(previousMeaningAndDescriptionLanguage);
+            }
+        };
+    }
+
+    private static class ValidationRun {
+        private final ArchetypeValidation validation;
+        private final List<ValidationMessage> messages;
+        private final long duration;
+
+        ValidationRun(ArchetypeValidation validation, List<ValidationMessage> messages, long duration) {
+            this.validation = validation;
+            this.messages = messages;
+            this.duration = duration;
+        }
+    }
+
     private ValidationResult checkForInfiniteLoopInSpecialisation(FullArchetypeRepository repository, Archetype archetype) {
         Set<String> archetypesInSpecialisationTree = new HashSet<>();
         archetypesInSpecialisationTree.add(archetype.getArchetypeId().getFullId());
@@ -0,0 +1,65 @@
+package com.nedap.archie.archetypevalidator;
+
+/**
+ * Listener for the progress of an ArchetypeValidator, to measure where the time to compile an archetype is spent.
+ * All durations are in nanoseconds.
+ * <p>
+ * The methods are called from the thread that called ArchetypeValidator.validate(), also when validations run in
+ * parallel. Validating an archetype can validate its parent and template overlays first. The events of those are
+ * reported with their own archetype id, and happen during the repository lookup of the archetype that needs them.
+ */
+public interface ArchetypeValidatorListener {
+
+    /**
+     * Called after a single validation has run
+     * @param archetypeId the id of the validated archetype
+     * @param phase the validation phase, from 0 to 3
+     * @param validation the validation
+     * @param duration the time it took to run the validation
+     */
+    default void validationCompleted(String archetypeId, int phase, ArchetypeValidation validation, long duration) {
+    }
+
+    /**
+     * Called after all validations of a phase have run
+     * @param archetypeId the id of the validated archetype
+     * @param phase the validation phase, from 0 to 3
+     * @param duration the time it took to run all validations of the phase
+     */
+    default void phaseCompleted(String archetypeId, int phase, long duration) {
+    }
+
+    /**
+     * Called after the archetype has been flattened, or flattening failed
+     * @param archetypeId the id of the flattened archetype
+     * @param duration the time it took to flatten
+     */
+    default void flatteningCompleted(String archetypeId, long duration) {
+    }
+
+    /**
+     * Called after the operational template has been created, or creating it failed
+     * @param archetypeId the id of the archetype
+     * @param duration the time it took to create the operational template
+     */
+    default void operationalTemplateCreationCompleted(String archetypeId, long duration) {
+    }
+
+    /**
+     * Called after the validation result of the parent archetype or of a template overlay has been retrieved from the
+     * repository. Includes the time to validate them, if that had not been done yet.
+     * @param archetypeId the id of the archetype being validated
+     * @param lookedUpArchetypeId the id of the archetype of which the validation result was retrieved
+     * @param duration the time it took to retrieve the validation result
+     */
+    default void repositoryLookupCompleted(String archetypeId, String lookedUpArchetypeId, long duration) {
+    }
+
+    /**
+     * Called after the archetype has been validated completely
+     * @param result the validation result
+     * @param duration the total time it took to validate the archetype
+     */
+    default void archetypeValidated(ValidationResult result, long duration) {
+    }
+}
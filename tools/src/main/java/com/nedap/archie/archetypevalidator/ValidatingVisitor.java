@@ -27,6 +27,9 @@ public abstract class ValidatingVisitor extends ArchetypeValidationBase {
 
     @Override
     public void validate() {
+        if(!shouldVisit()) {
+            return;
+        }
         beginValidation();
         ArrayDeque<CObject> workList = new ArrayDeque<>();
         workList.add(archetype.getDefinition());
@@ -43,6 +46,26 @@ public abstract class ValidatingVisitor extends ArchetypeValidationBase {
     }
 
 
+    /**
+     * Override to skip visiting the definition, for example because this validation does not apply to the archetype.
+     * Messages can be added here.
+     * @return true if the definition should be visited, false otherwise
+     */
+    protected boolean shouldVisit() {
+        return true;
+    }
+
+    /**
+     * Whether this visitor can share a single walk over the definition with other visitors. Override to return true only
+     * if this visitor does all of its validation in the validate(...) callbacks of the nodes, shouldVisit(),
+     * beginValidation() and endValidation(), does not override validate(), and does not modify the archetype.
+     * Only used if the visitor is also independent. Default false
+     * @return true if this visitor can be combined with others in a single walk
+     */
+    protected boolean canShareWalk() {
+        return false;
+    }
+
     /**
      * Override to get a callback when validation begins
      */
@@ -0,0 +1,120 @@
+package com.nedap.archie.archetypevalidator;
+
+import com.nedap.archie.aom.Archetype;
+import com.nedap.archie.aom.CAttribute;
+import com.nedap.archie.aom.CObject;
+import com.nedap.archie.flattener.FullArchetypeRepository;
+import com.nedap.archie.rminfo.MetaModels;
+
+import java.util.ArrayDeque;
+import java.util.List;
+
+/**
+ * Runs several ValidatingVisitors with a single walk over the definition, instead of one walk per visitor. Every node
+ * is passed to all visitors, in the same order as ValidatingVisitor.validate() does, so every visitor produces exactly
+ * the same messages as when it walks the definition itself.
+ * <p>
+ * Only use this for visitors that do not change the archetype, and of which canShareWalk() returns true. A visitor that
+ * throws an exception is not called again, and the exception is available through getException().
+ */
+class ValidatingVisitorWalk {
+
+    private final List<ValidatingVisitor> visitors;
+    private final boolean[] visiting;
+    private final long[] durations;
+    private final Exception[] exceptions;
+
+    ValidatingVisitorWalk(List<ValidatingVisitor> visitors) {
+        this.visitors = visitors;
+        this.visiting = new boolean[visitors.size()];
+        this.durations = new long[visitors.size()];
+        this.exceptions = new Exception[visitors.size()];
+    }
+
+    void validate(MetaModels models, Archetype archetype, Archetype flatParent, FullArchetypeRepository repository, ArchetypeValidationSettings settings) {
+        for(int i = 0; i < visitors.size(); i++) {
+            long start = System.nanoTime();
+            try {
+                ValidatingVisitor visitor = visitors.get(i);
+                visitor.initialize(models, archetype, flatParent, repository, settings);
+                if(visitor.shouldVisit()) {
+                    visitor.beginValidation();
+                    visiting[i] = true;
+                }
+            } catch (Exception e) {
+                exceptions[i] = e;
+            }
+            durations[i] += System.nanoTime() - start;
+        }
+
+        ArrayDeque<CObject> workList = new ArrayDeque<>();
+        workList.add(archetype.getDefinition());
+        while(!workList.isEmpty()) {
+            CObject cObject = workList.pop();
+            for(int i = 0; i < visitors.size(); i++) {
+                if(visiting[i]) {
+                    long start = System.nanoTime();
+                    try {
+                        visitors.get(i).validate(cObject);
+                    } catch (Exception e) {
+                        stopVisiting(i, e);
+                    }
+                    durations[i] += System.nanoTime() - start;
+                }
+            }
+            for(CAttribute attribute: cObject.getAttributes()) {
+                for(int i = 0; i < visitors.size(); i++) {
+                    if(visiting[i]) {
+                        long start = System.nanoTime();
+                        try {
+                            visitors.get(i).validate(attribute);
+                        } catch (Exception e) {
+                            stopVisiting(i, e);
+                        }
+                        durations[i] += System.nanoTime() - start;
+                    }
+                }
+                workList.addAll(attribute.getChildren());
+            }
+        }
+
+        for(int i = 0; i < visitors.size(); i++) {
+            if(visiting[i]) {
+                long start = System.nanoTime();
+                try {
+                    visitors.get(i).endValidation();
+                } catch (Exception e) {
+                    exceptions[i] = e;
+                }
+                visiting[i] = false;
+                durations[i] += System.nanoTime() - start;
+            }
+        }
+    }
+
+    private void stopVisiting(int index, Exception e) {
+        visiting[index] = false;
+        exceptions[index] = e;
+    }
+
+    /**
+     * @return the messages of the visitor at the given index, if it did not throw an exception
+     */
+    List<ValidationMessage> getMessages(int index) {
+        return visitors.get(index).getMessages();
+    }
+
+    /**
+     * @return the exception thrown by the visitor at the given index, or null if none was thrown
+     */
+    Exception getException(int index) {
+        return exceptions[index];
+    }
+
+    /**
+     * @return the time spent in the visitor at the given index, in nanoseconds, excluding the walk itself
+     */
+    long getDuration(int index) {
+        return durations[index];
+    }
+}
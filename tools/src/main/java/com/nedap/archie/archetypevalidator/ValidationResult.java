@@ -20,6 +20,7 @@ public class ValidationResult {
     private Archetype sourceArchetype;
     private Archetype flattened;
     private List<ValidationResult> overlayValidations;
+    private ValidationTimings timings;
 
     public ValidationResult(String archetypeId){
         this.archetypeId = archetypeId;
@@ -113,7 +114,18 @@ public class ValidationResult {
         return overlayValidations;
     }
 
+    /**
+     * Get the aggregated timings of the validation. Only present if ArchetypeValidator.setCollectTimings(true) was
+     * called before validating
+     * @return the timings, or null if not collected
+     */
+    public ValidationTimings getTimings() {
+        return timings;
+    }
 
+    public void setTimings(ValidationTimings timings) {
+        this.timings = timings;
+    }
 
     public String toString() {
         StringBuilder result = new StringBuilder();
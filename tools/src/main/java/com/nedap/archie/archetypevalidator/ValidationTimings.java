@@ -0,0 +1,96 @@
+package com.nedap.archie.archetypevalidator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Aggregated timings of the validation of a single archetype, in nanoseconds. Attached to the ValidationResult if
+ * ArchetypeValidator.setCollectTimings(true) has been called.
+ */
+public class ValidationTimings implements ArchetypeValidatorListener {
+
+    private final Map<String, Long> validationDurations = new LinkedHashMap<>();
+    private final Map<Integer, Long> phaseDurations = new TreeMap<>();
+    private long flatteningDuration;
+    private long operationalTemplateCreationDuration;
+    private final Map<String, Long> repositoryLookupDurations = new LinkedHashMap<>();
+    private long totalDuration;
+
+    @Override
+    public void validationCompleted(String archetypeId, int phase, ArchetypeValidation validation, long duration) {
+        validationDurations.merge(validation.getClass().getSimpleName(), duration, Long::sum);
+    }
+
+    @Override
+    public void phaseCompleted(String archetypeId, int phase, long duration) {
+        phaseDurations.merge(phase, duration, Long::sum);
+    }
+
+    @Override
+    public void flatteningCompleted(String archetypeId, long duration) {
+        flatteningDuration += duration;
+    }
+
+    @Override
+    public void operationalTemplateCreationCompleted(String archetypeId, long duration) {
+        operationalTemplateCreationDuration += duration;
+    }
+
+    @Override
+    public void repositoryLookupCompleted(String archetypeId, String lookedUpArchetypeId, long duration) {
+        repositoryLookupDurations.merge(lookedUpArchetypeId, duration, Long::sum);
+    }
+
+    @Override
+    public void archetypeValidated(ValidationResult result, long duration) {
+        totalDuration = duration;
+    }
+
+    /**
+     * @return the time it took to run each validation, keyed by the simple class name of the validation, in the order
+     * in which they were run
+     */
+    public Map<String, Long> getValidationDurations() {
+        return validationDurations;
+    }
+
+    /**
+     * @return the time it took to run the validations of each phase that was run, keyed by phase number
+     */
+    public Map<Integer, Long> getPhaseDurations() {
+        return phaseDurations;
+    }
+
+    public long getFlatteningDuration() {
+        return flatteningDuration;
+    }
+
+    public long getOperationalTemplateCreationDuration() {
+        return operationalTemplateCreationDuration;
+    }
+
+    /**
+     * @return the time it took to retrieve the validation results of the parent and template overlays, keyed by their
+     * archetype id. Includes the time it took to validate them, if not yet done
+     */
+    public Map<String, Long> getRepositoryLookupDurations() {
+        return repositoryLookupDurations;
+    }
+
+    /**
+     * @return the total time it took to validate the archetype, including all of the above
+     */
+    public long getTotalDuration() {
+        return totalDuration;
+    }
+
+    public String toString() {
+        return "total: " + totalDuration +
+                ", phases: " + phaseDurations +
+                ", validations: " + validationDurations +
+                ", flattening: " + flatteningDuration +
+                ", operational template creation: " + operationalTemplateCreationDuration +
+                ", repository lookups: " + repositoryLookupDurations;
+    }
+}
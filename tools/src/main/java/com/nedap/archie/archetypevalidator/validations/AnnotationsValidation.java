@@ -6,6 +6,7 @@ import com.nedap.archie.aom.AuthoredArchetype;
 import com.nedap.archie.aom.ResourceAnnotations;
 import com.nedap.archie.aom.utils.AOMUtils;
 import com.nedap.archie.archetypevalidator.ArchetypeValidationBase;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import org.openehr.utils.message.I18n;
 
@@ -17,6 +18,11 @@ public class AnnotationsValidation extends ArchetypeValidationBase {
         super();
     }
 
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
     @Override
     public void validate() {
         if(archetype instanceof AuthoredArchetype) {
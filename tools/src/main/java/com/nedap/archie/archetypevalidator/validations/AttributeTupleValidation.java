@@ -6,6 +6,7 @@ import com.nedap.archie.aom.CComplexObject;
 import com.nedap.archie.aom.CObject;
 import com.nedap.archie.aom.CPrimitiveTuple;
 import com.nedap.archie.aom.utils.AOMUtils;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.archetypevalidator.ValidatingVisitor;
 import org.openehr.utils.message.I18n;
@@ -14,6 +15,16 @@ import java.util.List;
 
 public class AttributeTupleValidation extends ValidatingVisitor {
 
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
+    @Override
+    protected boolean canShareWalk() {
+        return true;
+    }
+
     /**
      * Override for validation on complex objects
      * @param cObject the cobject to validate
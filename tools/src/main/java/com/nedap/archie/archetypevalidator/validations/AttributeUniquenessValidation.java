@@ -2,6 +2,7 @@ package com.nedap.archie.archetypevalidator.validations;
 
 import com.nedap.archie.aom.CAttribute;
 import com.nedap.archie.aom.CComplexObject;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.archetypevalidator.ValidatingVisitor;
 import org.openehr.utils.message.I18n;
@@ -17,6 +18,16 @@ public class AttributeUniquenessValidation extends ValidatingVisitor {
         super();
     }
 
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
+    @Override
+    protected boolean canShareWalk() {
+        return true;
+    }
+
     @Override
     public void validate(CComplexObject cObject) {
         HashSet<String> attributeNames = new HashSet<>();
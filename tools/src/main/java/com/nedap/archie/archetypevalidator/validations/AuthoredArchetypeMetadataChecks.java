@@ -4,6 +4,7 @@ import com.nedap.archie.aom.AuthoredArchetype;
 import com.nedap.archie.aom.ResourceDescriptionItem;
 import com.nedap.archie.aom.TranslationDetails;
 import com.nedap.archie.archetypevalidator.ArchetypeValidationBase;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import org.openehr.utils.message.I18n;
 
@@ -14,6 +15,11 @@ public class AuthoredArchetypeMetadataChecks extends ArchetypeValidationBase {
     public AuthoredArchetypeMetadataChecks() {
         super();
     }
+
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
     @Override
     public void validate() {
         if(archetype instanceof AuthoredArchetype) {
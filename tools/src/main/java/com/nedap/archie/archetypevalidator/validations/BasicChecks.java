@@ -2,6 +2,7 @@ package com.nedap.archie.archetypevalidator.validations;
 
 import com.nedap.archie.aom.Archetype;
 import com.nedap.archie.archetypevalidator.ArchetypeValidationBase;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import org.openehr.utils.message.I18n;
 
@@ -13,6 +14,11 @@ public class BasicChecks extends ArchetypeValidationBase {
         super();
     }
 
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
     @Override
     public void validate() {
         checkRmRootType();
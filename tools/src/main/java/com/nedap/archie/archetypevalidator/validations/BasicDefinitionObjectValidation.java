@@ -3,6 +3,7 @@ package com.nedap.archie.archetypevalidator.validations;
 import com.nedap.archie.aom.CAttribute;
 import com.nedap.archie.aom.CObject;
 import com.nedap.archie.aom.primitives.COrdered;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.archetypevalidator.ValidatingVisitor;
 import com.nedap.archie.base.Interval;
@@ -14,6 +15,16 @@ import org.openehr.utils.message.I18n;
  */
 public class BasicDefinitionObjectValidation extends ValidatingVisitor {
 
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
+    @Override
+    protected boolean canShareWalk() {
+        return true;
+    }
+
     protected void validate(CObject cObject) {
         if(cObject.getOccurrences() != null) {
             validateOccurrences(cObject);
@@ -6,6 +6,7 @@ import com.nedap.archie.aom.terminology.ValueSet;
 import com.nedap.archie.aom.utils.AOMUtils;
 import com.nedap.archie.aom.utils.CodeRedefinitionStatus;
 import com.nedap.archie.archetypevalidator.ArchetypeValidationBase;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.query.AOMPathQuery;
 import org.openehr.utils.message.I18n;
@@ -19,6 +20,11 @@ public class BasicTerminologyValidation extends ArchetypeValidationBase {
         super();
     }
 
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
     @Override
     public void validate() {
 
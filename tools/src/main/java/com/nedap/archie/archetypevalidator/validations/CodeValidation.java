@@ -5,6 +5,7 @@ import com.nedap.archie.aom.CObject;
 import com.nedap.archie.aom.primitives.CTerminologyCode;
 import com.nedap.archie.aom.terminology.ValueSet;
 import com.nedap.archie.aom.utils.AOMUtils;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.archetypevalidator.ValidatingVisitor;
 import org.openehr.utils.message.I18n;
@@ -17,6 +18,16 @@ public class CodeValidation extends ValidatingVisitor {
         super();
     }
 
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
+    @Override
+    protected boolean canShareWalk() {
+        return true;
+    }
+
     @Override
     public void validate(CObject cObject) {
         if(cObject instanceof CTerminologyCode) {
@@ -5,6 +5,7 @@ import com.nedap.archie.aom.CAttribute;
 import com.nedap.archie.aom.CComplexObject;
 import com.nedap.archie.aom.CObject;
 import com.nedap.archie.aom.utils.AOMUtils;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.archetypevalidator.ValidatingVisitor;
 import com.nedap.archie.paths.PathSegment;
@@ -20,6 +21,16 @@ public class DefinitionStructureValidation extends ValidatingVisitor {
         super();
     }
 
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
+    @Override
+    protected boolean canShareWalk() {
+        return true;
+    }
+
     protected void validate(CAttribute cAttribute) {
 
         if (cAttribute.getDifferentialPath() != null) {
@@ -2,6 +2,7 @@ package com.nedap.archie.archetypevalidator.validations;
 
 import com.nedap.archie.aom.CAttribute;
 import com.nedap.archie.aom.CObject;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.archetypevalidator.ValidatingVisitor;
 import com.nedap.archie.base.Cardinality;
@@ -16,6 +17,16 @@ public class MultiplicitiesValidation extends ValidatingVisitor {
         super();
     }
 
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
+    @Override
+    protected boolean canShareWalk() {
+        return true;
+    }
+
     @Override
     public void validate(CAttribute attribute) {
         validateExistence(attribute);
@@ -5,6 +5,7 @@ import com.nedap.archie.aom.AuthoredArchetype;
 import com.nedap.archie.aom.rmoverlay.RmOverlay;
 import com.nedap.archie.aom.utils.AOMUtils;
 import com.nedap.archie.archetypevalidator.ArchetypeValidationBase;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.base.terminology.TerminologyCode;
 import org.openehr.utils.message.I18n;
@@ -15,6 +16,11 @@ public class RmOverlayValidation extends ArchetypeValidationBase {
         super();
     }
 
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
     @Override
     public void validate() {
         if(archetype instanceof AuthoredArchetype) {
@@ -6,6 +6,7 @@ import com.nedap.archie.aom.utils.AOMUtils;
 import com.nedap.archie.aom.utils.ConformanceCheckResult;
 import com.nedap.archie.aom.utils.NodeIdUtil;
 import com.nedap.archie.aom.utils.CodeRedefinitionStatus;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.archetypevalidator.ValidatingVisitor;
 import com.nedap.archie.rules.Assertion;
@@ -24,20 +25,31 @@ public class SpecializedDefinitionValidation extends ValidatingVisitor {
         super();
     }
 
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
+    @Override
+    protected boolean canShareWalk() {
+        return true;
+    }
+
     @Override
     protected void beginValidation() {
         excludedNodeIds.clear();
     }
 
     @Override
-    public void validate() {
+    protected boolean shouldVisit() {
         //only run these if the archetype is specialized and the parent has been found and flattened
         if(archetype.isSpecialized() && flatParent != null) {
-            super.validate();
+            return true;
         } else if (archetype.isSpecialized() && flatParent == null) {
             addMessage(ErrorType.VASID,
                     I18n.t("Parent archetype {0} not found or can not be flattened", archetype.getParentArchetypeId()));
         }
+        return false;
     }
 
     @Override
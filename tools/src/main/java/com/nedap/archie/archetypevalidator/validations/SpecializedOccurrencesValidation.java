@@ -6,6 +6,7 @@ import com.nedap.archie.aom.CObject;
 import com.nedap.archie.aom.utils.AOMUtils;
 import com.nedap.archie.aom.utils.ConformanceCheckResult;
 import com.nedap.archie.aom.utils.NodeIdUtil;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.archetypevalidator.ValidatingVisitor;
 import com.nedap.archie.base.MultiplicityInterval;
@@ -17,11 +18,19 @@ import java.util.stream.Collectors;
 public class SpecializedOccurrencesValidation extends ValidatingVisitor {
 
     @Override
-    public void validate() {
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
+    @Override
+    protected boolean canShareWalk() {
+        return true;
+    }
+
+    @Override
+    protected boolean shouldVisit() {
         //only run these if the archetype is specialized and the parent has been found and flattened
-        if(archetype.isSpecialized() && flatParent != null) {
-            super.validate();
-        }
+        return archetype.isSpecialized() && flatParent != null;
     }
 
     @Override
@@ -8,6 +8,7 @@ import com.nedap.archie.aom.CComplexObjectProxy;
 import com.nedap.archie.aom.CObject;
 import com.nedap.archie.aom.CPrimitiveObject;
 import com.nedap.archie.aom.utils.AOMUtils;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.archetypevalidator.ValidatingVisitor;
 import com.nedap.archie.rminfo.RMAttributeInfo;
@@ -24,6 +25,17 @@ public class ValidateAgainstReferenceModel extends ValidatingVisitor {
     public ValidateAgainstReferenceModel() {
         super();
     }
+
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        //without strict multiplicities validation, existence and cardinality equal to the RM are removed from the archetype
+        return settings.isStrictMultiplicitiesSpecializationValidation();
+    }
+
+    @Override
+    protected boolean canShareWalk() {
+        return true;
+    }
     
     @Override
     protected void validate(CComplexObject cObject) {
@@ -5,6 +5,7 @@ import com.nedap.archie.aom.ArchetypeHRID;
 import com.nedap.archie.aom.ArchetypeSlot;
 import com.nedap.archie.aom.CArchetypeRoot;
 import com.nedap.archie.aom.CComplexObject;
+import com.nedap.archie.archetypevalidator.ArchetypeValidationSettings;
 import com.nedap.archie.archetypevalidator.ErrorType;
 import com.nedap.archie.archetypevalidator.ValidatingVisitor;
 import com.nedap.archie.flattener.ArchetypeRepository;
@@ -19,6 +20,16 @@ public class VariousStructureValidation extends ValidatingVisitor {
     public VariousStructureValidation() {
         super();
     }
+
+    @Override
+    public boolean isIndependent(ArchetypeValidationSettings settings) {
+        return true;
+    }
+
+    @Override
+    protected boolean canShareWalk() {
+        return true;
+    }
     
     protected void beginValidation(Archetype archetype, Archetype flatParent, FullArchetypeRepository repository) {
         this.archetype = archetype;
@@ -0,0 +1,55 @@
+package com.nedap.archie.diff.rm;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The structural difference between two reference model trees, as created by the {@link RMDifferentiator}.
+ * Apply it to a copy of the old tree with the {@link RMDeltaApplier} to obtain the new tree.
+ *
+ * The operations must be applied in order.
+ */
+public class RMDelta {
+
+    private final List<RMDeltaOperation> operations = new ArrayList<>();
+
+    void addOperation(RMDeltaOperation operation) {
+        operations.add(operation);
+    }
+
+    public List<RMDeltaOperation> getOperations() {
+        return Collections.unmodifiableList(operations);
+    }
+
+    public boolean isEmpty() {
+        return operations.isEmpty();
+    }
+
+    public int size() {
+        return operations.size();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RMDelta rmDelta = (RMDelta) o;
+        return Objects.equals(operations, rmDelta.operations);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operations);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for(RMDeltaOperation operation:operations) {
+            result.append(operation).append('\n');
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,159 @@
+package com.nedap.archie.diff.rm;
+
+import com.nedap.archie.paths.PathSegment;
+import com.nedap.archie.query.APathQuery;
+import com.nedap.archie.rminfo.ModelInfoLookup;
+import com.nedap.archie.rminfo.RMAttributeInfo;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Applies an {@link RMDelta} to a reference model tree, modifying it in place. Apply a delta only to the version it was
+ * created from, or to an identical copy of it.
+ *
+ * The values from the delta are copied before they are added to the tree, so a delta can be applied more than once.
+ */
+public class RMDeltaApplier {
+
+    private final ModelInfoLookup lookup;
+
+    public RMDeltaApplier(ModelInfoLookup lookup) {
+        this.lookup = lookup;
+    }
+
+    public void apply(Object root, RMDelta delta) {
+        for(RMDeltaOperation operation:delta.getOperations()) {
+            apply(root, operation);
+        }
+    }
+
+    private void apply(Object root, RMDeltaOperation operation) {
+        List<PathSegment> segments = new APathQuery(operation.getPath()).getPathSegments();
+        if(segments.isEmpty()) {
+            throw new IllegalArgumentException("cannot apply an operation to the root object: " + operation);
+        }
+        Object parent = root;
+        for(int i = 0; i < segments.size() - 1; i++) {
+            parent = getChild(parent, segments.get(i), operation);
+        }
+
+        PathSegment lastSegment = segments.get(segments.size() - 1);
+        RMAttributeInfo attributeInfo = getAttributeInfo(parent, lastSegment.getNodeName(), operation);
+        Object value = getValue(attributeInfo, parent);
+        if(!lastSegment.hasExpressions() || !(value instanceof List)) {
+            if(operation.getType() != RMDeltaOperation.Type.SET) {
+                throw new IllegalArgumentException("operation requires a path to a list element: " + operation);
+            }
+            setValue(attributeInfo, parent, copy(lookup, operation.getValue()), operation);
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<Object> list = (List<Object>) value;
+        switch(operation.getType()) {
+            case SET:
+                list.set(findIndex(list, lastSegment, operation), copy(lookup, operation.getValue()));
+                break;
+            case INSERT:
+                if(!lastSegment.hasNumberIndex() || lastSegment.getIndex() < 1 || lastSegment.getIndex() > list.size() + 1) {
+                    throw new IllegalArgumentException("operation requires a valid index: " + operation);
+                }
+                list.add(lastSegment.getIndex() - 1, copy(lookup, operation.getValue()));
+                break;
+            case REMOVE:
+                list.remove(findIndex(list, lastSegment, operation));
+                break;
+        }
+        //setting the list again makes the parent the parent of the new elements
+        if(attributeInfo.getSetMethod() != null) {
+            setValue(attributeInfo, parent, list, operation);
+        }
+    }
+
+    private Object getChild(Object parent, PathSegment segment, RMDeltaOperation operation) {
+        RMAttributeInfo attributeInfo = getAttributeInfo(parent, segment.getNodeName(), operation);
+        Object child = getValue(attributeInfo, parent);
+        if(child instanceof List && segment.hasExpressions()) {
+            List<?> list = (List<?>) child;
+            return list.get(findIndex(list, segment, operation));
+        }
+        if(child == null || (segment.getNodeId() != null && !segment.getNodeId().equals(lookup.getArchetypeNodeIdFromRMObject(child)))) {
+            throw new IllegalArgumentException("path does not exist in the given object: " + operation);
+        }
+        return child;
+    }
+
+    /**
+     * Find the zero-based index of the list element the segment refers to, in the same way as the RMPathQuery: by its
+     * one-based index in the list if present, otherwise by the first element with its node id.
+     */
+    private int findIndex(List<?> list, PathSegment segment, RMDeltaOperation operation) {
+        if(segment.hasNumberIndex()) {
+            int index = segment.getIndex() - 1;
+            if(index < 0 || index >= list.size() ||
+                    (segment.getNodeId() != null && !segment.getNodeId().equals(lookup.getArchetypeNodeIdFromRMObject(list.get(index))))) {
+                throw new IllegalArgumentException("path does not exist in the given object: " + operation);
+            }
+            return index;
+        }
+        for(int i = 0; i < list.size(); i++) {
+            if(segment.getNodeId().equals(lookup.getArchetypeNodeIdFromRMObject(list.get(i)))) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("path does not exist in the given object: " + operation);
+    }
+
+    private RMAttributeInfo getAttributeInfo(Object parent, String attributeName, RMDeltaOperation operation) {
+        RMAttributeInfo attributeInfo = lookup.getAttributeInfo(parent.getClass(), attributeName);
+        if(attributeInfo == null || attributeInfo.getGetMethod() == null) {
+            throw new IllegalArgumentException("attribute " + attributeName + " not found in " + parent.getClass().getSimpleName() + " for " + operation);
+        }
+        return attributeInfo;
+    }
+
+    private static Object getValue(RMAttributeInfo attributeInfo, Object object) {
+        try {
+            return attributeInfo.getGetMethod().invoke(object);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static void setValue(RMAttributeInfo attributeInfo, Object object, Object value, RMDeltaOperation operation) {
+        if(attributeInfo.getSetMethod() == null) {
+            throw new IllegalArgumentException("attribute " + attributeInfo.getRmName() + " cannot be set for " + operation);
+        }
+        try {
+            attributeInfo.getSetMethod().invoke(object, value);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Deeply copies a value that can be stored in a delta. Reference model objects are cloned with the ModelInfoLookup,
+     * lists are copied element by element. Other values, and model objects the lookup cannot clone, are treated as immutable.
+     */
+    static Object copy(ModelInfoLookup lookup, Object value) {
+        if(value == null) {
+            return null;
+        } else if (value instanceof List) {
+            List<?> list = (List<?>) value;
+            List<Object> result = new ArrayList<>(list.size());
+            for(Object element:list) {
+                result.add(copy(lookup, element));
+            }
+            return result;
+        } else if (lookup.getTypeInfo(value.getClass()) != null) {
+            try {
+                return lookup.clone(value);
+            } catch (IllegalArgumentException e) {
+                return value;
+            }
+        }
+        return value;
+    }
+}
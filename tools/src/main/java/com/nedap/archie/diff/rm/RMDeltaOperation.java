@@ -0,0 +1,75 @@
+package com.nedap.archie.diff.rm;
+
+import java.util.Objects;
+
+/**
+ * A single operation in an {@link RMDelta}.
+ *
+ * The path is an archetype path such as /content[id2]/data[id3]/events[id4,2]/data[id5], as also used by the
+ * RMPathQuery. List elements are addressed by their archetype node id. A one-based index is added if the node id
+ * is not unique in the list, or if the element does not have a node id. As with the RMPathQuery, the index is the
+ * position in the entire list.
+ * <ul>
+ *     <li>a REMOVE path refers to the element in the old version</li>
+ *     <li>an INSERT path refers to the element in the new version, and always contains the index</li>
+ *     <li>a SET path refers to the value in the new version</li>
+ * </ul>
+ * The delta contains all removals first, then all insertions and then the other changes, so every path is also
+ * valid at the moment the operation is applied.
+ */
+public class RMDeltaOperation {
+
+    public enum Type {
+        /** Replace the value of the attribute or list element at the path */
+        SET,
+        /** Insert the value in the list at the path, at the index of the last path segment */
+        INSERT,
+        /** Remove the element at the path from the list */
+        REMOVE
+    }
+
+    private final Type type;
+    private final String path;
+    private final Object value;
+
+    public RMDeltaOperation(Type type, String path, Object value) {
+        this.type = type;
+        this.path = path;
+        this.value = value;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the new value for SET and INSERT operations, null for REMOVE operations
+     */
+    public Object getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        RMDeltaOperation that = (RMDeltaOperation) o;
+        return type == that.type &&
+                Objects.equals(path, that.path) &&
+                Objects.equals(value, that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(type, path, value);
+    }
+
+    @Override
+    public String toString() {
+        return type + " " + path + (type == Type.REMOVE ? "" : " " + value);
+    }
+}
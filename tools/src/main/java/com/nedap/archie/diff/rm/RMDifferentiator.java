@@ -0,0 +1,273 @@
+package com.nedap.archie.diff.rm;
+
+import com.nedap.archie.definitions.AdlCodeDefinitions;
+import com.nedap.archie.paths.PathSegment;
+import com.nedap.archie.paths.PathUtil;
+import com.nedap.archie.rminfo.ModelInfoLookup;
+import com.nedap.archie.rminfo.RMAttributeInfo;
+import com.nedap.archie.rminfo.RMTypeInfo;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Calculates the structural difference between two versions of a reference model tree, for example two versions
+ * of a Composition, as an {@link RMDelta} that can be applied to the old version to reconstruct the new version.
+ *
+ * The trees are walked using the given ModelInfoLookup. Elements of lists are matched using a longest common
+ * subsequence on their archetype node ids, or on equality for objects without an archetype node id. Matched
+ * elements are compared recursively, the others are removed or inserted. Only the changed leaves end up in the delta,
+ * so the delta of two versions that differ in a few values is small, regardless of the size of the tree.
+ * An object in a single valued attribute of which the archetype node id changed is replaced as a whole.
+ *
+ * The operations are addressed by archetype paths, see {@link RMDeltaOperation} for which version of the tree they
+ * refer to.
+ *
+ * Computed attributes and attributes without a getter are not compared.
+ */
+public class RMDifferentiator {
+
+    private final ModelInfoLookup lookup;
+
+    public RMDifferentiator(ModelInfoLookup lookup) {
+        this.lookup = lookup;
+    }
+
+    /**
+     * Calculate the delta between the old and the new version. Both must be non-null and of the same class.
+     * The values in the delta are copies, so the delta does not change when the new version is modified later.
+     */
+    public RMDelta diff(Object oldVersion, Object newVersion) {
+        if(oldVersion == null || newVersion == null) {
+            throw new IllegalArgumentException("Inputs must not be null");
+        }
+        if(oldVersion.getClass() != newVersion.getClass()) {
+            throw new IllegalArgumentException("cannot diff objects of different classes: " + oldVersion.getClass() + " and " + newVersion.getClass());
+        }
+        Operations operations = new Operations();
+        diffObject("", "", oldVersion, newVersion, operations);
+
+        //removals in reverse document order, so every path is still valid in the old version when it is applied
+        RMDelta delta = new RMDelta();
+        for(int i = operations.removals.size() - 1; i >= 0; i--) {
+            delta.addOperation(operations.removals.get(i));
+        }
+        operations.insertions.forEach(delta::addOperation);
+        operations.replacements.forEach(delta::addOperation);
+        return delta;
+    }
+
+    private void diffValue(String oldPath, String newPath, Object oldValue, Object newValue, Operations operations) {
+        if(oldValue == newValue) {
+            return;
+        }
+        if(oldValue == null || newValue == null || oldValue.getClass() != newValue.getClass()) {
+            operations.replacements.add(new RMDeltaOperation(RMDeltaOperation.Type.SET, newPath, RMDeltaApplier.copy(lookup, newValue)));
+        } else if (oldValue instanceof List) {
+            diffList(oldPath, newPath, (List<?>) oldValue, (List<?>) newValue, operations);
+        } else if (lookup.getTypeInfo(oldValue.getClass()) != null) {
+            diffObject(oldPath, newPath, oldValue, newValue, operations);
+        } else if (!oldValue.equals(newValue)) {
+            operations.replacements.add(new RMDeltaOperation(RMDeltaOperation.Type.SET, newPath, RMDeltaApplier.copy(lookup, newValue)));
+        }
+    }
+
+    private void diffObject(String oldPath, String newPath, Object oldObject, Object newObject, Operations operations) {
+        RMTypeInfo typeInfo = lookup.getTypeInfo(oldObject.getClass());
+        if(typeInfo == null) {
+            if(!oldObject.equals(newObject)) {
+                throw new IllegalArgumentException("cannot diff objects of a class unknown to the model: " + oldObject.getClass());
+            }
+            return;
+        }
+        for(RMAttributeInfo attributeInfo:typeInfo.getAttributes().values()) {
+            if(attributeInfo.isComputed() || attributeInfo.getGetMethod() == null) {
+                continue;
+            }
+            String attributeName = attributeInfo.getRmName();
+            Object oldValue = getValue(attributeInfo, oldObject);
+            Object newValue = getValue(attributeInfo, newObject);
+            if(oldValue instanceof List || newValue instanceof List) {
+                diffValue(oldPath + segment(attributeName, null, null), newPath + segment(attributeName, null, null),
+                        oldValue, newValue, operations);
+                continue;
+            }
+            String oldNodeId = getNodeId(oldValue);
+            String newNodeId = getNodeId(newValue);
+            if(oldValue != null && newValue != null && !Objects.equals(oldNodeId, newNodeId)) {
+                //a different archetype node, so the paths of its contents cannot be expressed in both versions
+                operations.replacements.add(new RMDeltaOperation(RMDeltaOperation.Type.SET,
+                        newPath + segment(attributeName, newNodeId, null), RMDeltaApplier.copy(lookup, newValue)));
+                continue;
+            }
+            diffValue(oldPath + segment(attributeName, oldNodeId, null), newPath + segment(attributeName, newNodeId, null),
+                    oldValue, newValue, operations);
+        }
+    }
+
+    private void diffList(String oldPath, String newPath, List<?> oldList, List<?> newList, Operations operations) {
+        List<Object> oldKeys = getKeys(oldList);
+        List<Object> newKeys = getKeys(newList);
+        List<int[]> matches = match(oldKeys, newKeys);
+        Map<String, Integer> oldNodeIdCounts = countNodeIds(oldList);
+        Map<String, Integer> newNodeIdCounts = countNodeIds(newList);
+
+        int i = 0, j = 0;
+        for(int[] match:matches) {
+            for(; i < match[0]; i++) {
+                removal(oldPath, oldList, i, oldNodeIdCounts, operations);
+            }
+            for(; j < match[1]; j++) {
+                insertion(newPath, newList, j, operations);
+            }
+            diffValue(oldPath + elementPredicate(oldList, i, oldNodeIdCounts),
+                    newPath + elementPredicate(newList, j, newNodeIdCounts),
+                    oldList.get(i), newList.get(j), operations);
+            i++;
+            j++;
+        }
+        for(; i < oldList.size(); i++) {
+            removal(oldPath, oldList, i, oldNodeIdCounts, operations);
+        }
+        for(; j < newList.size(); j++) {
+            insertion(newPath, newList, j, operations);
+        }
+    }
+
+    private void removal(String path, List<?> list, int index, Map<String, Integer> nodeIdCounts, Operations operations) {
+        operations.removals.add(new RMDeltaOperation(RMDeltaOperation.Type.REMOVE, path + elementPredicate(list, index, nodeIdCounts), null));
+    }
+
+    private void insertion(String path, List<?> list, int index, Operations operations) {
+        //an insertion always has an index, to indicate where the element is to be inserted
+        Object element = list.get(index);
+        operations.insertions.add(new RMDeltaOperation(RMDeltaOperation.Type.INSERT,
+                path + predicate(getNodeId(element), index + 1), RMDeltaApplier.copy(lookup, element)));
+    }
+
+    /**
+     * The predicate of the element at the given index in the list: its node id, with the one-based index only if it
+     * does not have a node id or if the node id is not unique in the list.
+     */
+    private String elementPredicate(List<?> list, int index, Map<String, Integer> nodeIdCounts) {
+        String nodeId = getNodeId(list.get(index));
+        if(nodeId != null && nodeIdCounts.get(nodeId) == 1) {
+            return predicate(nodeId, null);
+        }
+        return predicate(nodeId, index + 1);
+    }
+
+    private Map<String, Integer> countNodeIds(List<?> list) {
+        Map<String, Integer> result = new HashMap<>();
+        for(Object element:list) {
+            String nodeId = getNodeId(element);
+            if(nodeId != null) {
+                result.merge(nodeId, 1, Integer::sum);
+            }
+        }
+        return result;
+    }
+
+    private String getNodeId(Object object) {
+        if(object == null) {
+            return null;
+        }
+        String nodeId = lookup.getArchetypeNodeIdFromRMObject(object);
+        return nodeId == null || nodeId.equals(AdlCodeDefinitions.PRIMITIVE_NODE_ID) ? null : nodeId;
+    }
+
+    private static String segment(String attributeName, String nodeId, Integer index) {
+        return PathUtil.getPath(Collections.singletonList(new PathSegment(attributeName, nodeId, index)));
+    }
+
+    /**
+     * The predicate part of a path segment, such as [id2] or [id2,3]
+     */
+    private static String predicate(String nodeId, Integer index) {
+        return segment("", nodeId, index).substring(1);
+    }
+
+    /**
+     * Returns the pairs of indices of the longest common subsequence of the two lists of keys. The common prefix and
+     * suffix are matched directly, because in consecutive versions most lists are unchanged or only changed in a few places.
+     */
+    private List<int[]> match(List<Object> oldKeys, List<Object> newKeys) {
+        int oldSize = oldKeys.size();
+        int newSize = newKeys.size();
+        List<int[]> result = new ArrayList<>(Math.min(oldSize, newSize));
+
+        int prefix = 0;
+        while(prefix < oldSize && prefix < newSize && Objects.equals(oldKeys.get(prefix), newKeys.get(prefix))) {
+            result.add(new int[] {prefix, prefix});
+            prefix++;
+        }
+        int suffix = 0;
+        while(suffix < oldSize - prefix && suffix < newSize - prefix &&
+                Objects.equals(oldKeys.get(oldSize - 1 - suffix), newKeys.get(newSize - 1 - suffix))) {
+            suffix++;
+        }
+
+        int oldEnd = oldSize - suffix;
+        int newEnd = newSize - suffix;
+        if(prefix < oldEnd && prefix < newEnd) {
+            //lengths[i][j] is the length of the longest common subsequence of the remainders starting at prefix + i and prefix + j
+            int rows = oldEnd - prefix;
+            int columns = newEnd - prefix;
+            int[][] lengths = new int[rows + 1][columns + 1];
+            for(int i = rows - 1; i >= 0; i--) {
+                for(int j = columns - 1; j >= 0; j--) {
+                    if(Objects.equals(oldKeys.get(prefix + i), newKeys.get(prefix + j))) {
+                        lengths[i][j] = lengths[i + 1][j + 1] + 1;
+                    } else {
+                        lengths[i][j] = Math.max(lengths[i + 1][j], lengths[i][j + 1]);
+                    }
+                }
+            }
+            int i = 0, j = 0;
+            while(i < rows && j < columns) {
+                if(Objects.equals(oldKeys.get(prefix + i), newKeys.get(prefix + j))) {
+                    result.add(new int[] {prefix + i, prefix + j});
+                    i++;
+                    j++;
+                } else if (lengths[i + 1][j] >= lengths[i][j + 1]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+        }
+
+        for(int s = suffix; s > 0; s--) {
+            result.add(new int[] {oldSize - s, newSize - s});
+        }
+        return result;
+    }
+
+    private List<Object> getKeys(List<?> list) {
+        List<Object> result = new ArrayList<>(list.size());
+        for(Object element:list) {
+            String nodeId = lookup.getArchetypeNodeIdFromRMObject(element);
+            result.add(nodeId == null ? element : nodeId);
+        }
+        return result;
+    }
+
+    private static Object getValue(RMAttributeInfo attributeInfo, Object object) {
+        try {
+            return attributeInfo.getGetMethod().invoke(object);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static class Operations {
+        private final List<RMDeltaOperation> removals = new ArrayList<>();
+        private final List<RMDeltaOperation> insertions = new ArrayList<>();
+        private final List<RMDeltaOperation> replacements = new ArrayList<>();
+    }
+}
@@ -19,6 +19,14 @@ public interface ArchetypeRepository {
 
     List<Archetype> getAllArchetypes();
 
+    /**
+     * Get the cache of flattened parents the Flattener uses when flattening with this repository
+     * @return the cache, or null if flattened parents should not be cached
+     */
+    default FlattenedParentCache getFlattenedParentCache() {
+        return null;
+    }
+
     /**
      * Return true if an only if the child archetype has parent as its parent somewhere in the tree
      * @param parent
@@ -0,0 +1,167 @@
+package com.nedap.archie.flattener;
+
+import com.nedap.archie.aom.Archetype;
+import com.nedap.archie.aom.ArchetypeHRID;
+import com.nedap.archie.aom.Template;
+import com.nedap.archie.aom.TemplateOverlay;
+import com.nedap.archie.aom.profile.AomProfile;
+import com.nedap.archie.rminfo.MetaModels;
+import com.nedap.archie.rminfo.ModelInfoLookup;
+import org.openehr.bmm.core.BmmModel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Cache of flattened parent archetypes, shared by all Flatteners that flatten with the same repository. Without it,
+ * every flattening of a specialized archetype flattens its entire chain of parents again.
+ * <p>
+ * Entries are keyed by the archetype id of the parent, the FlattenerConfiguration and the reference model selected
+ * for the parent, so Flatteners created with different MetaModels instances for the same reference models share entries.
+ * Every entry also stores the unflattened archetypes of the specialization chain it was flattened from. An entry is
+ * only used if the repository still returns exactly those archetype instances, so adding a new version of any archetype
+ * in the chain, or overriding one, never results in an outdated flattened parent. Modifying an archetype in place that
+ * is still in the repository is not detected, just as for the flattened archetypes stored in a FullArchetypeRepository.
+ * <p>
+ * Templates and template overlays are never cached, because flattening them depends on archetypes outside of their
+ * specialization chain.
+ * <p>
+ * The cached archetypes are shared between Flatteners, which only read them. Thread-safe.
+ */
+public class FlattenedParentCache {
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Return the flattened form of the given parent, from the cache if present and up to date, otherwise flattened
+     * with the given flattener and then cached.
+     *
+     * @param parent the unflattened parent archetype, as retrieved from the repository
+     * @param parentFlattener a new flattener for the parent
+     * @param repository the repository the parent was retrieved from
+     * @return the flattened parent. Must not be modified
+     */
+    Archetype getFlattenedParent(Archetype parent, Flattener parentFlattener, ArchetypeRepository repository) {
+        if(parent instanceof Template || parent instanceof TemplateOverlay) {
+            return parentFlattener.flatten(parent);
+        }
+        //resolve the chain before flattening, so a change during flattening results in an outdated entry
+        List<Archetype> specializationChain = getSpecializationChain(parent, repository);
+        String archetypeId = parent.getArchetypeId().getFullId();
+        MetaModels metaModels = parentFlattener.getMetaModels();
+        metaModels.selectModel(parent);
+        Entry entry = entries.get(new Key(archetypeId, parentFlattener.getConfig(), metaModels));
+        if(entry != null && entry.isFlattenedFrom(specializationChain)) {
+            return entry.flattened;
+        }
+        //no computeIfAbsent here: flattening the parent flattens the parents of the parent through this cache
+        Archetype flattened = parentFlattener.flatten(parent);
+        entries.put(new Key(archetypeId, parentFlattener.getConfig().clone(), metaModels), new Entry(specializationChain, flattened));
+        return flattened;
+    }
+
+    /**
+     * Remove all entries that have been flattened from any version of the given archetype
+     * @param archetypeId the archetype id
+     */
+    public void invalidate(String archetypeId) {
+        String idUpToConcept = new ArchetypeHRID(archetypeId).getIdUpToConcept();
+        entries.values().removeIf(entry -> entry.isFlattenedFrom(idUpToConcept));
+    }
+
+    /**
+     * Remove all entries
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * @return the amount of cached flattened parents
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static List<Archetype> getSpecializationChain(Archetype archetype, ArchetypeRepository repository) {
+        List<Archetype> result = new ArrayList<>();
+        Archetype current = archetype;
+        while(current != null && !result.contains(current)) {
+            result.add(current);
+            current = current.getParentArchetypeId() == null ? null : repository.getArchetype(current.getParentArchetypeId());
+        }
+        return result;
+    }
+
+    private static class Key {
+        private final String archetypeId;
+        private final FlattenerConfiguration configuration;
+        private final ModelInfoLookup modelInfoLookup;
+        private final BmmModel bmmModel;
+        private final AomProfile aomProfile;
+
+        /**
+         * @param metaModels the meta models, with the model of the archetype selected
+         */
+        Key(String archetypeId, FlattenerConfiguration configuration, MetaModels metaModels) {
+            this.archetypeId = archetypeId;
+            this.configuration = configuration;
+            this.modelInfoLookup = metaModels.getSelectedModelInfoLookup();
+            this.bmmModel = metaModels.getSelectedBmmModel();
+            this.aomProfile = metaModels.getSelectedAomProfile();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return archetypeId.equals(key.archetypeId) &&
+                    configuration.equals(key.configuration) &&
+                    modelInfoLookup == key.modelInfoLookup &&
+                    bmmModel == key.bmmModel &&
+                    aomProfile == key.aomProfile;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(archetypeId, configuration, System.identityHashCode(modelInfoLookup),
+                    System.identityHashCode(bmmModel), System.identityHashCode(aomProfile));
+        }
+    }
+
+    private static class Entry {
+        private final List<Archetype> specializationChain;
+        private final Archetype flattened;
+
+        Entry(List<Archetype> specializationChain, Archetype flattened) {
+            this.specializationChain = Collections.unmodifiableList(specializationChain);
+            this.flattened = flattened;
+        }
+
+        boolean isFlattenedFrom(List<Archetype> specializationChain) {
+            if(this.specializationChain.size() != specializationChain.size()) {
+                return false;
+            }
+            for(int i = 0; i < specializationChain.size(); i++) {
+                if(this.specializationChain.get(i) != specializationChain.get(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean isFlattenedFrom(String idUpToConcept) {
+            for(Archetype archetype:specializationChain) {
+                if(archetype.getArchetypeId().getIdUpToConcept().equals(idUpToConcept)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
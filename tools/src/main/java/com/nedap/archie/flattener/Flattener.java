@@ -147,7 +147,12 @@ public class Flattener implements IAttributeFlattenerSupport {
         if(parent.getParentArchetypeId() != null) {
             //parent needs flattening first
             Flattener parentFlattener = getNewFlattenerForParent();
-            parent = parentFlattener.flatten(parent);
+            FlattenedParentCache cache = repository.getFlattenedParentCache();
+            if(cache == null) {
+                parent = parentFlattener.flatten(parent);
+            } else {
+                parent = cache.getFlattenedParent(parent, parentFlattener, repository);
+            }
             // Add the template overlays from the parents (if any) to the repository,
             // so template overlays specializing other template overlays can be flattened.
             parentFlattener.getRepository().getExtraArchetypes().forEach(
@@ -3,6 +3,9 @@ package com.nedap.archie.flattener;
 import com.esotericsoftware.kryo.kryo5.Kryo;
 import com.nedap.archie.util.KryoUtil;
 
+import java.util.Arrays;
+import java.util.Objects;
+
 public class FlattenerConfiguration {
 
     /**
@@ -193,4 +196,32 @@ public class FlattenerConfiguration {
     public void setAllowSpecializationAfterExclusion(boolean allowSpecializationAfterExclusion) {
         this.allowSpecializationAfterExclusion = allowSpecializationAfterExclusion;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        FlattenerConfiguration that = (FlattenerConfiguration) o;
+        return createOperationalTemplate == that.createOperationalTemplate &&
+                useComplexObjectForArchetypeSlotReplacement == that.useComplexObjectForArchetypeSlotReplacement &&
+                removeZeroOccurrencesObjects == that.removeZeroOccurrencesObjects &&
+                removeZeroOccurrencesInParents == that.removeZeroOccurrencesInParents &&
+                removeLanguagesFromMetaData == that.removeLanguagesFromMetaData &&
+                Arrays.equals(languagesToKeep, that.languagesToKeep) &&
+                replaceUseNode == that.replaceUseNode &&
+                fillArchetypeRoots == that.fillArchetypeRoots &&
+                closeArchetypeSlots == that.closeArchetypeSlots &&
+                fillEmptyOccurrences == that.fillEmptyOccurrences &&
+                failOnMissingUsedArchetype == that.failOnMissingUsedArchetype &&
+                allowSpecializationAfterExclusion == that.allowSpecializationAfterExclusion;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = Objects.hash(createOperationalTemplate, useComplexObjectForArchetypeSlotReplacement, removeZeroOccurrencesObjects,
+                removeZeroOccurrencesInParents, removeLanguagesFromMetaData, replaceUseNode, fillArchetypeRoots,
+                closeArchetypeSlots, fillEmptyOccurrences, failOnMissingUsedArchetype, allowSpecializationAfterExclusion);
+        result = 31 * result + Arrays.hashCode(languagesToKeep);
+        return result;
+    }
 }
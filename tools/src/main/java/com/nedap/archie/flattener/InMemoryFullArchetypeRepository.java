@@ -16,6 +16,13 @@ public class InMemoryFullArchetypeRepository extends SimpleArchetypeRepository i
     private ArchetypeHRIDMap<Archetype> flattenedArchetypes = new ArchetypeHRIDMap<>();
     private ArchetypeHRIDMap<OperationalTemplate> operationalTemplates = new ArchetypeHRIDMap<>();
     private ArchetypeValidationSettings archetypeValidationSettings;
+    private final FlattenedParentCache flattenedParentCache = new FlattenedParentCache();
+
+    @Override
+    public void addArchetype(Archetype archetype) {
+        super.addArchetype(archetype);
+        flattenedParentCache.invalidate(archetype.getArchetypeId().toString());
+    }
 
     @Override
     public Archetype getFlattenedArchetype(String archetypeId) {
@@ -83,6 +90,12 @@ public class InMemoryFullArchetypeRepository extends SimpleArchetypeRepository i
         this.flattenedArchetypes.remove(archetypeId);
         this.operationalTemplates.remove(archetypeId);
         this.validationResult.remove(archetypeId);
+        this.flattenedParentCache.invalidate(archetypeId);
+    }
+
+    @Override
+    public FlattenedParentCache getFlattenedParentCache() {
+        return flattenedParentCache;
     }
 
 }
@@ -40,6 +40,11 @@ public class OverridingArchetypeRepository implements ArchetypeRepository {
         return new ArrayList<>(result.values());
     }
 
+    @Override
+    public FlattenedParentCache getFlattenedParentCache() {
+        return root.getFlattenedParentCache();
+    }
+
     public List<Archetype> getExtraArchetypes() {
         return overrides.getAllArchetypes();
     }
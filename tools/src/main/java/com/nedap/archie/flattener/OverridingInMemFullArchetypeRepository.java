@@ -129,6 +129,11 @@ public class OverridingInMemFullArchetypeRepository implements FullArchetypeRepo
     }
 
 
+    @Override
+    public FlattenedParentCache getFlattenedParentCache() {
+        return originalRepository.getFlattenedParentCache();
+    }
+
     public void addExtraArchetype(Archetype override) {
         this.extraArchetypes.addArchetype(override);
     }
@@ -10,16 +10,18 @@ import org.leadpony.justify.api.ProblemHandler;
 import org.openehr.bmm.core.BmmModel;
 
 import jakarta.json.JsonObject;
-import jakarta.json.JsonReader;
-import jakarta.json.JsonStructure;
+import jakarta.json.stream.JsonParser;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 
 /**
@@ -30,13 +32,19 @@ import java.util.Map;
  * </p>
  *
  * Note that currently the root JSON element must have a '_type' property for the schema validator to know which type to validate
+ *
+ * Creating a validator is expensive, since it generates the full JSON Schema. A validator is thread-safe, so create it
+ * once and share it, or use {@link #getValidator(BmmModel, boolean)} to obtain a cached one per BmmModel.
  */
 public class JsonSchemaValidator {
 
+    /** cached validators per model, with the validator allowing additional properties at index 1 */
+    private static final Map<BmmModel, JsonSchemaValidator[]> validatorsByModel = Collections.synchronizedMap(new WeakHashMap<>());
+
     /** The generated json schema files, in memory */
     private final Map<String, JsonObject> schemaFiles;
     /** a cache of earlier resolved schemas, to not cause too many performance problems */
-    private final Map<String, JsonSchema> resolvedSchemas = new LinkedHashMap<>();
+    private final Map<String, JsonSchema> resolvedSchemas = new ConcurrentHashMap<>();
     /** the single resolved schema */
     JsonSchema schema;
 
@@ -82,6 +90,26 @@ public class JsonSchemaValidator {
     }
 
 
+    /**
+     * Get a JsonSchemaValidator for the given Bmm Model. It is created once per model and cached. Because creating
+     * the validator is expensive and validation is thread-safe, this is the recommended way to validate many documents.
+     * The cache does not keep the BmmModel from being garbage collected.
+     *
+     * @param bmmModel the model to create the JSON Schema for
+     * @param allowAdditionalProperties whether to allow additional properties in the JSON
+     * @return the shared validator
+     */
+    public static JsonSchemaValidator getValidator(BmmModel bmmModel, boolean allowAdditionalProperties) {
+        int index = allowAdditionalProperties ? 1 : 0;
+        JsonSchemaValidator[] validators = validatorsByModel.computeIfAbsent(bmmModel, model -> new JsonSchemaValidator[2]);
+        synchronized (validators) {
+            if(validators[index] == null) {
+                validators[index] = new JsonSchemaValidator(bmmModel, allowAdditionalProperties);
+            }
+            return validators[index];
+        }
+    }
+
     /**
      * Resolves the referenced JSON schema.
      *
@@ -120,22 +148,31 @@ public class JsonSchemaValidator {
      * Validate the given json against the schema
      * @param json the json
      * @return the list of problems found during validation, or an empty list if the json validated
-     * @throws IOException
+     * @throws IOException in case the json cannot be parsed
      */
     public List<Problem> validate(String json) throws IOException {
+        return validate(createByteArrayInputStream(json));
+    }
+
+    /**
+     * Validate the json from the given input stream against the schema. The json is validated while it is being
+     * parsed, without building the parsed json in memory, so this works for large documents as well.
+     * The input stream is not closed.
+     * @param json the input stream to read the json from, in UTF-8, UTF-16 or UTF-32
+     * @return the list of problems found during validation, or an empty list if the json validated
+     * @throws IOException in case the json cannot be parsed
+     */
+    public List<Problem> validate(InputStream json) throws IOException {
 
         List<Problem> allProblems = new ArrayList<>();
-        ProblemHandler problemHandler = new ProblemHandler() {
-            @Override
-            public void handleProblems(List<Problem> problems) {
-                allProblems.addAll(problems);
-            }
-        };
+        ProblemHandler problemHandler = allProblems::addAll;
 
-        try (JsonReader reader = service.createReader(createByteArrayInputStream(json), schema, problemHandler)) {
-            JsonStructure structure = reader.read();
-            return allProblems;
+        //closing the parser would also close the input stream, so it is not closed here
+        JsonParser parser = service.createParser(json, schema, problemHandler);
+        while (parser.hasNext()) {
+            parser.next();
         }
+        return allProblems;
     }
 
 }
@@ -1,5 +1,6 @@
 package com.nedap.archie.json.flat;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.nedap.archie.ArchieLanguageConfiguration;
 import com.nedap.archie.aom.Archetype;
 import com.nedap.archie.aom.CAttribute;
@@ -12,17 +13,26 @@ import com.nedap.archie.rminfo.ModelInfoLookup;
 import com.nedap.archie.rminfo.RMAttributeInfo;
 import com.nedap.archie.rminfo.RMTypeInfo;
 
+import java.io.IOException;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAccessor;
 import java.time.temporal.TemporalAmount;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
@@ -32,7 +42,14 @@ import java.util.stream.Collectors;
  * Configurable to support several formats used by several vendors for the same concept
  *
  * This generator generates a Map&lt;String, Object&gt;, which can be serializes using the ObjectMapper in JacksonUtil.getObjectMapper()
- * or any other object mapper
+ * or any other object mapper. Alternatively, the paths and values can be streamed to a {@link JsonGenerator} or a
+ * {@link FlatJsonValueConsumer} while the RM Object is walked, without building the full map in memory first.
+ *
+ * Everything that only depends on the operational template, the RM types and this configuration is precomputed once
+ * per template and cached in this generator: the attributes to write, the constraints of the attributes, the archetype
+ * names to filter and whether type names must be written. Reuse the generator to benefit from this. The cache assumes
+ * an operational template is not modified after it has been used to generate flat json. A different template with the
+ * same template id replaces the cached layout.
  */
 public class FlatJsonGenerator {
 
@@ -49,6 +66,8 @@ public class FlatJsonGenerator {
     private boolean filterTypes;
     private IgnoredAttribute nameProperty;
 
+    private final Map<RMTypeInfo, ObjectLayout> untemplatedLayouts = new ConcurrentHashMap<>();
+    private final Map<String, TemplateLayout> templateLayouts = new ConcurrentHashMap<>();
 
     /**
      * Construct the FlatJsonGenerator
@@ -96,9 +115,14 @@ public class FlatJsonGenerator {
     }
 
     public Map<String, Object> buildPathsAndValues(OpenEHRBase rmObject, OperationalTemplate archetype) throws DuplicateKeyException {
-        Map<String, Object> result = new LinkedHashMap<>();
+        MapPathValueWriter writer = new MapPathValueWriter();
         CObject definition = archetype == null ? null : archetype.getDefinition();
-        buildPathsAndValuesInner(result, null, "/", rmObject, definition, false);
+        try {
+            buildPathsAndValuesInner(writer, getTemplateLayout(archetype), null, "/", rmObject, definition, false);
+        } catch (IOException e) {
+            throw new RuntimeException(e);//cannot happen when writing to a map
+        }
+        Map<String, Object> result = writer.getResult();
 
         if(humanReadableFormat) {
             String rootName = modelInfoLookup.getNameFromRMObject(rmObject);
@@ -111,36 +135,113 @@ public class FlatJsonGenerator {
         return result;
     }
 
-    private void buildPathsAndValuesInner(Map<String, Object> result, RMTypeInfo rmAttributeTypeInfo, String pathSoFar, OpenEHRBase rmObject, CObject cObject, boolean typeAlternativesPresent) throws DuplicateKeyException {
+    /**
+     * Write the flat json format for the given RM Object as a single JSON object to the given JsonGenerator, without
+     * first building the full map of paths and values. The generator should have an ObjectCodec that can serialize
+     * durations, such as a generator created with the ObjectMapper from JacksonUtil.getObjectMapper()
+     * @param rmObject the RM Object to write the flat json format for
+     * @param archetype the operational template the RM Object conforms to. Can be null
+     * @param generator the JsonGenerator to write to
+     * @throws DuplicateKeyException in case converting this to flat json would result in having the two exact paths at once.
+     * @throws IOException in case writing to the generator fails
+     */
+    public void writePathsAndValues(OpenEHRBase rmObject, OperationalTemplate archetype, JsonGenerator generator) throws DuplicateKeyException, IOException {
+        generator.writeStartObject();
+        writePathsAndValues(rmObject, archetype, (path, value) -> {
+            generator.writeFieldName(path);
+            generator.writeObject(value);
+        });
+        generator.writeEndObject();
+    }
+
+    /**
+     * Write the flat json format for the given RM Object as a single JSON object to the given JsonGenerator, using the
+     * given language for the archetype terms
+     * @see #writePathsAndValues(OpenEHRBase, OperationalTemplate, JsonGenerator)
+     */
+    public void writePathsAndValues(OpenEHRBase rmObject, OperationalTemplate archetype, String language, JsonGenerator generator) throws DuplicateKeyException, IOException {
+        String previousLanguage = ArchieLanguageConfiguration.getThreadLocalDescriptiongAndMeaningLanguage();
+        if(language != null) {
+            ArchieLanguageConfiguration.setThreadLocalDescriptiongAndMeaningLanguage(language);
+        }
+
+        try {
+            writePathsAndValues(rmObject, archetype, generator);
+        } finally {
+            ArchieLanguageConfiguration.setThreadLocalDescriptiongAndMeaningLanguage(previousLanguage);
+        }
+    }
+
+    /**
+     * Stream the paths and values of the flat json format for the given RM Object to the given consumer, in the same
+     * order as they would be present in the map returned by {@link #buildPathsAndValues(OpenEHRBase, OperationalTemplate)}.
+     *
+     * Duplicate paths are detected without keeping all paths and values: only the keys of the object currently being
+     * written are kept, plus those of objects that share a path segment with a sibling in the same collection.
+     *
+     * @param rmObject the RM Object to write the flat json format for
+     * @param archetype the operational template the RM Object conforms to. Can be null
+     * @param consumer the consumer that receives every path and value
+     * @throws DuplicateKeyException in case converting this to flat json would result in having the two exact paths at once.
+     * @throws IOException in case the consumer throws an IOException
+     */
+    public void writePathsAndValues(OpenEHRBase rmObject, OperationalTemplate archetype, FlatJsonValueConsumer consumer) throws DuplicateKeyException, IOException {
+        FlatJsonValueConsumer actualConsumer = consumer;
+        if(humanReadableFormat) {
+            String rootName = modelInfoLookup.getNameFromRMObject(rmObject);
+            if(rootName != null) {
+                String prefix = addUnderScores(rootName);
+                actualConsumer = (path, value) -> consumer.accept(prefix + path, value);
+            }
+        }
+        CObject definition = archetype == null ? null : archetype.getDefinition();
+        buildPathsAndValuesInner(new StreamingPathValueWriter(actualConsumer), getTemplateLayout(archetype), null, "/", rmObject, definition, false);
+    }
+
+    private TemplateLayout getTemplateLayout(OperationalTemplate template) {
+        if(template == null) {
+            return null;
+        }
+        String templateId = template.getArchetypeId().getFullId();
+        TemplateLayout layout = templateLayouts.get(templateId);
+        if(layout == null || layout.template != template) {
+            layout = new TemplateLayout(template);
+            templateLayouts.put(templateId, layout);
+        }
+        return layout;
+    }
+
+    private ObjectLayout getObjectLayout(TemplateLayout templateLayout, CObject cObject, RMTypeInfo typeInfo) {
+        if(cObject == null || templateLayout == null) {
+            return untemplatedLayouts.computeIfAbsent(typeInfo, t -> new ObjectLayout(null, t));
+        }
+        return templateLayout.getObjectLayout(cObject, typeInfo);
+    }
+
+    private void buildPathsAndValuesInner(PathValueWriter result, TemplateLayout templateLayout, RMTypeInfo rmAttributeTypeInfo, String pathSoFar, OpenEHRBase rmObject, CObject cObject, boolean typeAlternativesPresent) throws DuplicateKeyException, IOException {
 
         if(rmObject == null) {
             return;
         }
         RMTypeInfo typeInfo = modelInfoLookup.getTypeInfo(rmObject.getClass());
-        if(shouldAddTypeName(rmAttributeTypeInfo, rmObject, cObject, typeAlternativesPresent)) {
-            storeValue(result, joinPath(pathSoFar, typeIdPropertyName, null, null, "/"), getTypeIdFromValue(rmObject));
+        ObjectLayout layout = getObjectLayout(templateLayout, cObject, typeInfo);
+        if(shouldAddTypeName(rmAttributeTypeInfo, typeInfo, layout, typeAlternativesPresent)) {
+            storeValue(result, pathSoFar, typeIdPropertyName, "/", getTypeIdFromValue(rmObject));
         }
 
-        String name = modelInfoLookup.getNameFromRMObject(rmObject);
-
-        for(String attributeName:typeInfo.getAttributes().keySet()) {
-            CAttribute cAttribute = cObject == null ? null : cObject.getAttribute(attributeName);
-            RMAttributeInfo attributeInfo = typeInfo.getAttributes().get(attributeName);
-            if(!attributeInfo.isComputed() && !isIgnored(typeInfo, attributeName) && attributeInfo.getGetMethod() != null) {
-                if(filterNames && cObject != null && isNameAttribute(typeInfo, attributeName)) {
-                    ArchetypeTerm term = cObject.getTerm();
-                    if(term != null && name.equals(term.getText())) {
-                        continue;
-                    }
-                }
-                try {
-                    Object child = attributeInfo.getGetMethod().invoke(rmObject);
-                    addAttribute(result, pathSoFar, rmObject, child, attributeName,null, cAttribute);
-                } catch (IllegalAccessException | InvocationTargetException e) {
-                    throw new RuntimeException(e);//TODO: fine for now...
+        for(AttributeLayout attribute:layout.attributes) {
+            if(attribute.filterIfSameAsArchetypeName) {
+                String archetypeName = layout.getArchetypeName();
+                if(archetypeName != null && archetypeName.equals(modelInfoLookup.getNameFromRMObject(rmObject))) {
+                    continue;
                 }
             }
-
+            try {
+                Object child = attribute.getMethod.invoke(rmObject);
+                addAttribute(result, templateLayout, pathSoFar, child, attribute, null, false);
+            } catch (IllegalAccessException | InvocationTargetException e) {
+                throw new RuntimeException(e);//TODO: fine for now...
+            }
         }
     }
 
@@ -158,17 +259,14 @@ public class FlatJsonGenerator {
      * Note that at the root node of the data and the archetype, rmAttributeTypeInfo will be null, and
      * the type info therefore will always be added.
      */
-    private boolean shouldAddTypeName(RMTypeInfo rmAttributeTypeInfo, OpenEHRBase rmObject, CObject cObject, boolean typeAlternativesPresent) {
-        return !sameType(rmAttributeTypeInfo, rmObject) &&
-                ( !filterTypes || !sameType(cObject, rmObject) || typeAlternativesPresent);
+    private boolean shouldAddTypeName(RMTypeInfo rmAttributeTypeInfo, RMTypeInfo typeInfo, ObjectLayout layout, boolean typeAlternativesPresent) {
+        return !typeInfo.equals(rmAttributeTypeInfo) &&
+                ( !filterTypes || !layout.sameTypeAsConstraint || typeAlternativesPresent);
     }
 
-    private void storeValue(Map<String, Object> result, String path, Object value) throws DuplicateKeyException {
-        if(result.containsKey(path)) {
-            //whoops!
-            throw new DuplicateKeyException("cannot add path twice: " + path + " with exis. value " + result.get(path) + " new value " + value);
-        }
-        result.put(path, value);
+    private void storeValue(PathValueWriter result, String pathSoFar, String pathSegment, String pathSeparator, Object value) throws DuplicateKeyException, IOException {
+        String keyInObject = keyInObject(pathSoFar, pathSegment, pathSeparator);
+        result.store(pathSoFar + keyInObject, keyInObject, value);
     }
 
     private boolean isIgnored(RMTypeInfo typeInfo, String attributeName) {
@@ -197,20 +295,6 @@ public class FlatJsonGenerator {
         }
     }
 
-    private boolean sameType(RMTypeInfo typeInfo, OpenEHRBase rmObject) {
-        if(rmObject == null) {
-            return false;
-        }
-        return modelInfoLookup.getTypeInfo(rmObject.getClass()).equals(typeInfo);
-    }
-
-    private boolean sameType(CObject cObject, OpenEHRBase rmObject) {
-        if(cObject == null || rmObject == null) {
-            return false;
-        }
-        return modelInfoLookup.getTypeInfo(rmObject.getClass()).getRmName().equals(cObject.getRmTypeName());
-    }
-
     private boolean typeHasDescendants(RMTypeInfo typeInfo) {
         if(typeInfo == null) {
             return true;// we have no idea, so include @type/_type
@@ -218,71 +302,56 @@ public class FlatJsonGenerator {
         return !typeInfo.getDirectDescendantClasses().isEmpty();
     }
 
-    private void addAttribute(Map<String, Object> result, String pathSoFar, OpenEHRBase parent, Object child, String attributeName, Integer index, CAttribute cAttribute) throws DuplicateKeyException {
+    private void addAttribute(PathValueWriter result, TemplateLayout templateLayout, String pathSoFar, Object child, AttributeLayout attribute, Integer index, boolean segmentSharedWithSibling) throws DuplicateKeyException, IOException {
 
         if(child instanceof OpenEHRBase) {
-            String newPath = joinPath(pathSoFar, attributeName, (OpenEHRBase) child, index, "/");
-            //TODO: get correct type info here
-            RMAttributeInfo attributeInfo = modelInfoLookup.getAttributeInfo(parent.getClass(), attributeName);
-            RMTypeInfo typeInfo = getAttributeTypeInfo(attributeInfo);
-
-            RMTypeInfo modelTypeInfo = modelInfoLookup.getTypeInfo(child.getClass());
             CObject cObject = null;
             //whether other alternatives exist that could have been added in the archetype
             boolean otherTypeAlternatives = false;
 
-            String archetypeNodeIdFromRMObject = modelInfoLookup.getArchetypeNodeIdFromRMObject(child);
-            if(cAttribute != null) {
+            if(attribute.cAttribute != null) {
+                String archetypeNodeIdFromRMObject = modelInfoLookup.getArchetypeNodeIdFromRMObject(child);
                 if (archetypeNodeIdFromRMObject == null) {
+                    RMTypeInfo modelTypeInfo = modelInfoLookup.getTypeInfo(child.getClass());
                     if(modelTypeInfo != null) {
                         //do a type-name lookup. Also look for sibling alternatives
-                        List<CObject> childrenByRmTypeName = cAttribute.getChildrenByRmTypeName(modelTypeInfo.getRmName());
-                        if(childrenByRmTypeName != null && childrenByRmTypeName.size() == 1) {
-                            cObject = childrenByRmTypeName.get(0);
-                            otherTypeAlternatives = cAttribute.getChildren().size() > 1;
-                        }
+                        cObject = attribute.getSingleConstraintWithRmType(modelTypeInfo.getRmName());
+                        otherTypeAlternatives = cObject != null && attribute.typeAlternativesInArchetype;
                     }
                 } else {
-                    cObject = cAttribute.getChild(archetypeNodeIdFromRMObject);
+                    cObject = attribute.cAttribute.getChild(archetypeNodeIdFromRMObject);
                 }
             }
 
-            buildPathsAndValuesInner(result, typeInfo, newPath, (OpenEHRBase) child, cObject, otherTypeAlternatives);
+            String pathSegment = attribute.getPathSegment((OpenEHRBase) child, index, cObject);
+            String keyInObject = keyInObject(pathSoFar, pathSegment, "/");
+            String newPath = pathSoFar + keyInObject;
+
+            result.startObject(keyInObject, segmentSharedWithSibling);
+            buildPathsAndValuesInner(result, templateLayout, attribute.attributeTypeInfo, newPath, (OpenEHRBase) child, cObject, otherTypeAlternatives);
+            result.endObject();
 
             String archetypeId = modelInfoLookup.getArchetypeIdFromArchetypedRmObject(child);
             if(archetypeId != null) {
-                storeValue(result, newPath, archetypeId);
+                result.store(newPath, keyInObject, archetypeId);
             }
         } else if (child instanceof Collection) {
-            if(separateIndicesPerNodeId) {
-                Map<String, Integer> amountsPerNodeId = new HashMap<>();
-                for (Object c : (Collection<?>) child) {
-
-                    int numberOfNonLocatables = 1; //1-based, sory
-                    String archetypeNodeId = modelInfoLookup.getArchetypeNodeIdFromRMObject(c);
-                    if (archetypeNodeId != null) {
-                        Integer numberOfPreviousOccurrences = amountsPerNodeId.get(archetypeNodeId);
-                        addAttribute(result, pathSoFar, parent, c, attributeName, numberOfPreviousOccurrences, cAttribute);
-                        numberOfPreviousOccurrences = numberOfPreviousOccurrences == null ? 1 : numberOfPreviousOccurrences + 1;
-                        amountsPerNodeId.put(archetypeNodeId, numberOfPreviousOccurrences);
-                    } else {
-                        addAttribute(result, pathSoFar, parent, c, attributeName, numberOfNonLocatables == 1 ? null : numberOfNonLocatables, cAttribute);
-                        numberOfNonLocatables++;
-                    }
-                }
-                //TODO: do we need Map-support as well?
-            } else {
-                int collectionIndex = 1;
-                for (Object c : (Collection<?>) child) {
-                    addAttribute(result, pathSoFar, parent, c, attributeName, collectionIndex, cAttribute);
-                    collectionIndex++;
-                }
+            Collection<?> collection = (Collection<?>) child;
+            List<Integer> indices = getCollectionIndices(collection);
+            Set<String> sharedSegments = result.tracksObjectKeys() ? getSegmentsSharedBySiblings(collection, attribute, indices) : Collections.emptySet();
+            int i = 0;
+            for (Object c : collection) {
+                Integer collectionIndex = indices.get(i++);
+                boolean shared = !sharedSegments.isEmpty() && c instanceof OpenEHRBase &&
+                        sharedSegments.contains(attribute.getPathSegment((OpenEHRBase) c, collectionIndex));
+                addAttribute(result, templateLayout, pathSoFar, c, attribute, collectionIndex, shared);
             }
         } else if(child != null) {
-            String newPath = joinPath(pathSoFar, attributeName, null, index, writePipesForPrimitiveTypes ? "|" : "/");
+            String keyInObject = keyInObject(pathSoFar, attribute.getPathSegment(null, index), writePipesForPrimitiveTypes ? "|" : "/");
+            String newPath = pathSoFar + keyInObject;
 
             if(child instanceof Number) {
-                storeValue(result, newPath, child);
+                result.store(newPath, keyInObject, child);
             } else if (child instanceof TemporalAccessor) {
                 Temporal t = (Temporal) child;
                 boolean hoursSupported = t.isSupported(ChronoUnit.HOURS);
@@ -290,32 +359,80 @@ public class FlatJsonGenerator {
 
                 if(hoursSupported && monthsSupported) {
                     //datetime
-                    storeValue(result, newPath, DateTimeSerializerFormatters.ISO_8601_DATE_TIME.format(t));
+                    result.store(newPath, keyInObject, DateTimeSerializerFormatters.ISO_8601_DATE_TIME.format(t));
                 } else if (monthsSupported) {
                     //date
-                    storeValue(result, newPath, DateTimeSerializerFormatters.ISO_8601_DATE.format(t));
+                    result.store(newPath, keyInObject, DateTimeSerializerFormatters.ISO_8601_DATE.format(t));
                 } else if (hoursSupported) {
                     //time
-                    storeValue(result, newPath, DateTimeSerializerFormatters.ISO_8601_TIME.format(t));
+                    result.store(newPath, keyInObject, DateTimeSerializerFormatters.ISO_8601_TIME.format(t));
                 }
             } else if (child instanceof TemporalAmount) {
                 //duration or period. now just a toString, should this be a specific formatter?
-                storeValue(result, newPath, child);
+                result.store(newPath, keyInObject, child);
             } else {
-                storeValue(result, newPath, child.toString());
+                result.store(newPath, keyInObject, child.toString());
+            }
+        }
+    }
+
+    /**
+     * Get the indices to write in the paths of the elements of the collection, in iteration order. An index can be null
+     * if it should not be written.
+     */
+    private List<Integer> getCollectionIndices(Collection<?> collection) {
+        List<Integer> result = new ArrayList<>(collection.size());
+        if(separateIndicesPerNodeId) {
+            Map<String, Integer> amountsPerNodeId = new HashMap<>();
+            for (Object c : collection) {
+
+                int numberOfNonLocatables = 1; //1-based, sory
+                String archetypeNodeId = modelInfoLookup.getArchetypeNodeIdFromRMObject(c);
+                if (archetypeNodeId != null) {
+                    Integer numberOfPreviousOccurrences = amountsPerNodeId.get(archetypeNodeId);
+                    result.add(numberOfPreviousOccurrences);
+                    numberOfPreviousOccurrences = numberOfPreviousOccurrences == null ? 1 : numberOfPreviousOccurrences + 1;
+                    amountsPerNodeId.put(archetypeNodeId, numberOfPreviousOccurrences);
+                } else {
+                    result.add(numberOfNonLocatables == 1 ? null : numberOfNonLocatables);
+                    numberOfNonLocatables++;
+                }
+            }
+            //TODO: do we need Map-support as well?
+        } else {
+            int collectionIndex = 1;
+            for (Object c : collection) {
+                result.add(collectionIndex);
+                collectionIndex++;
             }
         }
+        return result;
     }
 
-    private RMTypeInfo getAttributeTypeInfo(RMAttributeInfo attributeInfo) {
-        RMTypeInfo typeInfo = null;
-        if(attributeInfo != null) {
-            typeInfo = modelInfoLookup.getTypeInfo(attributeInfo.getTypeInCollection());
+    /**
+     * Get the path segments that are written for more than one RM Object in the collection. The values of these objects
+     * end up under the same path, so they must be checked for duplicates together.
+     */
+    private Set<String> getSegmentsSharedBySiblings(Collection<?> collection, AttributeLayout attribute, List<Integer> indices) {
+        Set<String> segments = new HashSet<>();
+        Set<String> sharedSegments = null;
+        int i = 0;
+        for (Object c : collection) {
+            Integer index = indices.get(i++);
+            if(c instanceof OpenEHRBase) {
+                String segment = attribute.getPathSegment((OpenEHRBase) c, index);
+                if(!segments.add(segment)) {
+                    if(sharedSegments == null) {
+                        sharedSegments = new HashSet<>();
+                    }
+                    sharedSegments.add(segment);
+                }
+            }
         }
-        return typeInfo;
+        return sharedSegments == null ? Collections.emptySet() : sharedSegments;
     }
 
-    private String joinPath(String pathSoFar, String attributeName, OpenEHRBase rmObject, Integer index, String pathSeparator) {
+    private String buildPathSegment(String attributeName, OpenEHRBase rmObject, Integer index) {
         String name = modelInfoLookup.getNameFromRMObject(rmObject);
         boolean wroteHumanReadableName = name != null && humanReadableFormat;
         String newPathSegment = wroteHumanReadableName ? addUnderScores(name) : attributeName;
@@ -342,11 +459,17 @@ public class FlatJsonGenerator {
                 newPathSegment = newPathSegment + "[" + index + "]";
             }
         }
+        return newPathSegment;
+    }
 
+    /**
+     * Get the part of the path that identifies the given segment within the object at pathSoFar, including the separator
+     */
+    private String keyInObject(String pathSoFar, String pathSegment, String pathSeparator) {
         if(pathSoFar.endsWith("/")) {
-            return pathSoFar + newPathSegment;
+            return pathSegment;
         }
-        return pathSoFar + pathSeparator + newPathSegment;
+        return pathSeparator + pathSegment;
     }
 
     private String addUnderScores(String name) {
@@ -356,6 +479,230 @@ public class FlatJsonGenerator {
         return name.replaceAll("[^a-zA-Z0-9]", "_");
     }
 
+    /**
+     * The precomputed layouts of the RM Objects of a single operational template
+     */
+    private class TemplateLayout {
+        private final OperationalTemplate template;
+        private final Map<CObject, Map<RMTypeInfo, ObjectLayout>> objectLayouts = new ConcurrentHashMap<>();
+
+        TemplateLayout(OperationalTemplate template) {
+            this.template = template;
+        }
+
+        ObjectLayout getObjectLayout(CObject cObject, RMTypeInfo typeInfo) {
+            return objectLayouts.computeIfAbsent(cObject, c -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(typeInfo, t -> new ObjectLayout(cObject, t));
+        }
+    }
+
+    /**
+     * The precomputed layout of an RM Object of a given type, constrained by a given CObject, or by no constraint
+     */
+    private class ObjectLayout {
+        private final CObject cObject;
+        private final List<AttributeLayout> attributes = new ArrayList<>();
+        private final boolean sameTypeAsConstraint;
+        /** the archetype names by language, with the empty string if there is no name */
+        private final Map<String, String> archetypeNames = new ConcurrentHashMap<>();
+
+        ObjectLayout(CObject cObject, RMTypeInfo typeInfo) {
+            this.cObject = cObject;
+            this.sameTypeAsConstraint = cObject != null && typeInfo.getRmName().equals(cObject.getRmTypeName());
+            for(RMAttributeInfo attributeInfo:typeInfo.getAttributes().values()) {
+                String attributeName = attributeInfo.getRmName();
+                if(!attributeInfo.isComputed() && !isIgnored(typeInfo, attributeName) && attributeInfo.getGetMethod() != null) {
+                    CAttribute cAttribute = cObject == null ? null : cObject.getAttribute(attributeName);
+                    boolean filterName = filterNames && cObject != null && isNameAttribute(typeInfo, attributeName);
+                    attributes.add(new AttributeLayout(attributeInfo, cAttribute, filterName));
+                }
+            }
+        }
+
+        /**
+         * Get the name of the constraint in the archetype, in the current language
+         * @return the name, or null if not available
+         */
+        String getArchetypeName() {
+            String name = archetypeNames.computeIfAbsent(ArchieLanguageConfiguration.getMeaningAndDescriptionLanguage(), language -> {
+                ArchetypeTerm term = cObject.getTerm();
+                return term == null || term.getText() == null ? "" : term.getText();
+            });
+            return name.isEmpty() ? null : name;
+        }
+    }
+
+    /**
+     * The precomputed layout of a single attribute of an RM Object
+     */
+    private class AttributeLayout {
+        private final String attributeName;
+        private final Method getMethod;
+        private final RMTypeInfo attributeTypeInfo;
+        private final CAttribute cAttribute;
+        private final boolean filterIfSameAsArchetypeName;
+        private final boolean typeAlternativesInArchetype;
+        private final Map<String, Optional<CObject>> constraintsByRmTypeName;
+        /** the path segments without index, by node id. Only used for node ids present in the archetype */
+        private final Map<String, String> pathSegmentsByNodeId;
+
+        AttributeLayout(RMAttributeInfo attributeInfo, CAttribute cAttribute, boolean filterIfSameAsArchetypeName) {
+            this.attributeName = attributeInfo.getRmName();
+            this.getMethod = attributeInfo.getGetMethod();
+            this.attributeTypeInfo = modelInfoLookup.getTypeInfo(attributeInfo.getTypeInCollection());
+            this.cAttribute = cAttribute;
+            this.filterIfSameAsArchetypeName = filterIfSameAsArchetypeName;
+            this.typeAlternativesInArchetype = cAttribute != null && cAttribute.getChildren().size() > 1;
+            this.constraintsByRmTypeName = cAttribute == null ? null : new ConcurrentHashMap<>();
+            this.pathSegmentsByNodeId = cAttribute == null ? null : new ConcurrentHashMap<>();
+        }
+
+        /**
+         * Get the single constraint for the given rm type name in this attribute
+         * @return the constraint, or null if there is not exactly one
+         */
+        CObject getSingleConstraintWithRmType(String rmTypeName) {
+            return constraintsByRmTypeName.computeIfAbsent(rmTypeName, typeName -> {
+                List<CObject> childrenByRmTypeName = cAttribute.getChildrenByRmTypeName(typeName);
+                if(childrenByRmTypeName != null && childrenByRmTypeName.size() == 1) {
+                    return Optional.of(childrenByRmTypeName.get(0));
+                }
+                return Optional.empty();
+            }).orElse(null);
+        }
+
+        String getPathSegment(OpenEHRBase rmObject, Integer index) {
+            return getPathSegment(rmObject, index, null);
+        }
+
+        /**
+         * Get the path segment of the given RM Object. If it has no index and matches a constraint of this attribute,
+         * the precomputed path segment is returned.
+         */
+        String getPathSegment(OpenEHRBase rmObject, Integer index, CObject constraint) {
+            if(index == null && constraint != null && !humanReadableFormat) {
+                String nodeId = modelInfoLookup.getArchetypeNodeIdFromRMObject(rmObject);
+                if(nodeId != null && nodeId.equals(constraint.getNodeId())) {
+                    return pathSegmentsByNodeId.computeIfAbsent(nodeId, id -> buildPathSegment(attributeName, rmObject, null));
+                }
+            }
+            return buildPathSegment(attributeName, rmObject, index);
+        }
+    }
+
+    /**
+     * Receives the paths and values while walking the RM Object, plus the start and end of every RM Object
+     */
+    private interface PathValueWriter {
+
+        /**
+         * Store a value
+         * @param path the full path of the value
+         * @param keyInObject the last part of the path, that identifies the value within the current RM Object
+         * @param value the value
+         */
+        void store(String path, String keyInObject, Object value) throws DuplicateKeyException, IOException;
+
+        void startObject(String keyInObject, boolean sharedWithSibling);
+
+        void endObject();
+
+        /**
+         * @return true if this writer needs to know which child objects share a path segment with a sibling
+         */
+        boolean tracksObjectKeys();
+    }
+
+    private static class MapPathValueWriter implements PathValueWriter {
+
+        private final Map<String, Object> result = new LinkedHashMap<>();
+
+        @Override
+        public void store(String path, String keyInObject, Object value) throws DuplicateKeyException {
+            if(result.containsKey(path)) {
+                //whoops!
+                throw new DuplicateKeyException("cannot add path twice: " + path + " with exis. value " + result.get(path) + " new value " + value);
+            }
+            result.put(path, value);
+        }
+
+        @Override
+        public void startObject(String keyInObject, boolean sharedWithSibling) {
+        }
+
+        @Override
+        public void endObject() {
+        }
+
+        @Override
+        public boolean tracksObjectKeys() {
+            return false;
+        }
+
+        public Map<String, Object> getResult() {
+            return result;
+        }
+    }
+
+    /**
+     * Writes to a FlatJsonValueConsumer. Keeps only the keys of the RM Objects currently being walked to detect duplicates,
+     * since all paths of an RM Object start with its own unique path. The only exception is an RM Object with the same
+     * path segment as a sibling in a collection: those keys are kept until the parent is done.
+     */
+    private static class StreamingPathValueWriter implements PathValueWriter {
+
+        private final FlatJsonValueConsumer consumer;
+        private final Deque<ObjectKeys> objects = new ArrayDeque<>();
+
+        StreamingPathValueWriter(FlatJsonValueConsumer consumer) {
+            this.consumer = consumer;
+            objects.push(new ObjectKeys());
+        }
+
+        @Override
+        public void store(String path, String keyInObject, Object value) throws DuplicateKeyException, IOException {
+            if(!objects.peek().addKey(keyInObject)) {
+                throw new DuplicateKeyException("cannot add path twice: " + path + " new value " + value);
+            }
+            consumer.accept(path, value);
+        }
+
+        @Override
+        public void startObject(String keyInObject, boolean sharedWithSibling) {
+            ObjectKeys parent = objects.peek();
+            objects.push(sharedWithSibling ? parent.getSharedChild(keyInObject) : new ObjectKeys());
+        }
+
+        @Override
+        public void endObject() {
+            objects.pop();
+        }
+
+        @Override
+        public boolean tracksObjectKeys() {
+            return true;
+        }
+    }
+
+    private static class ObjectKeys {
+        private Set<String> keys;
+        private Map<String, ObjectKeys> sharedChildren;
+
+        boolean addKey(String key) {
+            if(keys == null) {
+                keys = new HashSet<>();
+            }
+            return keys.add(key);
+        }
+
+        ObjectKeys getSharedChild(String key) {
+            if(sharedChildren == null) {
+                sharedChildren = new HashMap<>();
+            }
+            return sharedChildren.computeIfAbsent(key, k -> new ObjectKeys());
+        }
+    }
+
     private class IgnoredAttribute {
         private RMTypeInfo type;
         private String attributeName;
@@ -0,0 +1,424 @@
+package com.nedap.archie.json.flat;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.nedap.archie.ArchieLanguageConfiguration;
+import com.nedap.archie.aom.CAttribute;
+import com.nedap.archie.aom.CObject;
+import com.nedap.archie.aom.CPrimitiveObject;
+import com.nedap.archie.aom.OperationalTemplate;
+import com.nedap.archie.base.OpenEHRBase;
+import com.nedap.archie.creation.RMObjectCreator;
+import com.nedap.archie.datetime.DateTimeParsers;
+import com.nedap.archie.rminfo.ModelInfoLookup;
+import com.nedap.archie.rminfo.RMAttributeInfo;
+import com.nedap.archie.rminfo.RMTypeInfo;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.net.URI;
+import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalAmount;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads the Flat JSON format, as generated by the {@link FlatJsonGenerator}, back into RM Objects. The RM Objects are
+ * built directly from the paths and values, without converting to the canonical JSON format first.
+ *
+ * Only the format with attribute names and node ids in the paths can be read. The human readable format, that uses the
+ * names of the RM Objects instead, cannot be read back unambiguously, so paths in that format result in an
+ * IllegalArgumentException.
+ *
+ * Information that is left out of the flat format is restored from the operational template: type names that are the
+ * same as in the archetype, names that are the same as in the archetype and archetype node ids. Attributes ignored in
+ * the flat format configuration, such as archetype_details, cannot be restored, except for the archetype id of
+ * archetype roots.
+ *
+ * For every operational template a plan is compiled on first use, that maps every flat path, without indices, to the
+ * constraint, RM type and attributes to set. This plan is reused for every next read of data of the same template.
+ * Plans are cached per template id, and replaced if a different template with the same id is read.
+ *
+ * This reader is thread-safe, and meant to be reused.
+ */
+public class FlatJsonReader {
+
+    private static final String ARCHETYPE_NODE_ID = "archetype_node_id";
+    private static final String ARCHETYPE_DETAILS = "archetype_details";
+    private static final String ARCHETYPE_ID = "archetype_id";
+    private static final String ARCHETYPED_TYPE_NAME = "ARCHETYPED";
+    private static final String ARCHETYPE_ID_TYPE_NAME = "ARCHETYPE_ID";
+
+    private final ModelInfoLookup modelInfoLookup;
+    private final RMObjectCreator creator;
+    private final String typeIdPropertyName;
+
+    private final Map<String, TemplatePlan> templatePlans = new ConcurrentHashMap<>();
+    private final TemplatePlan untemplatedPlan = new TemplatePlan(null);
+
+    /**
+     * Construct the FlatJsonReader
+     * @param modelInfoLookup the model info lookup use to define the model
+     * @param config the configuration for the flat json format. Must be the same as used to generate the flat json
+     */
+    public FlatJsonReader(ModelInfoLookup modelInfoLookup, FlatJsonFormatConfiguration config) {
+        this.modelInfoLookup = modelInfoLookup;
+        this.creator = new RMObjectCreator(modelInfoLookup);
+        this.typeIdPropertyName = config.getTypeIdPropertyName();
+    }
+
+    /**
+     * Read the paths and values of the flat json format into an RM Object
+     * @param pathsAndValues the paths and values, as returned by {@link FlatJsonGenerator#buildPathsAndValues(OpenEHRBase, OperationalTemplate)}
+     *                       or as parsed from JSON
+     * @param template the operational template the data was generated with. Can be null, if the data was generated without one
+     * @return the RM Object
+     * @throws IllegalArgumentException in case the paths and values cannot be read, for example because they are in the human readable format
+     */
+    public OpenEHRBase read(Map<String, Object> pathsAndValues, OperationalTemplate template) {
+        FlatNode root = new FlatNode(null, null);
+        for(Map.Entry<String, Object> entry:pathsAndValues.entrySet()) {
+            addPathAndValue(root, entry.getKey(), entry.getValue());
+        }
+        return build(root, template);
+    }
+
+    /**
+     * Read the paths and values of the flat json format into an RM Object, using the given language for the names
+     * from the archetype
+     * @see #read(Map, OperationalTemplate)
+     */
+    public OpenEHRBase read(Map<String, Object> pathsAndValues, OperationalTemplate template, String language) {
+        String previousLanguage = ArchieLanguageConfiguration.getThreadLocalDescriptiongAndMeaningLanguage();
+        if(language != null) {
+            ArchieLanguageConfiguration.setThreadLocalDescriptiongAndMeaningLanguage(language);
+        }
+
+        try {
+            return read(pathsAndValues, template);
+        } finally {
+            ArchieLanguageConfiguration.setThreadLocalDescriptiongAndMeaningLanguage(previousLanguage);
+        }
+    }
+
+    /**
+     * Read a single JSON object in the flat json format from the given parser into an RM Object, without parsing it
+     * into a map first.
+     * @param parser the parser, positioned at or before the start of the JSON object
+     * @param template the operational template the data was generated with. Can be null, if the data was generated without one
+     * @return the RM Object
+     * @throws IOException in case of a JSON parse error, or if the JSON is not a flat json object
+     */
+    public OpenEHRBase read(JsonParser parser, OperationalTemplate template) throws IOException {
+        JsonToken token = parser.currentToken() == null ? parser.nextToken() : parser.currentToken();
+        if(token != JsonToken.START_OBJECT) {
+            throw new IOException("Expected the start of a flat json object, but got " + token);
+        }
+        FlatNode root = new FlatNode(null, null);
+        while((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            String path = parser.getCurrentName();
+            token = parser.nextToken();
+            switch (token) {
+                case VALUE_STRING:
+                    addPathAndValue(root, path, parser.getText());
+                    break;
+                case VALUE_NUMBER_INT:
+                case VALUE_NUMBER_FLOAT:
+                    addPathAndValue(root, path, parser.getNumberValue());
+                    break;
+                case VALUE_TRUE:
+                case VALUE_FALSE:
+                    addPathAndValue(root, path, parser.getBooleanValue());
+                    break;
+                case VALUE_NULL:
+                    break;
+                default:
+                    throw new IOException("Expected a primitive value in flat json at path " + path + ", but got " + token);
+            }
+        }
+        return build(root, template);
+    }
+
+    private OpenEHRBase build(FlatNode root, OperationalTemplate template) {
+        ObjectPlan plan = getTemplatePlan(template).getRootPlan(root.typeName);
+        return (OpenEHRBase) buildObject(root, plan);
+    }
+
+    private TemplatePlan getTemplatePlan(OperationalTemplate template) {
+        if(template == null) {
+            return untemplatedPlan;
+        }
+        String templateId = template.getArchetypeId().getFullId();
+        TemplatePlan plan = templatePlans.get(templateId);
+        if(plan == null || plan.template != template) {
+            plan = new TemplatePlan(template);
+            templatePlans.put(templateId, plan);
+        }
+        return plan;
+    }
+
+    private void addPathAndValue(FlatNode root, String path, Object value) {
+        if(!path.startsWith("/")) {
+            //the human readable format starts with the name of the root object, and uses names instead of attributes
+            throw new IllegalArgumentException("Flat json path " + path + " does not start with a '/'. Only paths with attribute names and node ids can be read, the human readable format is not supported");
+        }
+        FlatNode node = root;
+        int segmentStart = 1;
+        int bracketDepth = 0;
+        for(int i = segmentStart; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if(c == '[') {
+                bracketDepth++;
+            } else if (c == ']') {
+                bracketDepth--;
+            } else if (bracketDepth == 0 && (c == '/' || c == '|')) {
+                node = node.getOrAddChild(path.substring(segmentStart, i));
+                segmentStart = i + 1;
+            }
+        }
+        String lastSegment = path.substring(segmentStart);
+        if(lastSegment.equals(typeIdPropertyName)) {
+            node.typeName = value.toString();
+        } else {
+            node.getOrAddChild(lastSegment).value = value;
+        }
+    }
+
+    private Object buildObject(FlatNode node, ObjectPlan plan) {
+        Object result;
+        try {
+            result = plan.classToCreate.newInstance();
+        } catch (InstantiationException | IllegalAccessException e) {
+            throw new RuntimeException("error creating class " + plan.classToCreate, e);
+        }
+        if(plan.cObject != null) {
+            modelInfoLookup.processCreatedObject(result, plan.cObject);
+        } else if(node.nodeId != null && plan.typeInfo.getAttribute(ARCHETYPE_NODE_ID) != null) {
+            setValue(result, plan.typeInfo.getAttribute(ARCHETYPE_NODE_ID), node.nodeId);
+        }
+
+        for(FlatNode child:node.children.values()) {
+            RMAttributeInfo attributeInfo = plan.typeInfo.getAttribute(child.attributeName);
+            if(attributeInfo == null) {
+                throw new IllegalArgumentException(String.format("Attribute %s not known for type %s", child.attributeName, plan.typeInfo.getRmName()));
+            }
+            Object value;
+            if(modelInfoLookup.getTypeInfo(attributeInfo.getTypeInCollection()) != null) {
+                ObjectPlan childPlan = plan.getChildPlan(child, attributeInfo);
+                value = buildObject(child, childPlan);
+                if(child.value != null) {
+                    setArchetypeId(value, childPlan.typeInfo, child.value.toString());
+                }
+            } else {
+                value = convertValue(child.value, attributeInfo.getTypeInCollection());
+            }
+            if(attributeInfo.isMultipleValued()) {
+                creator.addElementToList(result, attributeInfo, value);
+            } else {
+                setValue(result, attributeInfo, value);
+            }
+        }
+        return result;
+    }
+
+    private void setValue(Object object, RMAttributeInfo attributeInfo, Object value) {
+        if(attributeInfo.getSetMethod() == null) {
+            throw new IllegalArgumentException(String.format("Attribute %s of class %s has no set method", attributeInfo.getRmName(), object.getClass().getSimpleName()));
+        }
+        try {
+            attributeInfo.getSetMethod().invoke(object, value);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void setArchetypeId(Object rmObject, RMTypeInfo typeInfo, String archetypeId) {
+        if(archetypeId.equals(modelInfoLookup.getArchetypeIdFromArchetypedRmObject(rmObject))) {
+            return;
+        }
+        RMAttributeInfo detailsAttribute = typeInfo.getAttribute(ARCHETYPE_DETAILS);
+        RMAttributeInfo archetypeIdAttribute = modelInfoLookup.getAttributeInfo(ARCHETYPED_TYPE_NAME, ARCHETYPE_ID);
+        Class<?> archetypeIdClass = modelInfoLookup.getClassToBeCreated(ARCHETYPE_ID_TYPE_NAME);
+        if(detailsAttribute == null || archetypeIdAttribute == null || archetypeIdClass == null) {
+            throw new IllegalArgumentException("cannot set archetype id " + archetypeId + " on type " + typeInfo.getRmName());
+        }
+        try {
+            Object details = modelInfoLookup.getClassToBeCreated(ARCHETYPED_TYPE_NAME).newInstance();
+            //the archetype id is parsed by its constructor, not by its setter
+            setValue(details, archetypeIdAttribute, archetypeIdClass.getConstructor(String.class).newInstance(archetypeId));
+            setValue(rmObject, detailsAttribute, details);
+        } catch (InstantiationException | IllegalAccessException | InvocationTargetException | NoSuchMethodException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private Object convertValue(Object value, Class<?> type) {
+        if(value == null || type.isInstance(value)) {
+            return value;
+        }
+        if(Number.class.isAssignableFrom(type) || (type.isPrimitive() && type != boolean.class && type != char.class)) {
+            Number number = value instanceof Number ? (Number) value : Double.valueOf(value.toString());
+            if(type == Long.class || type == long.class) {
+                return number.longValue();
+            } else if (type == Integer.class || type == int.class) {
+                return number.intValue();
+            } else if (type == Double.class || type == double.class) {
+                return number.doubleValue();
+            } else if (type == Float.class || type == float.class) {
+                return number.floatValue();
+            }
+        } else if (type == Boolean.class || type == boolean.class) {
+            return Boolean.valueOf(value.toString());
+        } else if (type == Character.class || type == char.class) {
+            String text = value.toString();
+            return text.isEmpty() ? null : text.charAt(0);
+        } else if (type == String.class) {
+            return value.toString();
+        } else if (TemporalAmount.class.isAssignableFrom(type)) {
+            return DateTimeParsers.parseDurationValue(value.toString());
+        } else if (TemporalAccessor.class.isAssignableFrom(type)) {
+            return parseTemporal(value.toString());
+        } else if (type == URI.class) {
+            return URI.create(value.toString());
+        }
+        throw new IllegalArgumentException("cannot convert value " + value + " to type " + type);
+    }
+
+    /**
+     * Parse a date, time or date time, in the format written by the FlatJsonGenerator
+     */
+    private TemporalAccessor parseTemporal(String text) {
+        if(text.indexOf('T') > 0) {
+            return DateTimeParsers.parseDateTimeValue(text);
+        } else if (text.startsWith("T") || text.indexOf(':') >= 0) {
+            return DateTimeParsers.parseTimeValue(text);
+        }
+        return DateTimeParsers.parseDateValue(text);
+    }
+
+    /**
+     * A node in the tree of flat paths, for one RM Object or primitive value
+     */
+    private static class FlatNode {
+        private final String attributeName;
+        private final String nodeId;
+        private final Map<String, FlatNode> children = new LinkedHashMap<>();
+        private String typeName;
+        private Object value;
+
+        FlatNode(String attributeName, String nodeId) {
+            this.attributeName = attributeName;
+            this.nodeId = nodeId;
+        }
+
+        FlatNode getOrAddChild(String segment) {
+            FlatNode child = children.get(segment);
+            if(child == null) {
+                child = parseSegment(segment);
+                children.put(segment, child);
+            }
+            return child;
+        }
+
+        /**
+         * Parse a path segment in any of the index notations, for example items, items:2, items[2], items[id3],
+         * items[id3]:2 or items[id3,2]. The index is not needed, it only makes the segment unique.
+         */
+        private static FlatNode parseSegment(String segment) {
+            int bracketStart = segment.indexOf('[');
+            if(bracketStart < 0) {
+                int colon = segment.indexOf(':');
+                return new FlatNode(colon < 0 ? segment : segment.substring(0, colon), null);
+            }
+            String attributeName = segment.substring(0, bracketStart);
+            int bracketEnd = segment.indexOf(']', bracketStart);
+            String predicate = segment.substring(bracketStart + 1, bracketEnd);
+            int comma = predicate.indexOf(',');
+            String nodeId = comma < 0 ? predicate : predicate.substring(0, comma);
+            if(!nodeId.isEmpty() && Character.isDigit(nodeId.charAt(0))) {
+                //a numeric index, not a node id
+                nodeId = null;
+            }
+            return new FlatNode(attributeName, nodeId);
+        }
+    }
+
+    /**
+     * The compiled plans for a single operational template
+     */
+    private class TemplatePlan {
+        private final OperationalTemplate template;
+        private final Map<String, ObjectPlan> rootPlans = new ConcurrentHashMap<>();
+
+        TemplatePlan(OperationalTemplate template) {
+            this.template = template;
+        }
+
+        ObjectPlan getRootPlan(String typeName) {
+            CObject definition = template == null ? null : template.getDefinition();
+            String actualTypeName = typeName == null && definition != null ? definition.getRmTypeName() : typeName;
+            if(actualTypeName == null) {
+                throw new IllegalArgumentException("The type of the root object is not present in the flat json, and no operational template was given");
+            }
+            return rootPlans.computeIfAbsent(actualTypeName, t -> new ObjectPlan(definition, t));
+        }
+    }
+
+    /**
+     * The compiled plan for a single flat path, without indices: the constraint, the type to create, and the plans of
+     * the children
+     */
+    private class ObjectPlan {
+        private final CObject cObject;
+        private final RMTypeInfo typeInfo;
+        private final Class<?> classToCreate;
+        private final Map<String, ObjectPlan> childPlans = new ConcurrentHashMap<>();
+
+        ObjectPlan(CObject cObject, String typeName) {
+            this.cObject = cObject;
+            this.classToCreate = modelInfoLookup.getClassToBeCreated(typeName);
+            if(classToCreate == null) {
+                throw new IllegalArgumentException("unknown type in flat json: " + typeName);
+            }
+            this.typeInfo = modelInfoLookup.getTypeInfo(classToCreate);
+        }
+
+        ObjectPlan getChildPlan(FlatNode child, RMAttributeInfo attributeInfo) {
+            String key = child.attributeName + "[" + child.nodeId + "]" + child.typeName;
+            ObjectPlan result = childPlans.get(key);
+            if(result == null) {
+                result = childPlans.computeIfAbsent(key, k -> compileChildPlan(child, attributeInfo));
+            }
+            return result;
+        }
+
+        /**
+         * Find the constraint and type of a child, in the same way the FlatJsonGenerator determines whether to write
+         * the type name.
+         */
+        private ObjectPlan compileChildPlan(FlatNode child, RMAttributeInfo attributeInfo) {
+            CAttribute cAttribute = cObject == null ? null : cObject.getAttribute(child.attributeName);
+            CObject childConstraint = null;
+            if(cAttribute != null) {
+                if(child.nodeId != null) {
+                    childConstraint = cAttribute.getChild(child.nodeId);
+                } else if (child.typeName != null) {
+                    List<CObject> childrenByRmTypeName = cAttribute.getChildrenByRmTypeName(child.typeName);
+                    if(childrenByRmTypeName != null && childrenByRmTypeName.size() == 1) {
+                        childConstraint = childrenByRmTypeName.get(0);
+                    }
+                } else if (cAttribute.getChildren().size() == 1 && !(cAttribute.getChildren().get(0) instanceof CPrimitiveObject)) {
+                    childConstraint = cAttribute.getChildren().get(0);
+                }
+            }
+            String typeName = child.typeName;
+            if(typeName == null) {
+                boolean constraintHasRmType = childConstraint != null && modelInfoLookup.getTypeInfo(childConstraint.getRmTypeName()) != null;
+                typeName = constraintHasRmType ? childConstraint.getRmTypeName() : attributeInfo.getTypeNameInCollection();
+            }
+            return new ObjectPlan(childConstraint, typeName);
+        }
+    }
+}
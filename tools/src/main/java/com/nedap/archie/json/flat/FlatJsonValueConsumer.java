@@ -0,0 +1,19 @@
+package com.nedap.archie.json.flat;
+
+import java.io.IOException;
+
+/**
+ * Receives the paths and values of the flat json format one by one, as they are generated by the FlatJsonGenerator.
+ * Can be used to stream the flat json format to any output without building a map first.
+ */
+@FunctionalInterface
+public interface FlatJsonValueConsumer {
+
+    /**
+     * Accept a single path and value of the flat json format
+     * @param path the flat json path
+     * @param value the value, a String, Number or TemporalAmount
+     * @throws IOException in case the value cannot be written
+     */
+    void accept(String path, Object value) throws IOException;
+}
@@ -21,6 +21,7 @@ public class DummyRulesPrimitiveObjectParent extends CAttribute {
 
     public void setPathSegments(List<PathSegment> pathSegments) {
         this.pathSegments = pathSegments;
+        invalidatePaths();
     }
 
     @Override
@@ -43,5 +44,10 @@ public class DummyRulesPrimitiveObjectParent extends CAttribute {
         return archetype;
     }
 
+    @Override
+    protected void structureChanged() {
+        //not part of the definition of the archetype, so no need to invalidate its path index
+    }
+
 
 }
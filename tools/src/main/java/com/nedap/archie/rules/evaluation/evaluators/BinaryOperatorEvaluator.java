@@ -104,7 +104,8 @@ public class BinaryOperatorEvaluator implements Evaluator<BinaryOperator> {
             constraint = (Constraint) constraint.clone();
             //hack to support CTerminologyConstraints properly
             dummyParent = new DummyRulesPrimitiveObjectParent(archetype);
-            constraint.getItem().setParent(dummyParent);
+            //add as child, so the cached path of the item is discarded when the path of the parent is set
+            dummyParent.addChild(constraint.getItem());
         }
         for(Value<?> value:leftValues.getValues()) {
             if(dummyParent != null && !value.getPaths().isEmpty()) {
@@ -13,6 +13,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Collections;
+
 import static org.junit.Assert.*;
 
 /**
@@ -119,6 +121,45 @@ public class AOMPathQueryTest {
         assertNull(precision);
     }
 
+    @Test
+    public void pathIndex() {
+        String[] paths = {"/context[id11]", "/context/other_context", "/context[id11]/other_context[id2]/items[qualification]/items[orderid]",
+            "/context[id11]/other_context[id2]/items[qualification]/items[2]", "/context[id11]/other_context[id2]/items[qualification]/items[4]/value[1]/magnitude",
+            "/context[id11]/health_care_facility/name", "/non_existing_path"};
+        archetype.enablePathIndex();
+        for(String path:paths) {
+            assertEquals(path, new AOMPathQuery(path).findList(archetype.getDefinition()), archetype.itemsAtPath(path));
+            //memoized
+            assertSame(path, archetype.itemsAtPath(path), archetype.itemsAtPath(path));
+        }
+
+        //a clone has an index of its own objects
+        Archetype clone = archetype.clone();
+        assertTrue(clone.isPathIndexEnabled());
+        CComplexObject clonedContext = clone.itemAtPath("/context[id11]");
+        assertNotSame(archetype.itemAtPath("/context[id11]"), clonedContext);
+        assertSame(clone.getDefinition().getAttribute("context").getChildren().get(0), clonedContext);
+
+        CComplexObject orderId = archetype.itemAtPath("/context[id11]/other_context[id2]/items[qualification]/items[orderid]");
+        assertEquals(Collections.singletonList(orderId), archetype.getPathIndex().getConstraintsWithNodeId("id4"));
+        assertEquals(Collections.singletonList(orderId), archetype.getPathIndex().findByLogicalPath(orderId.getLogicalPath()));
+        assertTrue(archetype.getPathIndex().getConstraintsWithNodeId("id9999999").isEmpty());
+
+        //a change discards the index
+        orderId.getParent().removeChild("id4");
+        assertNull(archetype.itemAtPath("/context[id11]/other_context[id2]/items[qualification]/items[orderid]"));
+        assertTrue(archetype.getPathIndex().getConstraintsWithNodeId("id4").isEmpty());
+
+        //renaming an attribute discards the index
+        assertNotNull(archetype.itemAtPath("/context[id11]/other_context"));
+        ((CAttribute) archetype.itemAtPath("/context[id11]/other_context")).setRmAttributeName("setting");
+        assertNull(archetype.itemAtPath("/context[id11]/other_context"));
+        assertNotNull(archetype.itemAtPath("/context[id11]/setting"));
+
+        archetype.disablePathIndex();
+        assertNull(archetype.getPathIndex());
+    }
+
     @Test
     public void findPartial() {
         String queryString = "/context[id11]/other_context[id2]/items[qualification]/items[4]/value[1]";
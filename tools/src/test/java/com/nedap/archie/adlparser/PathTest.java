@@ -4,12 +4,17 @@ import com.nedap.archie.ArchieLanguageConfiguration;
 import com.nedap.archie.aom.Archetype;
 import com.nedap.archie.aom.CAttribute;
 import com.nedap.archie.aom.CObject;
+import com.nedap.archie.aom.terminology.ArchetypeTerm;
+import com.nedap.archie.paths.PathUtil;
 import com.nedap.archie.testutil.TestUtil;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.Stack;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
 
 /**
  * Created by pieter.bos on 20/10/15.
@@ -69,4 +74,62 @@ public class PathTest {
         //id11 and id2 are not translated
         assertEquals("/context[id11]/other_context[id2]/items[Qualification]/items[OrderID]", object.getLogicalPath());
     }
+
+    @Test
+    public void cachedPathsEqualCalculatedPaths() throws Exception {
+        assertCachedPathsCorrect(archetype);
+        Archetype differential = TestUtil.parseFailOnErrors("/adl2-tests/features/specialisation/openEHR-EHR-OBSERVATION.redefine_1_value.v1.0.0.adls");
+        assertNotNull(differential.getDefinition().getAttributes().get(0).getDifferentialPath());
+        assertCachedPathsCorrect(differential);
+        assertCachedPathsCorrect(archetype.clone());
+    }
+
+    @Test
+    public void cachedPathsInvalidated() {
+        CObject id2 = archetype.getDefinition().getAttribute("context").getChild("id11").getAttribute("other_context").getChild("id2");
+        CAttribute items = id2.getAttribute("items");
+        CObject id3 = items.getChild("id3");
+        assertEquals("/context[id11]/other_context[id2]/items[id3]", id3.getPath());
+
+        id2.setNodeId("id2.1");
+        assertEquals("/context[id11]/other_context[id2.1]/items[id3]", id3.getPath());
+        items.setRmAttributeName("other_items");
+        assertEquals("/context[id11]/other_context[id2.1]/other_items[id3]", id3.getPath());
+
+        //move the node to another parent
+        CObject id4 = id3.getAttribute("items").getChild("id4");
+        id3.getAttribute("items").removeChild("id4");
+        archetype.getDefinition().getAttribute("context").addChild(id4);
+        assertEquals("/context[id4]", id4.getPath());
+        assertCachedPathsCorrect(archetype);
+    }
+
+    @Test
+    public void cachedLogicalPaths() {
+        CObject id3 = archetype.getDefinition().getAttribute("context").getChild("id11").getAttribute("other_context").getChild("id2").getAttribute("items").getChild("id3");
+        assertEquals("/context[id11]/other_context[id2]/items[Qualification]", id3.getLogicalPath());
+        ArchieLanguageConfiguration.setThreadLocalLogicalPathLanguage("nl");
+        assertEquals("/context[id11]/other_context[id2]/items[Kwalificatie]", id3.getLogicalPath());
+        ArchieLanguageConfiguration.setThreadLocalLogicalPathLanguage("en");
+        assertEquals("/context[id11]/other_context[id2]/items[Qualification]", id3.getLogicalPath());
+
+        //changes in the terminology are picked up after invalidation
+        ArchetypeTerm term = archetype.getTerminology().getTermDefinition("en", "id3");
+        term.setText("Changed");
+        archetype.invalidateLogicalPaths();
+        assertEquals("/context[id11]/other_context[id2]/items[Changed]", id3.getLogicalPath());
+    }
+
+    private void assertCachedPathsCorrect(Archetype archetype) {
+        Stack<CObject> workList = new Stack<>();
+        workList.add(archetype.getDefinition());
+        while(!workList.isEmpty()) {
+            CObject cObject = workList.pop();
+            assertEquals(PathUtil.getPath(cObject.getPathSegments()), cObject.getPath());
+            for(CAttribute attribute:cObject.getAttributes()) {
+                assertEquals(PathUtil.getPath(attribute.getPathSegments()), attribute.getPath());
+                workList.addAll(attribute.getChildren());
+            }
+        }
+    }
 }
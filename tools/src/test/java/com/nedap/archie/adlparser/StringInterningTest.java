@@ -0,0 +1,84 @@
+package com.nedap.archie.adlparser;
+
+import com.nedap.archie.ArchieStringInterner;
+import com.nedap.archie.aom.Archetype;
+import com.nedap.archie.aom.CAttribute;
+import com.nedap.archie.aom.CObject;
+import com.nedap.archie.json.JacksonUtil;
+import com.nedap.archie.testutil.TestUtil;
+import com.nedap.archie.xml.JAXBUtil;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class StringInterningTest {
+
+    @After
+    public void tearDown() {
+        ArchieStringInterner.setEnabled(true);
+    }
+
+    @Test
+    public void parsedStringsShared() throws Exception {
+        Archetype archetype = TestUtil.parseFailOnErrors("/basic.adl");
+        Archetype other = TestUtil.parseFailOnErrors("/basic.adl");
+        assertShared(archetype, other);
+    }
+
+    @Test
+    public void jsonStringsShared() throws Exception {
+        Archetype archetype = TestUtil.parseFailOnErrors("/basic.adl");
+        String json = JacksonUtil.getObjectMapper().writeValueAsString(archetype);
+        Archetype parsed = JacksonUtil.getObjectMapper().readValue(json, Archetype.class);
+        assertShared(archetype, parsed);
+    }
+
+    @Test
+    public void xmlStringsShared() throws Exception {
+        Archetype archetype = TestUtil.parseFailOnErrors("/basic.adl");
+        StringWriter writer = new StringWriter();
+        JAXBUtil.getArchieJAXBContext().createMarshaller().marshal(archetype, writer);
+        Archetype parsed = (Archetype) JAXBUtil.getArchieJAXBContext().createUnmarshaller().unmarshal(new StringReader(writer.toString()));
+        assertShared(archetype, parsed);
+        assertSame(archetype.getTerminology().getTermDefinition("en", "id1").getCode(),
+                parsed.getTerminology().getTermDefinition("en", "id1").getCode());
+    }
+
+    @Test
+    public void disabled() throws Exception {
+        ArchieStringInterner.setEnabled(false);
+        Archetype archetype = TestUtil.parseFailOnErrors("/basic.adl");
+        Archetype other = TestUtil.parseFailOnErrors("/basic.adl");
+        assertEquals(archetype.getDefinition().getRmTypeName(), other.getDefinition().getRmTypeName());
+        assertNotSame(archetype.getDefinition().getRmTypeName(), other.getDefinition().getRmTypeName());
+    }
+
+    private void assertShared(Archetype archetype, Archetype other) {
+        assertSame(archetype.getDefinition().getRmTypeName(), other.getDefinition().getRmTypeName());
+        assertSame(archetype.getDefinition().getNodeId(), other.getDefinition().getNodeId());
+        CAttribute attribute = archetype.getDefinition().getAttributes().get(0);
+        CAttribute otherAttribute = other.getDefinition().getAttributes().get(0);
+        assertSame(attribute.getRmAttributeName(), otherAttribute.getRmAttributeName());
+        CObject child = attribute.getChildren().get(0);
+        CObject otherChild = otherAttribute.getChildren().get(0);
+        assertSame(child.getRmTypeName(), otherChild.getRmTypeName());
+        assertSame(child.getNodeId(), otherChild.getNodeId());
+        assertSame(archetype.getTerminology().getOriginalLanguage(), other.getTerminology().getOriginalLanguage());
+        assertSame(languageKey(archetype), languageKey(other));
+        assertSame(archetype.getTerminology().getOriginalLanguage(), languageKey(archetype));
+    }
+
+    private String languageKey(Archetype archetype) {
+        for(String language:archetype.getTerminology().getTermDefinitions().keySet()) {
+            if(language.equals("en")) {
+                return language;
+            }
+        }
+        fail("no en term definitions");
+        return null;
+    }
+}
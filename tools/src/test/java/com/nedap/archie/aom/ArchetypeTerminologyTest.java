@@ -2,6 +2,8 @@ package com.nedap.archie.aom;
 
 import com.nedap.archie.ArchieLanguageConfiguration;
 import com.nedap.archie.adlparser.ADLParseException;
+import com.nedap.archie.aom.terminology.ArchetypeTerm;
+import com.nedap.archie.aom.terminology.LazyTermDefinitions;
 import com.nedap.archie.archetypevalidator.ValidationResult;
 import com.nedap.archie.flattener.Flattener;
 import com.nedap.archie.flattener.FlattenerConfiguration;
@@ -12,8 +14,12 @@ import org.junit.Test;
 import org.openehr.referencemodels.BuiltinReferenceModels;
 
 import java.io.IOException;
+import java.util.HashSet;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
 public class ArchetypeTerminologyTest {
@@ -27,6 +33,37 @@ public class ArchetypeTerminologyTest {
     public void termForUseArchetype() throws IOException, ADLParseException {
         //getting the term for a use archetype is a bit of a tricky situation - it's not for the 'id1' code,
         //it's for the code in the parent. So do some specific test here
+        OperationalTemplate opt = createOperationalTemplate();
+        assertTerms(opt);
+    }
+
+    @Test
+    public void lazyTermDefinitions() throws IOException, ADLParseException {
+        OperationalTemplate opt = createOperationalTemplate();
+        ArchetypeTerm term = opt.getTerminology().getTermDefinition("nl", "id2");
+        Set<String> languages = new HashSet<>(opt.getTerminology().getTermDefinitions().keySet());
+
+        opt.makeTermDefinitionsLazy();
+        LazyTermDefinitions termDefinitions = (LazyTermDefinitions) opt.getTerminology().getTermDefinitions();
+        assertTrue(opt.getComponentTerminologies().values().stream().allMatch(t -> t.getTermDefinitions() instanceof LazyTermDefinitions));
+        assertEquals(languages, termDefinitions.keySet());
+        assertFalse(termDefinitions.isLoaded("nl"));
+
+        ArchetypeTerm lazyTerm = opt.getTerminology().getTermDefinition("nl", "id2");
+        assertEquals(term.getCode(), lazyTerm.getCode());
+        assertEquals(term.getText(), lazyTerm.getText());
+        assertEquals(term.getDescription(), lazyTerm.getDescription());
+        assertTrue(termDefinitions.isLoaded("nl"));
+        assertFalse(termDefinitions.isLoaded("en"));
+        assertNull(opt.getTerminology().getTermDefinition("de", "id2"));
+
+        termDefinitions.dropLoadedLanguages();
+        assertFalse(termDefinitions.isLoaded("nl"));
+        assertTerms(opt);
+        assertTerms((OperationalTemplate) opt.clone());
+    }
+
+    private OperationalTemplate createOperationalTemplate() throws IOException, ADLParseException {
         InMemoryFullArchetypeRepository repository = new InMemoryFullArchetypeRepository();
         repository.addArchetype(FlattenerTestUtil.parse("/com/nedap/archie/aom/openEHR-EHR-COMPOSITION.parent.v1.0.0.adls"));
         repository.addArchetype(FlattenerTestUtil.parse("/com/nedap/archie/aom/openEHR-EHR-GENERIC_ENTRY.included.v1.0.0.adls"));
@@ -37,8 +74,10 @@ public class ArchetypeTerminologyTest {
 
         //create operational template
         Flattener flattener = new Flattener(repository, BuiltinReferenceModels.getMetaModels(), FlattenerConfiguration.forOperationalTemplate());
-        OperationalTemplate opt = (OperationalTemplate) flattener.flatten(repository.getArchetype("openEHR-EHR-COMPOSITION.parent.v1.0.0"));
+        return (OperationalTemplate) flattener.flatten(repository.getArchetype("openEHR-EHR-COMPOSITION.parent.v1.0.0"));
+    }
 
+    private void assertTerms(OperationalTemplate opt) {
         //and check the getTerm() functionality
         CArchetypeRoot useArchetype = opt.itemAtPath("/content[id2]");
         ArchieLanguageConfiguration.setThreadLocalDescriptiongAndMeaningLanguage("nl");
@@ -52,8 +91,6 @@ public class ArchetypeTerminologyTest {
         assertEquals("an element", element.getTerm().getText()); //no dutch translation, should fallback to English
         ArchieLanguageConfiguration.setThreadLocalDescriptiongAndMeaningLanguage("en");
         assertEquals("an element", element.getTerm().getText());
-
-
     }
     
     
@@ -3,6 +3,9 @@ package com.nedap.archie.aom;
 import com.nedap.archie.base.MultiplicityInterval;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.Assert.*;
 
 /**
@@ -86,6 +89,120 @@ public class CAttributeTest {
         assertEquals(child2, attribute.getChild("id3"));
     }
 
+    @Test
+    public void getChildAfterChanges() {
+        CAttribute attribute = new CAttribute("items");
+        CComplexObject child1 = createCComplexObject("id2");
+        CComplexObject child2 = createCComplexObject("id3");
+        CComplexObject duplicate = createCComplexObject("id3");
+        attribute.addChild(child1);
+        attribute.addChild(child2);
+        attribute.addChild(duplicate);
+        assertEquals(child2, attribute.getChild("id3"));
+        assertEquals(1, attribute.getIndexOfChildWithNodeId("id3"));
+
+        //changed node id
+        child2.setNodeId("id5");
+        assertEquals(duplicate, attribute.getChild("id3"));
+        assertEquals(child2, attribute.getChild("id5"));
+
+        //added at a sibling order
+        CComplexObject child3 = createCComplexObject("id3");
+        attribute.addChild(child3, SiblingOrder.createBefore("id2"));
+        assertEquals(child3, attribute.getChild("id3"));
+        assertEquals(0, attribute.getIndexOfChildWithNodeId("id3"));
+
+        //removed
+        attribute.removeChild("id3");
+        assertEquals(duplicate, attribute.getChild("id3"));
+        assertEquals(2, attribute.getIndexOfChildWithNodeId("id3"));
+
+        //changed directly in the list
+        CComplexObject child4 = createCComplexObject("id4");
+        attribute.getChildren().add(child4);
+        assertEquals(child4, attribute.getChild("id4"));
+        attribute.getChildren().remove(0);
+        assertEquals(-1, attribute.getIndexOfChildWithNodeId("id2"));
+        assertEquals(1, attribute.getIndexOfChildWithNodeId("id3"));
+        //moved to the end, without changing the size
+        attribute.getChildren().remove(duplicate);
+        attribute.getChildren().add(duplicate);
+        assertEquals(2, attribute.getIndexOfChildWithNodeId("id3"));
+        attribute.getChildren().set(0, child1);
+        assertEquals(child1, attribute.getChild("id2"));
+        assertNull(attribute.getChild("id5"));
+    }
+
+    @Test
+    public void getChildWithOtherList() {
+        CAttribute attribute = new CAttribute("items");
+        List<CObject> children = new ArrayList<>();
+        attribute.setChildren(children);
+        CComplexObject child1 = createCComplexObject("id2.1");
+        children.add(child1);
+        assertEquals(child1, attribute.getChild("id2.1"));
+        assertEquals(child1, attribute.getPossiblySpecializedChild("id2"));
+        assertEquals(0, attribute.getIndexOfChildWithNodeId("id2.1"));
+    }
+
+    @Test
+    public void getChildByArchetypeRefAndProxy() {
+        CAttribute attribute = new CAttribute("items");
+        CArchetypeRoot root = new CArchetypeRoot();
+        root.setNodeId("id2");
+        root.setArchetypeRef("openEHR-EHR-CLUSTER.test.v1");
+        CComplexObjectProxy proxy = new CComplexObjectProxy();
+        proxy.setNodeId("id3");
+        proxy.setTargetPath("/data[id4]/items[id5]");
+        attribute.addChild(root);
+        attribute.addChild(proxy);
+
+        assertEquals(root, attribute.getChild("id2"));
+        assertEquals(root, attribute.getChild("openEHR-EHR-CLUSTER.test.v1"));
+        assertEquals(proxy, attribute.getChild("id5"));
+        assertNull(attribute.getChild("id4"));
+
+        proxy.setTargetPath("/data[id4]");
+        assertEquals(proxy, attribute.getChild("id4"));
+        assertNull(attribute.getChild("id5"));
+        root.setArchetypeRef("openEHR-EHR-CLUSTER.other.v1");
+        assertNull(attribute.getChild("openEHR-EHR-CLUSTER.test.v1"));
+        assertEquals(root, attribute.getChild("openEHR-EHR-CLUSTER.other.v1"));
+    }
+
+    @Test
+    public void getPossiblySpecializedChild() {
+        CAttribute attribute = new CAttribute("items");
+        CComplexObject child1 = createCComplexObject("id2");
+        CComplexObject child2 = createCComplexObject("id3.1.1");
+        CComplexObject child3 = createCComplexObject("id3.1");
+        attribute.addChild(child1);
+        attribute.addChild(child2);
+        attribute.addChild(child3);
+
+        assertEquals(child1, attribute.getPossiblySpecializedChild("id2"));
+        assertEquals(child2, attribute.getPossiblySpecializedChild("id3"));
+        assertEquals(child3, attribute.getPossiblySpecializedChild("id3.1"));
+        assertEquals(child2, attribute.getPossiblySpecializedChild("id3.1.1"));
+        assertNull(attribute.getPossiblySpecializedChild("id3.2"));
+        assertNull(attribute.getPossiblySpecializedChild("id31"));
+    }
+
+    @Test
+    public void largeAttribute() {
+        CAttribute attribute = new CAttribute("items");
+        int size = 20_000;
+        for(int i = 0; i < size; i++) {
+            attribute.addChild(createCComplexObject("id" + i));
+            //lookups in between additions should not cause the index to be rebuilt every time
+            assertNotNull(attribute.getChild("id" + i));
+        }
+        for(int i = 0; i < size; i++) {
+            assertEquals(i, attribute.getIndexOfChildWithNodeId("id" + i));
+            assertEquals("id" + i, attribute.getChild("id" + i).getNodeId());
+        }
+    }
+
     @Test
     public void isLeaf() {
         CAttribute cAttribute = new CAttribute("items");
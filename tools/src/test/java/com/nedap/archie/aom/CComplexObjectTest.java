@@ -27,4 +27,31 @@ public class CComplexObjectTest {
 
         assertFalse(cComplexObject.isLeaf());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void getAttribute() {
+        CComplexObject cComplexObject = new CComplexObject();
+        CAttribute items = new CAttribute("items");
+        CAttribute differential = new CAttribute("items");
+        differential.setDifferentialPath("/data/items");
+        cComplexObject.addAttribute(differential);
+        cComplexObject.addAttribute(items);
+
+        assertEquals(items, cComplexObject.getAttribute("items"));
+        assertEquals(differential, cComplexObject.getAttribute("/data/items"));
+
+        items.setRmAttributeName("other_items");
+        assertNull(cComplexObject.getAttribute("items"));
+        assertEquals(items, cComplexObject.getAttribute("other_items"));
+
+        differential.setDifferentialPath(null);
+        assertEquals(differential, cComplexObject.getAttribute("items"));
+        assertNull(cComplexObject.getAttribute("/data/items"));
+
+        cComplexObject.removeAttribute(differential);
+        assertNull(cComplexObject.getAttribute("items"));
+        CAttribute replacement = new CAttribute("other_items");
+        cComplexObject.replaceAttribute(replacement);
+        assertEquals(replacement, cComplexObject.getAttribute("other_items"));
+    }
+}
@@ -1,5 +1,6 @@
 package com.nedap.archie.aom;
 
+import com.google.common.collect.Lists;
 import com.nedap.archie.aom.primitives.CString;
 import org.junit.Test;
 
@@ -62,4 +63,31 @@ public class StringConstraintsTest {
         assertTrue(mixedConstraints.isValidValue("Something else"));
         assertFalse(mixedConstraints.isValidValue("what more?"));
     }
+
+    @Test
+    public void changedConstraint() {
+        CString constraint = new CString();
+        constraint.addConstraint("/a+b*/");
+        assertTrue(constraint.isValidValue("ab"));
+        assertFalse(constraint.isValidValue("dbcaa"));
+
+        constraint.addConstraint("^dbca+^");
+        assertTrue(constraint.isValidValue("dbcaa"));
+
+        //modifying the list directly is also detected
+        constraint.getConstraint().set(0, "Something else");
+        assertFalse(constraint.isValidValue("ab"));
+        assertTrue(constraint.isValidValue("Something else"));
+
+        constraint.setConstraint(Lists.newArrayList("/c+/"));
+        assertFalse(constraint.isValidValue("Something else"));
+        assertTrue(constraint.isValidValue("ccc"));
+
+        //a clone compiles its own constraint
+        CString clone = (CString) constraint.clone();
+        assertTrue(clone.isValidValue("ccc"));
+        clone.addConstraint("d");
+        assertTrue(clone.isValidValue("d"));
+        assertFalse(constraint.isValidValue("d"));
+    }
 }
@@ -76,6 +76,52 @@ public class TerminologyCodeConstraintsTest {
         assertTrue(code.isValidValue(TerminologyCode.createFromString("[local::at23]")));
     }
 
+    @Test
+    public void changedValueSets() {
+        CTerminologyCode code = new CTerminologyCode();
+        code.setParent(new DummyRulesPrimitiveObjectParent(archetype));
+        code.addConstraint("ac13");
+        assertFalse(code.isValidValue(TerminologyCode.createFromString("[local::at23]")));
+
+        //modifying the list directly is also detected
+        code.getConstraint().set(0, "ac12");
+        assertTrue(code.isValidValue(TerminologyCode.createFromString("[local::at23]")));
+        code.getConstraint().set(0, "ac13");
+        assertFalse(code.isValidValue(TerminologyCode.createFromString("[local::at23]")));
+
+        code.setConstraint(Lists.newArrayList("ac12"));
+        assertTrue(code.isValidValue(TerminologyCode.createFromString("[local::at23]")));
+
+        //changes within the value set require clearing the cache
+        archetype.getTerminology().getValueSets().get("ac12").setMembers(Sets.newHashSet("at24"));
+        code.clearValueSetCache();
+        assertFalse(code.isValidValue(TerminologyCode.createFromString("[local::at23]")));
+        assertTrue(code.isValidValue(TerminologyCode.createFromString("[local::at24]")));
+    }
+
+    @Test
+    public void clonedValueSets() {
+        CComplexObject definition = new CComplexObject();
+        definition.setRmTypeName("ELEMENT");
+        definition.setNodeId("id1");
+        CAttribute value = new CAttribute("value");
+        definition.addAttribute(value);
+        CTerminologyCode code = new CTerminologyCode();
+        code.addConstraint("ac12");
+        value.addChild(code);
+        archetype.setDefinition(definition);
+        assertTrue(code.isValidValue(TerminologyCode.createFromString("[local::at23]")));
+
+        //the clone has its own terminology, so changing it does not change the original
+        archetype.getTerminology().setTermBindings(new HashMap<>());//double brace initialization cannot be cloned
+        Archetype clone = archetype.clone();
+        CTerminologyCode clonedCode = (CTerminologyCode) clone.getDefinition().getAttribute("value").getChildren().get(0);
+        clone.getTerminology().getValueSets().get("ac12").setMembers(Sets.newHashSet("at24"));
+        assertFalse(clonedCode.isValidValue(TerminologyCode.createFromString("[local::at23]")));
+        assertTrue(clonedCode.isValidValue(TerminologyCode.createFromString("[local::at24]")));
+        assertTrue(code.isValidValue(TerminologyCode.createFromString("[local::at23]")));
+    }
+
     @Test
     public void externalTerminology() {
         CTerminologyCode code = new CTerminologyCode();
@@ -0,0 +1,91 @@
+package com.nedap.archie.archetypevalidator;
+
+import com.nedap.archie.flattener.FullArchetypeRepository;
+import com.nedap.archie.rminfo.MetaModels;
+import com.nedap.archie.testutil.TestUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openehr.referencemodels.BuiltinReferenceModels;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that validating independent validations in parallel gives exactly the same results as validating sequentially
+ */
+public class ParallelArchetypeValidatorTest {
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setup() {
+        executorService = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void sameResultsAsSequential() {
+        FullArchetypeRepository sequentialRepository = TestUtil.parseCKM();
+        ArchetypeValidator sequentialValidator = new ArchetypeValidator(createMetaModels());
+        sequentialValidator.setCollectTimings(true);
+        sequentialRepository.compile(sequentialValidator);
+
+        FullArchetypeRepository parallelRepository = TestUtil.parseCKM();
+        ArchetypeValidator validator = new ArchetypeValidator(createMetaModels());
+        validator.setParallelValidationExecutor(executorService);
+        validator.setCollectTimings(true);
+        parallelRepository.compile(validator);
+
+        assertEquals(sequentialRepository.getAllValidationResults().size(), parallelRepository.getAllValidationResults().size());
+        for(ValidationResult sequentialResult:sequentialRepository.getAllValidationResults()) {
+            ValidationResult parallelResult = parallelRepository.getValidationResult(sequentialResult.getArchetypeId());
+            assertNotNull(parallelResult);
+            assertEquals(sequentialResult.getArchetypeId(), sequentialResult.getErrors().toString(), parallelResult.getErrors().toString());
+            assertNotNull(sequentialResult.getArchetypeId(), sequentialResult.getTimings());
+            assertNotNull(parallelResult.getArchetypeId(), parallelResult.getTimings());
+            assertEquals(sequentialResult.getTimings().getValidationDurations().keySet(), parallelResult.getTimings().getValidationDurations().keySet());
+        }
+    }
+
+    @Test
+    public void validationDurations() {
+        FullArchetypeRepository repository = TestUtil.parseCKM(".*openEHR-EHR-OBSERVATION\\.blood_pressure\\.v1.*\\.adls");
+        ArchetypeValidator validator = new ArchetypeValidator(createMetaModels());
+        validator.setParallelValidationExecutor(executorService);
+        validator.setCollectTimings(true);
+        ValidationResult result = validator.validate(repository.getAllArchetypes().get(0), repository);
+        assertTrue(result.toString(), result.passes());
+        ValidationTimings timings = result.getTimings();
+        assertTrue(timings.getValidationDurations().containsKey("CodeValidation"));
+        assertTrue(timings.getValidationDurations().containsKey("ValidateAgainstReferenceModel"));
+        assertTrue(timings.getValidationDurations().containsKey("FlatFormValidation"));
+    }
+
+    @Test(timeout = 60000)
+    public void validateOnThreadOfSameExecutor() throws Exception {
+        //with a single thread, waiting for the parallel validations from the thread of the executor would never finish
+        ExecutorService singleThread = Executors.newSingleThreadExecutor();
+        try {
+            FullArchetypeRepository repository = TestUtil.parseCKM(".*openEHR-EHR-OBSERVATION\\.blood_pressure\\.v1.*\\.adls");
+            ArchetypeValidator validator = new ArchetypeValidator(createMetaModels());
+            validator.setParallelValidationExecutor(singleThread);
+            ValidationResult result = singleThread.submit(() -> validator.validate(repository.getAllArchetypes().get(0), repository)).get();
+            assertTrue(result.toString(), result.passes());
+        } finally {
+            singleThread.shutdownNow();
+        }
+    }
+
+    private MetaModels createMetaModels() {
+        return new MetaModels(BuiltinReferenceModels.getAvailableModelInfoLookups(), BuiltinReferenceModels.getBmmRepository(), BuiltinReferenceModels.getAomProfiles());
+    }
+}
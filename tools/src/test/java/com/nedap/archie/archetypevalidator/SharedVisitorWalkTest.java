@@ -0,0 +1,53 @@
+package com.nedap.archie.archetypevalidator;
+
+import com.nedap.archie.archetypevalidator.validations.CodeValidation;
+import com.nedap.archie.archetypevalidator.validations.FlatFormValidation;
+import com.nedap.archie.flattener.FullArchetypeRepository;
+import com.nedap.archie.testutil.TestUtil;
+import org.junit.Test;
+import org.openehr.referencemodels.BuiltinReferenceModels;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Checks that ValidatingVisitors sharing a single walk over the definition give exactly the same results as walking
+ * the definition separately
+ */
+public class SharedVisitorWalkTest {
+
+    @Test
+    public void sameResultsAsSeparateWalks() {
+        FullArchetypeRepository separateRepository = TestUtil.parseCKM();
+        ArchetypeValidator separateValidator = new ArchetypeValidator(BuiltinReferenceModels.getMetaModels());
+        assertFalse(separateValidator.isShareVisitorWalks());
+        separateValidator.setCollectTimings(true);
+        separateRepository.compile(separateValidator);
+
+        FullArchetypeRepository sharedRepository = TestUtil.parseCKM();
+        ArchetypeValidator sharedValidator = new ArchetypeValidator(BuiltinReferenceModels.getMetaModels());
+        sharedValidator.setShareVisitorWalks(true);
+        sharedValidator.setCollectTimings(true);
+        sharedRepository.compile(sharedValidator);
+
+        assertEquals(separateRepository.getAllValidationResults().size(), sharedRepository.getAllValidationResults().size());
+        for(ValidationResult separateResult:separateRepository.getAllValidationResults()) {
+            ValidationResult sharedResult = sharedRepository.getValidationResult(separateResult.getArchetypeId());
+            assertNotNull(sharedResult);
+            assertEquals(separateResult.getArchetypeId(), separateResult.getErrors().toString(), sharedResult.getErrors().toString());
+            assertNotNull(separateResult.getArchetypeId(), separateResult.getTimings());
+            assertNotNull(sharedResult.getArchetypeId(), sharedResult.getTimings());
+            assertEquals(separateResult.getTimings().getValidationDurations().keySet(), sharedResult.getTimings().getValidationDurations().keySet());
+        }
+    }
+
+    @Test
+    public void onlyDeclaredVisitorsShareWalks() {
+        ValidatingVisitor codeValidation = new CodeValidation();
+        ValidatingVisitor flatFormValidation = new FlatFormValidation();
+        assertTrue(codeValidation.canShareWalk());
+        assertFalse(flatFormValidation.canShareWalk());
+    }
+}
@@ -0,0 +1,91 @@
+package com.nedap.archie.archetypevalidator;
+
+import com.nedap.archie.flattener.FullArchetypeRepository;
+import com.nedap.archie.testutil.TestUtil;
+import org.junit.Test;
+import org.openehr.referencemodels.BuiltinReferenceModels;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ValidationTimingsTest {
+
+    private static final String PARENT_ID = "openEHR-EHR-OBSERVATION.pathology_test.v1.0.0";
+    private static final String PARENT_REFERENCE = "openEHR-EHR-OBSERVATION.pathology_test.v1";
+    private static final String CHILD_ID = "openEHR-EHR-OBSERVATION.pathology_test-blood_glucose.v1.0.0";
+
+    @Test
+    public void listenerAndTimings() {
+        FullArchetypeRepository repository = TestUtil.parseCKM(".*openEHR-EHR-OBSERVATION\\.pathology_test.*\\.adls");
+        ArchetypeValidator validator = new ArchetypeValidator(BuiltinReferenceModels.getMetaModels());
+        List<String> events = new ArrayList<>();
+        validator.addListener(new ArchetypeValidatorListener() {
+            @Override
+            public void validationCompleted(String archetypeId, int phase, ArchetypeValidation validation, long duration) {
+                events.add("validation " + archetypeId + " " + phase + " " + validation.getClass().getSimpleName());
+            }
+
+            @Override
+            public void phaseCompleted(String archetypeId, int phase, long duration) {
+                events.add("phase " + archetypeId + " " + phase);
+            }
+
+            @Override
+            public void flatteningCompleted(String archetypeId, long duration) {
+                events.add("flattening " + archetypeId);
+            }
+
+            @Override
+            public void operationalTemplateCreationCompleted(String archetypeId, long duration) {
+                events.add("opt " + archetypeId);
+            }
+
+            @Override
+            public void repositoryLookupCompleted(String archetypeId, String lookedUpArchetypeId, long duration) {
+                events.add("lookup " + archetypeId + " " + lookedUpArchetypeId);
+            }
+
+            @Override
+            public void archetypeValidated(ValidationResult result, long duration) {
+                events.add("validated " + result.getArchetypeId());
+            }
+        });
+        validator.setCollectTimings(true);
+
+        ValidationResult result = validator.validate(repository.getArchetype(CHILD_ID), repository);
+        assertTrue(result.toString(), result.passes());
+
+        //the parent is validated during the lookup, before the child
+        assertTrue(events.indexOf("validated " + PARENT_ID) < events.indexOf("lookup " + CHILD_ID + " " + PARENT_REFERENCE));
+        for(String archetypeId:Arrays.asList(PARENT_ID, CHILD_ID)) {
+            for(int phase = 0; phase <= 3; phase++) {
+                assertTrue(events.contains("phase " + archetypeId + " " + phase));
+            }
+            assertTrue(events.contains("validation " + archetypeId + " 1 CodeValidation"));
+            assertTrue(events.contains("flattening " + archetypeId));
+            assertTrue(events.contains("opt " + archetypeId));
+        }
+        assertEquals("validated " + CHILD_ID, events.get(events.size() - 1));
+
+        ValidationTimings timings = result.getTimings();
+        assertNotNull(timings);
+        assertEquals(Arrays.asList(0, 1, 2, 3), new ArrayList<>(timings.getPhaseDurations().keySet()));
+        assertTrue(timings.getValidationDurations().containsKey("CodeValidation"));
+        assertTrue(timings.getValidationDurations().containsKey("FlatFormValidation"));
+        assertTrue(timings.getFlatteningDuration() > 0);
+        assertTrue(timings.getOperationalTemplateCreationDuration() > 0);
+        assertTrue(timings.getRepositoryLookupDurations().containsKey(PARENT_REFERENCE));
+        assertTrue(timings.getTotalDuration() >= timings.getRepositoryLookupDurations().get(PARENT_REFERENCE) + timings.getFlatteningDuration());
+        assertNotNull(repository.getValidationResult(PARENT_ID).getTimings());
+    }
+
+    @Test
+    public void noTimingsByDefault() {
+        FullArchetypeRepository repository = TestUtil.parseCKM(".*openEHR-EHR-OBSERVATION\\.pathology_test\\.v1.*\\.adls");
+        ValidationResult result = new ArchetypeValidator(BuiltinReferenceModels.getMetaModels()).validate(repository.getArchetype(PARENT_ID), repository);
+        assertNull(result.getTimings());
+    }
+}
@@ -0,0 +1,140 @@
+package com.nedap.archie.diff.rm;
+
+import com.nedap.archie.json.JacksonUtil;
+import com.nedap.archie.query.RMPathQuery;
+import com.nedap.archie.rm.composition.Composition;
+import com.nedap.archie.rm.composition.Observation;
+import com.nedap.archie.rm.datastructures.Element;
+import com.nedap.archie.rm.datastructures.Item;
+import com.nedap.archie.rm.datastructures.ItemTree;
+import com.nedap.archie.rm.datavalues.DvText;
+import com.nedap.archie.rm.datavalues.quantity.DvCount;
+import com.nedap.archie.rminfo.ArchieRMInfoLookup;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class RMDifferentiatorTest {
+
+    private Composition oldVersion;
+    private RMDifferentiator differentiator;
+    private RMDeltaApplier applier;
+
+    @Before
+    public void setup() throws Exception {
+        try(InputStream stream = getClass().getResourceAsStream("/com/nedap/archie/json/pablos_example.json")) {
+            oldVersion = JacksonUtil.getObjectMapper().readValue(stream, Composition.class);
+        }
+        differentiator = new RMDifferentiator(ArchieRMInfoLookup.getInstance());
+        applier = new RMDeltaApplier(ArchieRMInfoLookup.getInstance());
+    }
+
+    @Test
+    public void identicalVersions() {
+        assertTrue(differentiator.diff(oldVersion, (Composition) oldVersion.clone()).isEmpty());
+    }
+
+    @Test
+    public void changedValue() {
+        Composition newVersion = (Composition) oldVersion.clone();
+        Element element = (Element) getItems(newVersion).get(0);
+        element.setValue(new DvText("changed"));
+
+        RMDelta delta = differentiator.diff(oldVersion, newVersion);
+        assertEquals(1, delta.size());
+        RMDeltaOperation operation = delta.getOperations().get(0);
+        assertEquals(RMDeltaOperation.Type.SET, operation.getType());
+        assertEquals("/content[openEHR-EHR-OBSERVATION.lab_test-result.v1]/data[at0001]/events[at0002]/data[at0003]/items[at0005]/value", operation.getPath());
+        assertApplies(newVersion, delta);
+    }
+
+    @Test
+    public void insertedRemovedAndReordered() {
+        Composition newVersion = (Composition) oldVersion.clone();
+        List<Item> items = getItems(newVersion);
+        Item first = items.remove(0);
+        items.add(first);
+        items.add(1, new Element("at0100", new DvText("new element"), new DvCount(3L)));
+        items.remove(2);
+        newVersion.setName(new DvText("Another report"));
+
+        RMDelta delta = differentiator.diff(oldVersion, newVersion);
+        assertFalse(delta.isEmpty());
+        assertApplies(newVersion, delta);
+    }
+
+    @Test
+    public void removedAndAddedContent() {
+        Composition newVersion = (Composition) oldVersion.clone();
+        Observation observation = (Observation) newVersion.getContent().remove(0);
+
+        RMDelta removeDelta = differentiator.diff(oldVersion, newVersion);
+        assertEquals(1, removeDelta.size());
+        assertEquals(RMDeltaOperation.Type.REMOVE, removeDelta.getOperations().get(0).getType());
+        assertApplies(newVersion, removeDelta);
+
+        RMDelta addDelta = differentiator.diff(newVersion, oldVersion);
+        assertEquals(1, addDelta.size());
+        assertEquals(RMDeltaOperation.Type.INSERT, addDelta.getOperations().get(0).getType());
+        Composition patched = (Composition) newVersion.clone();
+        applier.apply(patched, addDelta);
+        assertEquals(oldVersion, patched);
+        //the inserted observation must be a copy, with the patched composition as its parent
+        assertNotSame(observation, patched.getContent().get(0));
+        assertSame(patched, patched.getContent().get(0).getParent());
+    }
+
+    @Test
+    public void deltaIsIndependentOfNewVersion() {
+        Composition newVersion = (Composition) oldVersion.clone();
+        getItems(newVersion).add(new Element("at0100", new DvText("new element"), new DvCount(3L)));
+        RMDelta delta = differentiator.diff(oldVersion, newVersion);
+        Composition expected = (Composition) newVersion.clone();
+        getItems(newVersion).clear();
+
+        assertApplies(expected, delta);
+        //applying twice to different copies gives the same result
+        assertApplies(expected, delta);
+    }
+
+    @Test
+    public void pathsResolveWithPathQuery() {
+        Composition newVersion = (Composition) oldVersion.clone();
+        List<Item> items = getItems(newVersion);
+        Item first = items.remove(0);
+        items.add(first);
+        //two new elements with the same node id, so these need an index
+        items.add(1, new Element("at0100", new DvText("new element"), new DvCount(3L)));
+        items.add(3, new Element("at0100", new DvText("another new element"), new DvCount(4L)));
+        items.remove(2);
+        ((Element) items.get(0)).setValue(new DvText("changed"));
+        newVersion.setName(new DvText("Another report"));
+
+        RMDelta delta = differentiator.diff(oldVersion, newVersion);
+        assertTrue(delta.getOperations().stream().anyMatch(operation -> operation.getPath().endsWith("/items[at0100,2]")));
+        for(RMDeltaOperation operation:delta.getOperations()) {
+            RMPathQuery query = new RMPathQuery(operation.getPath());
+            if(operation.getType() == RMDeltaOperation.Type.REMOVE) {
+                assertNotNull(operation.getPath(), query.find(ArchieRMInfoLookup.getInstance(), oldVersion));
+            } else {
+                assertEquals(operation.getPath(), operation.getValue(), query.find(ArchieRMInfoLookup.getInstance(), newVersion));
+            }
+        }
+        assertApplies(newVersion, delta);
+    }
+
+    private void assertApplies(Composition newVersion, RMDelta delta) {
+        Composition patched = (Composition) oldVersion.clone();
+        applier.apply(patched, delta);
+        assertEquals(newVersion, patched);
+    }
+
+    private List<Item> getItems(Composition composition) {
+        Observation observation = (Observation) composition.getContent().get(0);
+        return ((ItemTree) observation.getData().getEvents().get(0).getData()).getItems();
+    }
+}
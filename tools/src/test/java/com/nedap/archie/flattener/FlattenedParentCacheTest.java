@@ -0,0 +1,116 @@
+package com.nedap.archie.flattener;
+
+import com.nedap.archie.adlparser.ADLParser;
+import com.nedap.archie.aom.Archetype;
+import com.nedap.archie.rminfo.MetaModels;
+import com.nedap.archie.serializer.adl.ADLArchetypeSerializer;
+import org.junit.Before;
+import org.junit.Test;
+import org.openehr.referencemodels.BuiltinReferenceModels;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlattenedParentCacheTest {
+
+    private static final String REPORT_RESULT = "openEHR-EHR-COMPOSITION.report-result.v1.0.0";
+
+    private InMemoryFullArchetypeRepository repository;
+    private Archetype reportWithSynopsis;
+    private Map<String, Integer> flattenCounts;
+
+    @Before
+    public void setup() throws Exception {
+        // report-result-with-synopsis specializes report-result, which specializes report
+        // so report-result is the only parent that needs to be flattened
+        repository = new InMemoryFullArchetypeRepository();
+        repository.addArchetype(parse("openEHR-EHR-COMPOSITION.report.v1.adls"));
+        repository.addArchetype(parse("openEHR-EHR-COMPOSITION.report-result.v1.adls"));
+        repository.addArchetype(parse("openEHR-EHR-EVALUATION.clinical_synopsis.v1.0.0.adls"));
+        reportWithSynopsis = parse("openEHR-EHR-COMPOSITION.report-result-with-synopsis.v1.0.0.adls");
+        repository.addArchetype(reportWithSynopsis);
+        flattenCounts = new HashMap<>();
+    }
+
+    @Test
+    public void parentsFlattenedOnce() {
+        Archetype first = new CountingFlattener(repository, createMetaModels(), FlattenerConfiguration.forFlattened()).flatten(reportWithSynopsis);
+        Archetype second = new CountingFlattener(repository, createMetaModels(), FlattenerConfiguration.forFlattened()).flatten(reportWithSynopsis);
+
+        assertEquals(1, (int) flattenCounts.get(REPORT_RESULT));
+        assertEquals(1, repository.getFlattenedParentCache().size());
+
+        //flattening without a cache must give the same result
+        SimpleArchetypeRepository uncachedRepository = new SimpleArchetypeRepository();
+        repository.getAllArchetypes().forEach(uncachedRepository::addArchetype);
+        Archetype uncached = new Flattener(uncachedRepository, createMetaModels(), FlattenerConfiguration.forFlattened()).flatten(reportWithSynopsis);
+        assertEquals(ADLArchetypeSerializer.serialize(uncached), ADLArchetypeSerializer.serialize(first));
+        assertEquals(ADLArchetypeSerializer.serialize(uncached), ADLArchetypeSerializer.serialize(second));
+    }
+
+    @Test
+    public void differentConfigurationsCachedSeparately() {
+        new CountingFlattener(repository, createMetaModels(), FlattenerConfiguration.forFlattened()).flatten(reportWithSynopsis);
+        new CountingFlattener(repository, createMetaModels(), FlattenerConfiguration.forOperationalTemplate()).flatten(reportWithSynopsis);
+        new CountingFlattener(repository, createMetaModels(), FlattenerConfiguration.forOperationalTemplate()).flatten(reportWithSynopsis);
+
+        assertEquals(2, (int) flattenCounts.get(REPORT_RESULT));
+        assertEquals(2, repository.getFlattenedParentCache().size());
+    }
+
+    @Test
+    public void invalidatedOnAddArchetype() throws Exception {
+        new CountingFlattener(repository, createMetaModels(), FlattenerConfiguration.forFlattened()).flatten(reportWithSynopsis);
+
+        repository.addArchetype(parse("openEHR-EHR-COMPOSITION.report-result.v1.adls"));
+        assertEquals(0, repository.getFlattenedParentCache().size());
+        new CountingFlattener(repository, createMetaModels(), FlattenerConfiguration.forFlattened()).flatten(reportWithSynopsis);
+        assertEquals(2, (int) flattenCounts.get(REPORT_RESULT));
+
+        //the parent of the parent changes
+        repository.addArchetype(parse("openEHR-EHR-COMPOSITION.report.v1.adls"));
+        assertEquals(0, repository.getFlattenedParentCache().size());
+        new CountingFlattener(repository, createMetaModels(), FlattenerConfiguration.forFlattened()).flatten(reportWithSynopsis);
+        assertEquals(3, (int) flattenCounts.get(REPORT_RESULT));
+    }
+
+    @Test
+    public void overriddenParentNotUsed() throws Exception {
+        new CountingFlattener(repository, createMetaModels(), FlattenerConfiguration.forFlattened()).flatten(reportWithSynopsis);
+
+        OverridingInMemFullArchetypeRepository overridingRepository = new OverridingInMemFullArchetypeRepository(repository);
+        overridingRepository.addExtraArchetype(parse("openEHR-EHR-COMPOSITION.report-result.v1.adls"));
+        new CountingFlattener(overridingRepository, createMetaModels(), FlattenerConfiguration.forFlattened()).flatten(reportWithSynopsis);
+
+        assertEquals(2, (int) flattenCounts.get(REPORT_RESULT));
+    }
+
+    private Archetype parse(String fileName) throws Exception {
+        return new ADLParser().parse(FlattenedParentCacheTest.class.getResourceAsStream(fileName));
+    }
+
+    private MetaModels createMetaModels() {
+        return new MetaModels(BuiltinReferenceModels.getAvailableModelInfoLookups(), BuiltinReferenceModels.getBmmRepository(), BuiltinReferenceModels.getAomProfiles());
+    }
+
+    private class CountingFlattener extends Flattener {
+
+        CountingFlattener(ArchetypeRepository repository, MetaModels models, FlattenerConfiguration configuration) {
+            super(repository, models, configuration);
+        }
+
+        @Override
+        public Archetype flatten(Archetype toFlatten) {
+            flattenCounts.merge(toFlatten.getArchetypeId().getFullId(), 1, Integer::sum);
+            return super.flatten(toFlatten);
+        }
+
+        @Override
+        protected Flattener getNewFlattenerForParent() {
+            return new CountingFlattener(getRepository(), getMetaModels(), getConfig())
+                    .createOperationalTemplate(false);
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.nedap.archie.json;
+
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.nedap.archie.aom.Archetype;
+import com.nedap.archie.rm.composition.Composition;
+import com.nedap.archie.rm.datavalues.DvText;
+import com.nedap.archie.testutil.TestUtil;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class GeneratedAccessorModuleTest {
+
+    @Test
+    public void sameOutputForRM() throws Exception {
+        ArchieJacksonConfiguration configuration = ArchieJacksonConfiguration.createStandardsCompliant();
+        configuration.setGeneratedPropertyAccessors(true);
+        ObjectMapper generatedMapper = JacksonUtil.getObjectMapper(configuration);
+        ObjectMapper standardMapper = JacksonUtil.getObjectMapper();
+        assertNotSame(standardMapper, generatedMapper);
+
+        try(InputStream stream = getClass().getResourceAsStream("pablos_example.json")) {
+            Composition composition = standardMapper.readValue(stream, Composition.class);
+            String json = standardMapper.writeValueAsString(composition);
+
+            Composition generatedComposition = generatedMapper.readValue(json, Composition.class);
+            assertEquals(composition, generatedComposition);
+            assertEquals(json, generatedMapper.writeValueAsString(generatedComposition));
+        }
+    }
+
+    @Test
+    public void generatedAccessorsUsed() throws Exception {
+        ArchieJacksonConfiguration configuration = ArchieJacksonConfiguration.createStandardsCompliant();
+        configuration.setGeneratedPropertyAccessors(true);
+        ObjectMapper generatedMapper = JacksonUtil.getObjectMapper(configuration);
+
+        JsonSerializer<Object> serializer = generatedMapper.getSerializerProviderInstance().findValueSerializer(DvText.class);
+        Iterator<PropertyWriter> properties = serializer.properties();
+        assertTrue(properties.hasNext());
+        while(properties.hasNext()) {
+            assertTrue(properties.next() instanceof GeneratedGetterPropertyWriter);
+        }
+    }
+
+    @Test
+    public void sameOutputForAOM() throws Exception {
+        ArchieJacksonConfiguration configuration = ArchieJacksonConfiguration.createConfigForJavascriptUsage();
+        configuration.setGeneratedPropertyAccessors(true);
+        ArchieJacksonConfiguration standardConfiguration = ArchieJacksonConfiguration.createConfigForJavascriptUsage();
+
+        Archetype archetype = TestUtil.parseFailOnErrors("/com/nedap/archie/json/openEHR-EHR-CLUSTER.datavalues.v1.adls");
+        String json = JacksonUtil.getObjectMapper(standardConfiguration).writeValueAsString(archetype);
+        String generatedJson = JacksonUtil.getObjectMapper(configuration).writeValueAsString(archetype);
+        assertEquals(json, generatedJson);
+
+        Archetype parsed = JacksonUtil.getObjectMapper(configuration).readValue(json, Archetype.class);
+        assertEquals(json, JacksonUtil.getObjectMapper(standardConfiguration).writeValueAsString(parsed));
+    }
+}
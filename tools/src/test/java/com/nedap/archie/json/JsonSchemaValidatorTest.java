@@ -0,0 +1,65 @@
+package com.nedap.archie.json;
+
+import org.junit.Test;
+import org.leadpony.justify.api.Problem;
+import org.openehr.bmm.core.BmmModel;
+import org.openehr.referencemodels.BuiltinReferenceModels;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class JsonSchemaValidatorTest {
+
+    private static final String VALID_JSON = "{\"_type\": \"CLUSTER\", \"archetype_node_id\": \"id1\", \"name\": {\"_type\": \"DV_TEXT\", \"value\": \"cluster\"}, " +
+            "\"items\": [{\"_type\": \"ELEMENT\", \"archetype_node_id\": \"id2\", \"name\": {\"_type\": \"DV_TEXT\", \"value\": \"element\"}}]}";
+    private static final String INVALID_JSON = "{\"_type\": \"CLUSTER\", \"archetype_node_id\": \"id1\", \"name\": {\"_type\": \"DV_TEXT\", \"value\": \"cluster\"}, \"items\": []}";
+
+    private final BmmModel model = BuiltinReferenceModels.getBmmRepository().getModel("openehr_rm_1.0.4").getModel();
+
+    @Test
+    public void cachedValidator() {
+        JsonSchemaValidator validator = JsonSchemaValidator.getValidator(model, true);
+        assertSame(validator, JsonSchemaValidator.getValidator(model, true));
+        assertNotSame(validator, JsonSchemaValidator.getValidator(model, false));
+    }
+
+    @Test
+    public void streamingEqualsString() throws Exception {
+        JsonSchemaValidator validator = JsonSchemaValidator.getValidator(model, true);
+        assertTrue(validator.validate(VALID_JSON).isEmpty());
+        assertTrue(validator.validate(new ByteArrayInputStream(VALID_JSON.getBytes(StandardCharsets.UTF_8))).isEmpty());
+
+        List<Problem> problems = validator.validate(INVALID_JSON);
+        List<Problem> streamedProblems = validator.validate(new ByteArrayInputStream(INVALID_JSON.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(1, problems.size());
+        assertEquals(problems.toString(), streamedProblems.toString());
+    }
+
+    @Test
+    public void concurrentValidation() throws Exception {
+        JsonSchemaValidator validator = JsonSchemaValidator.getValidator(model, true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<Problem>>> results = new ArrayList<>();
+            for (int i = 0; i < 40; i++) {
+                String json = i % 2 == 0 ? VALID_JSON : INVALID_JSON;
+                results.add(executor.submit(() -> validator.validate(json)));
+            }
+            for (int i = 0; i < results.size(); i++) {
+                assertEquals(i % 2 == 0 ? 0 : 1, results.get(i).get().size());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
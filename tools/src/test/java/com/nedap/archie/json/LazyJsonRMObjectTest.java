@@ -0,0 +1,94 @@
+package com.nedap.archie.json;
+
+import com.nedap.archie.rm.composition.Composition;
+import com.nedap.archie.rm.composition.ContentItem;
+import com.nedap.archie.rm.composition.EventContext;
+import com.nedap.archie.rm.datavalues.DvText;
+import com.nedap.archie.query.RMPathQuery;
+import com.nedap.archie.rm.support.identification.UIDBasedId;
+import com.nedap.archie.rminfo.ArchieRMInfoLookup;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class LazyJsonRMObjectTest {
+
+    private Composition composition;
+    private LazyJsonRMObject lazyComposition;
+
+    @Before
+    public void setup() throws Exception {
+        try (InputStream stream = getClass().getResourceAsStream("pablos_example.json")) {
+            composition = JacksonUtil.getObjectMapper().readValue(stream, Composition.class);
+        }
+        try (InputStream stream = getClass().getResourceAsStream("pablos_example.json")) {
+            lazyComposition = LazyJsonRMObject.read(stream, Composition.class);
+        }
+    }
+
+    @Test
+    public void attributes() throws Exception {
+        assertEquals("COMPOSITION", lazyComposition.getTypeName());
+        assertEquals(composition.getUid(), lazyComposition.<UIDBasedId>get("uid"));
+        assertEquals(composition.getContext(), lazyComposition.<EventContext>get("context"));
+        assertEquals(composition.getName(), lazyComposition.<DvText>get("name"));
+        assertEquals(composition.getContent(), lazyComposition.<List<ContentItem>>get("content"));
+        assertNull(lazyComposition.get("feeder_audit"));
+    }
+
+    @Test
+    public void lazyChildren() throws Exception {
+        List<LazyJsonRMObject> content = lazyComposition.getLazyList("content");
+        assertEquals(composition.getContent().size(), content.size());
+        ContentItem firstItem = composition.getContent().get(0);
+        assertEquals(firstItem.getArchetypeNodeId(), content.get(0).get("archetype_node_id"));
+        assertEquals(firstItem, content.get(0).materialize());
+    }
+
+    @Test
+    public void find() throws Exception {
+        ContentItem firstItem = composition.getContent().get(0);
+        assertEquals(firstItem, lazyComposition.find("/content[" + firstItem.getArchetypeNodeId() + "]"));
+        assertEquals(firstItem, lazyComposition.find("/content[1]"));
+        assertEquals(firstItem.getName(), lazyComposition.find("/content[1]/name"));
+        assertEquals(composition.getContext().getStartTime(), lazyComposition.find("/context/start_time"));
+        assertNull(lazyComposition.find("/content[unknown]"));
+    }
+
+    @Test
+    public void findSameAsPathQuery() throws Exception {
+        ContentItem firstItem = composition.getContent().get(0);
+        String[] paths = {
+                "/content[1]",
+                "/content[1]/name",
+                "/content[" + composition.getContent().size() + "]",
+                "/content[" + (composition.getContent().size() + 1) + "]",
+                "/content[" + firstItem.getArchetypeNodeId() + "]/data/events[1]",
+                "/content[" + firstItem.getArchetypeNodeId() + "]/data/events[1]/data/items[2]/value",
+                "/content[" + firstItem.getArchetypeNodeId() + "]/data/events[at0002]/data/items[at0005]/value",
+                "/content[" + firstItem.getArchetypeNodeId() + ",1]/data/events[1]/data/items[at0005,1]",
+                "/context/start_time"
+        };
+        for (String path : paths) {
+            Object expected = new RMPathQuery(path).find(ArchieRMInfoLookup.getInstance(), composition);
+            assertEquals(path, expected, lazyComposition.find(path));
+        }
+        assertNotNull(lazyComposition.find("/content[1]/data/events[1]/data/items[2]/value"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void zeroIndex() throws Exception {
+        lazyComposition.find("/content[0]");
+    }
+
+    @Test
+    public void materialize() throws Exception {
+        assertEquals(composition, lazyComposition.materialize());
+    }
+}
@@ -0,0 +1,40 @@
+package com.nedap.archie.json;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import com.nedap.archie.aom.CComplexObject;
+import com.nedap.archie.rm.datavalues.DvText;
+import com.nedap.archie.rm.datavalues.quantity.datetime.DvDateTime;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class OpenEHRTypeNamingTest {
+
+    @Test
+    public void idFromValue() {
+        OpenEHRTypeNaming naming = new OpenEHRTypeNaming(true);
+        assertEquals("DV_TEXT", naming.idFromValue(new DvText("text")));
+        assertEquals("DV_DATE_TIME", naming.idFromValue(new DvDateTime()));
+        assertEquals("C_COMPLEX_OBJECT", naming.idFromValue(new CComplexObject()));
+        //cached
+        assertEquals("DV_TEXT", naming.idFromValue(new DvText("other text")));
+        assertEquals("DV_TEXT", new OpenEHRTypeNaming(true).idFromValue(new DvText("text")));
+    }
+
+    @Test
+    public void typeFromIdSharedBetweenInstances() throws Exception {
+        OpenEHRTypeNaming naming = new OpenEHRTypeNaming(true);
+        JavaType type = naming.typeFromId(null, "DV_TEXT");
+        assertEquals(DvText.class, type.getRawClass());
+        assertSame(type, new OpenEHRTypeNaming(true).typeFromId(null, "DV_TEXT"));
+        assertEquals(CComplexObject.class, naming.typeFromId(null, "C_COMPLEX_OBJECT").getRawClass());
+    }
+
+    @Test
+    public void objectMapperTypeFactoryIsCacheable() {
+        //the type cache is only used with the default type factory
+        assertSame(TypeFactory.defaultInstance(), JacksonUtil.getObjectMapper().getTypeFactory());
+    }
+}
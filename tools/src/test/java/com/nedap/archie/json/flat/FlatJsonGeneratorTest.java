@@ -1,5 +1,6 @@
 package com.nedap.archie.json.flat;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nedap.archie.ArchieLanguageConfiguration;
 import com.nedap.archie.adlparser.ADLParseException;
@@ -14,7 +15,10 @@ import com.nedap.archie.json.JacksonUtil;
 import com.nedap.archie.rm.composition.Observation;
 import com.nedap.archie.rm.datastructures.Cluster;
 import com.nedap.archie.rm.datastructures.Element;
+import com.nedap.archie.rm.datatypes.CodePhrase;
+import com.nedap.archie.rm.datavalues.DvCodedText;
 import com.nedap.archie.rm.datavalues.DvText;
+import com.nedap.archie.rm.datavalues.TermMapping;
 import com.nedap.archie.rm.datavalues.quantity.DvCount;
 import com.nedap.archie.rminfo.ArchieRMInfoLookup;
 import com.nedap.archie.rminfo.MetaModels;
@@ -24,12 +28,15 @@ import org.openehr.referencemodels.BuiltinReferenceModels;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.StringWriter;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import static junit.framework.TestCase.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 public class FlatJsonGeneratorTest {
 
@@ -288,6 +295,94 @@ public class FlatJsonGeneratorTest {
     }
 
 
+    @Test
+    public void streamingOutputEqualsMap() throws Exception {
+        OperationalTemplate bloodPressureOpt = parseBloodPressure();
+        MetaModels metaModels = BuiltinReferenceModels.getMetaModels();
+        metaModels.selectModel(bloodPressureOpt);
+
+        ExampleJsonInstanceGenerator exampleJsonInstanceGenerator = new ExampleJsonInstanceGenerator(metaModels, "en");
+        exampleJsonInstanceGenerator.setTypePropertyName("_type");
+        Map<String, Object> generatedExample = exampleJsonInstanceGenerator.generate(bloodPressureOpt);
+        ObjectMapper objectMapper = metaModels.getSelectedModel().getJsonObjectMapper();
+        Observation bloodPressure = objectMapper.readValue(objectMapper.writeValueAsString(generatedExample), Observation.class);
+        bloodPressure.setNameAsString("different from archetype");
+
+        for(FlatJsonFormatConfiguration config:new FlatJsonFormatConfiguration[] {FlatJsonFormatConfiguration.nedapInternalFormat(), FlatJsonFormatConfiguration.standardFormatInDevelopment()}) {
+            FlatJsonGenerator generator = new FlatJsonGenerator(metaModels.getSelectedModelInfoLookup(), config);
+            Map<String, Object> expected = generator.buildPathsAndValues(bloodPressure, bloodPressureOpt, "en");
+
+            StringWriter writer = new StringWriter();
+            try(JsonGenerator jsonGenerator = JacksonUtil.getObjectMapper().createGenerator(writer)) {
+                generator.writePathsAndValues(bloodPressure, bloodPressureOpt, "en", jsonGenerator);
+            }
+            assertEquals(JacksonUtil.getObjectMapper().writeValueAsString(expected), writer.toString());
+
+            Map<String, Object> streamed = new LinkedHashMap<>();
+            generator.writePathsAndValues(bloodPressure, bloodPressureOpt, streamed::put);
+            assertEquals(expected, streamed);
+        }
+    }
+
+    @Test
+    public void reusedGeneratorWithCachedLayout() throws Exception {
+        OperationalTemplate bloodPressureOpt = parseBloodPressure();
+        MetaModels metaModels = BuiltinReferenceModels.getMetaModels();
+        metaModels.selectModel(bloodPressureOpt);
+
+        ExampleJsonInstanceGenerator exampleJsonInstanceGenerator = new ExampleJsonInstanceGenerator(metaModels, "en");
+        exampleJsonInstanceGenerator.setTypePropertyName("_type");
+        Map<String, Object> generatedExample = exampleJsonInstanceGenerator.generate(bloodPressureOpt);
+        ObjectMapper objectMapper = metaModels.getSelectedModel().getJsonObjectMapper();
+        Observation bloodPressure = objectMapper.readValue(objectMapper.writeValueAsString(generatedExample), Observation.class);
+
+        FlatJsonFormatConfiguration config = FlatJsonFormatConfiguration.nedapInternalFormat();
+        FlatJsonGenerator generator = new FlatJsonGenerator(metaModels.getSelectedModelInfoLookup(), config);
+        Map<String, Object> first = generator.buildPathsAndValues(bloodPressure, bloodPressureOpt, "en");
+        //the second time the layout is cached
+        assertEquals(first, generator.buildPathsAndValues(bloodPressure, bloodPressureOpt, "en"));
+        //a different template object with the same id replaces the cached layout
+        assertEquals(first, generator.buildPathsAndValues(bloodPressure, parseBloodPressure(), "en"));
+        //and a new generator gives the same result
+        assertEquals(first, new FlatJsonGenerator(metaModels.getSelectedModelInfoLookup(), config).buildPathsAndValues(bloodPressure, bloodPressureOpt, "en"));
+    }
+
+    @Test
+    public void duplicateKeysInStreamingOutput() throws Exception {
+        FlatJsonFormatConfiguration config = new FlatJsonFormatConfiguration();
+        config.getIgnoredAttributes().add(new AttributeReference("TERM_MAPPING", "match"));
+        FlatJsonGenerator generator = new FlatJsonGenerator(ArchieRMInfoLookup.getInstance(), config);
+
+        //term mappings are not locatable, so they get the same path. As long as they do not write the same values, that is fine
+        DvText text = new DvText("text");
+        TermMapping first = new TermMapping();
+        first.setTarget(new CodePhrase("local::at1"));
+        text.addMapping(first);
+        TermMapping second = new TermMapping();
+        second.setPurpose(new DvCodedText("purpose", "local::at2"));
+        text.addMapping(second);
+
+        Map<String, Object> streamed = new LinkedHashMap<>();
+        generator.writePathsAndValues(text, null, streamed::put);
+        assertEquals(generator.buildPathsAndValues(text), streamed);
+        assertTrue(streamed.containsKey("/mappings/purpose/value"));
+
+        //both mappings write a match attribute with this configuration
+        FlatJsonGenerator defaultGenerator = new FlatJsonGenerator(ArchieRMInfoLookup.getInstance(), new FlatJsonFormatConfiguration());
+        try {
+            defaultGenerator.buildPathsAndValues(text);
+            fail("duplicate key should have been detected");
+        } catch (DuplicateKeyException e) {
+            //expected
+        }
+        try {
+            defaultGenerator.writePathsAndValues(text, null, (path, value) -> {});
+            fail("duplicate key should have been detected");
+        } catch (DuplicateKeyException e) {
+            assertTrue(e.getMessage().contains("/mappings/match"));
+        }
+    }
+
     private OperationalTemplate parseBloodPressure() throws IOException, ADLParseException {
         try (InputStream stream = getClass().getResourceAsStream(BLOOD_PRESSURE_PATH)) {
             Archetype bloodPressure = new ADLParser(BuiltinReferenceModels.getMetaModels()).parse(stream);
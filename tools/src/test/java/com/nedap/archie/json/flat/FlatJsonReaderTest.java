@@ -0,0 +1,169 @@
+package com.nedap.archie.json.flat;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nedap.archie.ArchieLanguageConfiguration;
+import com.nedap.archie.adlparser.ADLParseException;
+import com.nedap.archie.adlparser.ADLParser;
+import com.nedap.archie.aom.Archetype;
+import com.nedap.archie.aom.OperationalTemplate;
+import com.nedap.archie.base.OpenEHRBase;
+import com.nedap.archie.creation.ExampleJsonInstanceGenerator;
+import com.nedap.archie.flattener.Flattener;
+import com.nedap.archie.flattener.FlattenerConfiguration;
+import com.nedap.archie.flattener.SimpleArchetypeRepository;
+import com.nedap.archie.json.JacksonUtil;
+import com.nedap.archie.rm.composition.Observation;
+import com.nedap.archie.rm.datastructures.Cluster;
+import com.nedap.archie.rm.datastructures.Element;
+import com.nedap.archie.rm.datavalues.DvText;
+import com.nedap.archie.rm.datavalues.quantity.DvCount;
+import com.nedap.archie.rminfo.ArchieRMInfoLookup;
+import com.nedap.archie.rminfo.MetaModels;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openehr.referencemodels.BuiltinReferenceModels;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class FlatJsonReaderTest {
+
+    private static final String BLOOD_PRESSURE_PATH = "/ckm-mirror/local/archetypes/entry/observation/openEHR-EHR-OBSERVATION.blood_pressure.v1.1.0.adls";
+
+    private MetaModels metaModels;
+    private OperationalTemplate bloodPressureOpt;
+    private Observation bloodPressure;
+
+    @Before
+    public void setup() throws Exception {
+        metaModels = BuiltinReferenceModels.getMetaModels();
+        bloodPressureOpt = parseBloodPressure();
+        metaModels.selectModel(bloodPressureOpt);
+
+        ExampleJsonInstanceGenerator exampleJsonInstanceGenerator = new ExampleJsonInstanceGenerator(metaModels, "en");
+        exampleJsonInstanceGenerator.setTypePropertyName("_type");
+        Map<String, Object> generatedExample = exampleJsonInstanceGenerator.generate(bloodPressureOpt);
+        ObjectMapper objectMapper = metaModels.getSelectedModel().getJsonObjectMapper();
+        bloodPressure = objectMapper.readValue(objectMapper.writeValueAsString(generatedExample), Observation.class);
+    }
+
+    @After
+    public void tearDown() {
+        ArchieLanguageConfiguration.setThreadLocalDescriptiongAndMeaningLanguage(null);
+    }
+
+    @Test
+    public void roundTripNedapInternalFormat() throws Exception {
+        FlatJsonFormatConfiguration config = FlatJsonFormatConfiguration.nedapInternalFormat();
+        config.setFilterNames(true);
+        config.setFilterTypes(true);
+        assertRoundTrip(config);
+    }
+
+    @Test
+    public void roundTripStandardFormat() throws Exception {
+        FlatJsonFormatConfiguration config = FlatJsonFormatConfiguration.standardFormatInDevelopment();
+        config.setFilterNames(false);
+        config.setFilterTypes(false);
+        assertRoundTrip(config);
+    }
+
+    @Test
+    public void restoresFilteredNamesAndNodeIds() throws Exception {
+        FlatJsonFormatConfiguration config = FlatJsonFormatConfiguration.nedapInternalFormat();
+        config.setFilterNames(true);
+        config.setFilterTypes(true);
+        Map<String, Object> flat = new FlatJsonGenerator(metaModels.getSelectedModelInfoLookup(), config).buildPathsAndValues(bloodPressure, bloodPressureOpt, "en");
+        Observation read = (Observation) new FlatJsonReader(metaModels.getSelectedModelInfoLookup(), config).read(flat, bloodPressureOpt, "en");
+
+        assertEquals(bloodPressure.getArchetypeNodeId(), read.getArchetypeNodeId());
+        assertEquals(bloodPressure.getName(), read.getName());
+        assertEquals(bloodPressure.getData().getArchetypeNodeId(), read.getData().getArchetypeNodeId());
+        assertEquals(bloodPressure.getData().getEvents().size(), read.getData().getEvents().size());
+        assertEquals(bloodPressure.getData().getEvents().get(0).getName(), read.getData().getEvents().get(0).getName());
+        assertEquals(bloodPressure.getData().getEvents().get(0).getClass(), read.getData().getEvents().get(0).getClass());
+        assertEquals(bloodPressure.getData().getOrigin(), read.getData().getOrigin());
+    }
+
+    @Test
+    public void readWithoutTemplate() throws Exception {
+        Cluster cluster = new Cluster();
+        cluster.addItem(new Element("id2", new DvText("first"), new DvText("First")));
+        cluster.addItem(new Element("id3", new DvText("second"), new DvCount(2L)));
+        cluster.addItem(new Element("id2", new DvText("third"), new DvText("Third")));
+
+        for(FlatJsonFormatConfiguration config:new FlatJsonFormatConfiguration[] {FlatJsonFormatConfiguration.nedapInternalFormat(), FlatJsonFormatConfiguration.standardFormatInDevelopment()}) {
+            Map<String, Object> flat = new FlatJsonGenerator(ArchieRMInfoLookup.getInstance(), config).buildPathsAndValues(cluster);
+            OpenEHRBase read = new FlatJsonReader(ArchieRMInfoLookup.getInstance(), config).read(flat, null);
+            assertEquals(cluster, read);
+        }
+    }
+
+    @Test
+    public void readFromJsonParser() throws Exception {
+        FlatJsonFormatConfiguration config = FlatJsonFormatConfiguration.standardFormatInDevelopment();
+        FlatJsonGenerator generator = new FlatJsonGenerator(metaModels.getSelectedModelInfoLookup(), config);
+        Map<String, Object> flat = generator.buildPathsAndValues(bloodPressure, bloodPressureOpt, "en");
+        String json = JacksonUtil.getObjectMapper().writeValueAsString(flat);
+
+        FlatJsonReader reader = new FlatJsonReader(metaModels.getSelectedModelInfoLookup(), config);
+        try(JsonParser parser = JacksonUtil.getObjectMapper().getFactory().createParser(json)) {
+            OpenEHRBase read = reader.read(parser, bloodPressureOpt);
+            assertTrue(read instanceof Observation);
+            assertEquals(flat, generator.buildPathsAndValues(read, bloodPressureOpt, "en"));
+        }
+    }
+
+    @Test
+    public void humanReadableFormatRejected() throws Exception {
+        FlatJsonFormatConfiguration config = FlatJsonFormatConfiguration.standardFormatInDevelopment();
+        Map<String, Object> flat = new FlatJsonGenerator(metaModels.getSelectedModelInfoLookup(), config).buildPathsAndValues(bloodPressure, bloodPressureOpt, "en");
+        //the human readable format prefixes every path with the name of the root object
+        String rootName = bloodPressure.getName().getValue().replaceAll("[^a-zA-Z0-9]", "_");
+        Map<String, Object> humanReadable = new LinkedHashMap<>();
+        flat.forEach((path, value) -> humanReadable.put(rootName + path, value));
+
+        FlatJsonReader reader = new FlatJsonReader(metaModels.getSelectedModelInfoLookup(), config);
+        try {
+            reader.read(humanReadable, bloodPressureOpt, "en");
+            fail("the human readable format should have been rejected");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+        String json = JacksonUtil.getObjectMapper().writeValueAsString(humanReadable);
+        try(JsonParser parser = JacksonUtil.getObjectMapper().getFactory().createParser(json)) {
+            reader.read(parser, bloodPressureOpt);
+            fail("the human readable format should have been rejected");
+        } catch (IllegalArgumentException e) {
+            //expected
+        }
+    }
+
+    private void assertRoundTrip(FlatJsonFormatConfiguration config) throws Exception {
+        FlatJsonGenerator generator = new FlatJsonGenerator(metaModels.getSelectedModelInfoLookup(), config);
+        FlatJsonReader reader = new FlatJsonReader(metaModels.getSelectedModelInfoLookup(), config);
+        Map<String, Object> flat = generator.buildPathsAndValues(bloodPressure, bloodPressureOpt, "en");
+
+        //twice, the second time with the compiled plan
+        for(int i = 0; i < 2; i++) {
+            OpenEHRBase read = reader.read(flat, bloodPressureOpt, "en");
+            assertEquals(flat, generator.buildPathsAndValues(read, bloodPressureOpt, "en"));
+        }
+    }
+
+    private OperationalTemplate parseBloodPressure() throws IOException, ADLParseException {
+        try (InputStream stream = getClass().getResourceAsStream(BLOOD_PRESSURE_PATH)) {
+            Archetype bloodPressure = new ADLParser(BuiltinReferenceModels.getMetaModels()).parse(stream);
+            Flattener flattener = new Flattener(new SimpleArchetypeRepository(), BuiltinReferenceModels.getMetaModels(), FlattenerConfiguration.forOperationalTemplate());
+            return (OperationalTemplate) flattener.flatten(bloodPressure);
+        }
+    }
+}
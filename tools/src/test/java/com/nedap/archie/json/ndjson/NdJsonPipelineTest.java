@@ -0,0 +1,111 @@
+package com.nedap.archie.json.ndjson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nedap.archie.json.JacksonUtil;
+import com.nedap.archie.json.flat.FlatJsonFormatConfiguration;
+import com.nedap.archie.json.flat.FlatJsonGenerator;
+import com.nedap.archie.rm.composition.Composition;
+import com.nedap.archie.rm.datavalues.DvText;
+import com.nedap.archie.rminfo.ArchieRMInfoLookup;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class NdJsonPipelineTest {
+
+    private static final int RECORDS = 50;
+
+    private Composition composition;
+
+    @Before
+    public void setup() throws Exception {
+        try (InputStream stream = getClass().getResourceAsStream("/com/nedap/archie/json/pablos_example.json")) {
+            composition = JacksonUtil.getObjectMapper().readValue(stream, Composition.class);
+        }
+    }
+
+    @Test
+    public void writeAndRead() throws Exception {
+        byte[] ndjson = writeCompositions();
+        String[] lines = new String(ndjson, StandardCharsets.UTF_8).split("\n", -1);
+        //every record on its own line, followed by a newline
+        assertEquals(RECORDS + 1, lines.length);
+        assertEquals("", lines[RECORDS]);
+        ObjectWriter singleLineWriter = JacksonUtil.getObjectMapper().writer().without(SerializationFeature.INDENT_OUTPUT);
+        for (int i = 0; i < RECORDS; i++) {
+            composition.setName(new DvText("composition " + i));
+            assertEquals(singleLineWriter.writeValueAsString(composition), lines[i]);
+        }
+
+        try (NdJsonReader<Composition> reader = new NdJsonReader<>(new ByteArrayInputStream(ndjson), Composition.class)) {
+            for (int i = 0; i < RECORDS; i++) {
+                Composition read = reader.read();
+                assertEquals("composition " + i, read.getName().getValue());
+            }
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void pipelineKeepsOrder() throws Exception {
+        byte[] ndjson = writeCompositions();
+
+        NdJsonPipeline<Composition, Map<String, Object>> pipeline = new NdJsonPipeline<>(Composition.class, () -> {
+            FlatJsonGenerator generator = new FlatJsonGenerator(ArchieRMInfoLookup.getInstance(), FlatJsonFormatConfiguration.nedapInternalFormat());
+            return composition -> {
+                //skip every tenth record
+                if (composition.getName().getValue().endsWith("9")) {
+                    return null;
+                }
+                return generator.buildPathsAndValues(composition);
+            };
+        });
+        pipeline.setThreads(4);
+        pipeline.setMaxRecordsInFlight(8);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        NdJsonPipelineResult result = pipeline.run(new ByteArrayInputStream(ndjson), output);
+        assertEquals(RECORDS, result.getRecordCount());
+        assertEquals(RECORDS - RECORDS / 10, result.getWrittenCount());
+
+        String[] lines = new String(output.toByteArray(), StandardCharsets.UTF_8).split("\n", -1);
+        assertEquals(result.getWrittenCount() + 1, lines.length);
+        assertEquals("", lines[lines.length - 1]);
+        for (int i = 0; i < lines.length - 1; i++) {
+            assertTrue(lines[i], lines[i].startsWith("{") && lines[i].endsWith("}"));
+        }
+
+        ObjectMapper objectMapper = JacksonUtil.getObjectMapper();
+        try (NdJsonReader<Map> reader = new NdJsonReader<>(objectMapper, new ByteArrayInputStream(output.toByteArray()), Map.class)) {
+            for (int i = 0; i < RECORDS; i++) {
+                if (i % 10 == 9) {
+                    continue;
+                }
+                assertEquals("composition " + i, reader.read().get("/name/value"));
+            }
+            assertNull(reader.read());
+        }
+    }
+
+    private byte[] writeCompositions() throws Exception {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (NdJsonWriter writer = new NdJsonWriter(output)) {
+            for (int i = 0; i < RECORDS; i++) {
+                composition.setName(new DvText("composition " + i));
+                writer.write(composition);
+            }
+        }
+        return output.toByteArray();
+    }
+}
@@ -4,6 +4,7 @@ import com.nedap.archie.ArchieLanguageConfiguration;
 import com.nedap.archie.adlparser.ADLParser;
 import com.nedap.archie.adlparser.modelconstraints.RMConstraintImposer;
 import com.nedap.archie.aom.Archetype;
+import com.nedap.archie.query.RMObjectAttributes;
 import com.nedap.archie.query.RMObjectWithPath;
 import com.nedap.archie.query.RMPathQuery;
 import com.nedap.archie.query.RMQueryContext;
@@ -13,14 +14,18 @@ import com.nedap.archie.rm.datastructures.Cluster;
 import com.nedap.archie.rm.datastructures.ItemTree;
 import com.nedap.archie.rminfo.ArchieRMInfoLookup;
 import com.nedap.archie.rminfo.ModelInfoLookup;
+import com.nedap.archie.rminfo.RMAttributeInfo;
 import com.nedap.archie.testutil.TestUtil;
 import com.nedap.archie.xml.JAXBUtil;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 
 public class PathableUtilTest {
 
@@ -72,4 +77,94 @@ public class PathableUtilTest {
         assertEquals("/context/other_context[id2]/items[id3,2]",
                 PathableUtil.getUniquePath((Pathable) items.get(1).getObject()));
     }
+
+    @Test
+    public void cachedPaths() throws Exception {
+        root = (Pathable) testUtil.constructEmptyRMObject(archetype.getDefinition());
+        Composition composition = (Composition) root;
+        ItemTree clusterList = (ItemTree) composition.getContext().getOtherContext();
+        Cluster firstCluster = (Cluster) clusterList.getItems().get(0);
+
+        PathableUtil.cachePaths(composition);
+        assertNotNull(firstCluster.getCachedPath());
+        assertEquals("/context/other_context[id2]/items[id3]", firstCluster.getPath());
+        assertEquals("/context/other_context[id2]/items[id3]", PathableUtil.getUniquePath(firstCluster));
+
+        //adding a sibling changes the unique path
+        Composition composition2 = (Composition) testUtil.constructEmptyRMObject(archetype.getDefinition());
+        Cluster secondCluster = (Cluster) composition2.getContext().getOtherContext().getItems().get(0);
+        clusterList.addItem(secondCluster);
+        assertEquals("/context/other_context[id2]/items[id3,1]", PathableUtil.getUniquePath(firstCluster));
+        assertEquals("/context/other_context[id2]/items[id3,2]", PathableUtil.getUniquePath(secondCluster));
+        assertNotNull(secondCluster.getCachedPath());
+
+        //changing the node id of a parent changes the path of its descendants
+        clusterList.setArchetypeNodeId("id5");
+        assertEquals("/context/other_context[id5]/items[id3]", firstCluster.getPath());
+        assertEquals("/context/other_context[id5]/items[id3,1]", PathableUtil.getUniquePath(firstCluster));
+
+        //moving to a tree without path caching disables the cache
+        Cluster newParent = new Cluster("id10", null, new ArrayList<>());
+        newParent.addItem(firstCluster);
+        assertNull(firstCluster.getCachedPath());
+        assertEquals("/items[id3]", firstCluster.getPath());
+    }
+
+    @Test
+    public void cachedPathsEqualUncached() throws Exception {
+        root = (Pathable) testUtil.constructEmptyRMObject(archetype.getDefinition());
+        Composition uncached = (Composition) root.clone();
+        PathableUtil.cachePaths(root);
+        List<Pathable> cachedObjects = new ArrayList<>();
+        collectPathables(root, cachedObjects);
+        List<Pathable> uncachedObjects = new ArrayList<>();
+        collectPathables(uncached, uncachedObjects);
+        assertEquals(uncachedObjects.size(), cachedObjects.size());
+        for (int i = 0; i < cachedObjects.size(); i++) {
+            Pathable cached = cachedObjects.get(i);
+            Pathable notCached = uncachedObjects.get(i);
+            assertNotNull(cached.getCachedPath());
+            assertNull(notCached.getCachedPath());
+            assertEquals(notCached.getPath(), cached.getPath());
+            assertEquals(PathableUtil.getUniquePath(notCached), PathableUtil.getUniquePath(cached));
+        }
+    }
+
+    @Test
+    public void cachedPathsClone() throws Exception {
+        Composition composition = (Composition) testUtil.constructEmptyRMObject(archetype.getDefinition());
+        PathableUtil.cachePaths(composition);
+        Cluster firstCluster = (Cluster) ((ItemTree) composition.getContext().getOtherContext()).getItems().get(0);
+        assertEquals("/context/other_context[id2]/items[id3]", firstCluster.getPath());
+
+        //the clone keeps path caching enabled, with entries for its own objects
+        Composition clone = (Composition) composition.clone();
+        ItemTree clonedClusterList = (ItemTree) clone.getContext().getOtherContext();
+        Cluster clonedCluster = (Cluster) clonedClusterList.getItems().get(0);
+        assertNotNull(clonedCluster.getCachedPath());
+        assertEquals("/context/other_context[id2]/items[id3]", clonedCluster.getPath());
+
+        clonedClusterList.setArchetypeNodeId("id5");
+        assertEquals("/context/other_context[id5]/items[id3]", clonedCluster.getPath());
+        assertEquals("/context/other_context[id2]/items[id3]", firstCluster.getPath());
+    }
+
+    private void collectPathables(Pathable pathable, List<Pathable> result) {
+        result.add(pathable);
+        for (RMAttributeInfo attributeInfo : ArchieRMInfoLookup.getInstance().getTypeInfo(pathable.getClass()).getAttributes().values()) {
+            if (attributeInfo.isComputed()) {
+                continue;
+            }
+            Object value = RMObjectAttributes.getAttributeValueFromRMObject(pathable, attributeInfo.getRmName(), ArchieRMInfoLookup.getInstance());
+            if (value instanceof Pathable) {
+                collectPathables((Pathable) value, result);
+            } else if (value instanceof List) {
+                for (Object element : (List<?>) value) {
+                    if (element instanceof Pathable) {
+                        collectPathables((Pathable) element, result);
+                    }
+                }
+            }
+        }
+    }
 }
@@ -4,11 +4,15 @@ import com.nedap.archie.adlparser.ADLParseException;
 import com.nedap.archie.adlparser.ADLParser;
 import com.nedap.archie.aom.Archetype;
 import com.nedap.archie.aom.rmoverlay.VisibilityType;
+import com.nedap.archie.flattener.Flattener;
+import com.nedap.archie.flattener.FlattenerConfiguration;
+import com.nedap.archie.flattener.SimpleArchetypeRepository;
 import com.nedap.archie.testutil.TestUtil;
 import org.junit.Test;
 import org.openehr.referencemodels.BuiltinReferenceModels;
 
 import java.io.IOException;
+import java.io.StringWriter;
 
 import static org.hamcrest.CoreMatchers.*;
 import static org.junit.Assert.*;
@@ -124,6 +128,25 @@ public class ADLArchetypeSerializerTest {
        assertEquals("at12", parsed.getRmOverlay().getRmVisibility().get("/subject").getAlias().getCodeString());
    }
 
+    @Test
+    public void streamingEqualsString() throws Exception {
+        Archetype[] archetypes = {
+                load("openEHR-EHR-COMPOSITION.report.v1.adls"),
+                load("openEHR-EHR-CLUSTER.device.v1.adls"),
+                load("openEHR-TEST_PKG-WHOLE.primitive_types.v1.adls"),
+                load("openEHR-EHR-EVALUATION.term_constraint_variations.v0.0.1.adls"),
+                TestUtil.parseFailOnErrors("/com/nedap/archie/flattener/openEHR-EHR-OBSERVATION.to_flatten_parent_with_overlay.v1.0.0.adls"),
+                TestUtil.parseFailOnErrors("/com/nedap/archie/flattener/openEHR-EHR-COMPOSITION.blood_pressure.v1.0.0.adlt"),
+                new Flattener(new SimpleArchetypeRepository(), BuiltinReferenceModels.getMetaModels(), FlattenerConfiguration.forOperationalTemplate())
+                        .flatten(loadRoot("ckm-mirror/local/archetypes/entry/observation/openEHR-EHR-OBSERVATION.blood_pressure.v1.1.0.adls"))
+        };
+        for(Archetype archetype:archetypes) {
+            StringWriter writer = new StringWriter();
+            ADLArchetypeSerializer.serialize(archetype, null, null, writer);
+            assertEquals(ADLArchetypeSerializer.serialize(archetype), writer.toString());
+        }
+    }
+
     private Archetype load(String resourceName) throws ADLParseException, IOException {
         return new ADLParser().parse(ADLArchetypeSerializerTest.class.getResourceAsStream(resourceName));
     }
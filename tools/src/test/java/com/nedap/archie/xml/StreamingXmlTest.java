@@ -0,0 +1,73 @@
+package com.nedap.archie.xml;
+
+import com.nedap.archie.json.JacksonUtil;
+import com.nedap.archie.rm.changecontrol.OriginalVersion;
+import com.nedap.archie.rm.changecontrol.Version;
+import com.nedap.archie.rm.composition.Composition;
+import com.nedap.archie.rm.datavalues.DvText;
+import com.nedap.archie.rm.support.identification.ObjectVersionId;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StreamingXmlTest {
+
+    @Test
+    public void compositions() throws Exception {
+        Composition composition = parseComposition();
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (StreamingXmlWriter writer = new StreamingXmlWriter(output, "compositions")) {
+            for (int i = 0; i < 3; i++) {
+                composition.setName(new DvText("composition " + i));
+                writer.write("composition", composition);
+            }
+        }
+
+        try (StreamingXmlReader<Composition> reader = new StreamingXmlReader<>(new ByteArrayInputStream(output.toByteArray()), "composition", Composition.class)) {
+            for (int i = 0; i < 3; i++) {
+                Composition read = reader.read();
+                composition.setName(new DvText("composition " + i));
+                assertEquals(composition, read);
+            }
+            assertNull(reader.read());
+        }
+    }
+
+    @Test
+    public void versionsWithType() throws Exception {
+        Composition composition = parseComposition();
+        OriginalVersion<Composition> version = new OriginalVersion<>();
+        version.setUid(new ObjectVersionId("8849182c-82ad-4088-a07f-48ead4180515::openEHRSys.example.com::1"));
+        version.setData(composition);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (StreamingXmlWriter writer = new StreamingXmlWriter(output, "versioned_composition")) {
+            writer.write("versions", Version.class, version);
+            writer.write("versions", Version.class, version);
+        }
+        try (StreamingXmlReader<Version> reader = new StreamingXmlReader<>(new ByteArrayInputStream(output.toByteArray()), "versions", Version.class)) {
+            int count = 0;
+            Version<?> read;
+            while ((read = reader.read()) != null) {
+                assertTrue(read instanceof OriginalVersion);
+                assertEquals(version.getUid(), read.getUid());
+                assertEquals(composition, read.getData());
+                count++;
+            }
+            assertEquals(2, count);
+        }
+    }
+
+    private Composition parseComposition() throws Exception {
+        try (InputStream stream = getClass().getResourceAsStream("/com/nedap/archie/json/pablos_example.json")) {
+            return JacksonUtil.getObjectMapper().readValue(stream, Composition.class);
+        }
+    }
+}
@@ -17,10 +17,21 @@ import org.threeten.extra.PeriodDuration;
 
 /**
  * ISO date time parsers
+ *
+ * The common forms are parsed with a hand written scanner, without exceptions. The rest, and invalid values, with the
+ * DateTimeFormatters.
  */
 public class DateTimeParsers {
 
     public static TemporalAccessor parseDateTimeValue(String text) {
+        Temporal result = DateTimeScanner.scanDateTime(text);
+        if(result != null) {
+            return result;
+        }
+        return parseDateTimeValueWithFormatters(text);
+    }
+
+    static TemporalAccessor parseDateTimeValueWithFormatters(String text) {
         try {
             return DateTimeFormatters.ISO_8601_DATE_TIME.parseBest(text, OffsetDateTime::from, LocalDateTime::from, LocalDate::from, YearMonth::from, Year::from);
         } catch (DateTimeParseException e) {
@@ -34,6 +45,14 @@ public class DateTimeParsers {
     }
 
     public static TemporalAccessor parseTimeValue(String text) {
+        Temporal result = DateTimeScanner.scanTime(text);
+        if(result != null) {
+            return result;
+        }
+        return parseTimeValueWithFormatters(text);
+    }
+
+    static TemporalAccessor parseTimeValueWithFormatters(String text) {
         try {
             return DateTimeFormatters.ISO_8601_TIME_COMPACT.parseBest(text, OffsetTime::from, LocalTime::from);
         }
@@ -54,6 +73,14 @@ public class DateTimeParsers {
     }
 
     public static Temporal parseDateValue(String text) {
+        Temporal result = DateTimeScanner.scanDate(text);
+        if(result != null) {
+            return result;
+        }
+        return parseDateValueWithFormatters(text);
+    }
+
+    static Temporal parseDateValueWithFormatters(String text) {
         try {
             return (Temporal) DateTimeFormatters.ISO_8601_DATE_COMPACT.parseBest(text, LocalDate::from, YearMonth::from, Year::from);
         } catch (DateTimeParseException e) {
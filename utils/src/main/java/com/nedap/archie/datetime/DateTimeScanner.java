@@ -0,0 +1,264 @@
+package com.nedap.archie.datetime;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.Temporal;
+
+/**
+ * Single pass scanner for the common ISO 8601 forms of dates, times and date times, that does not throw exceptions.
+ * <p>
+ * Recognizes a four digit year with optional month and day separated by hyphens, or the compact yyyyMMdd form; times as
+ * H[H][:mm[:ss[,fraction or .fraction]]] or the compact HHmmss[fraction] form, followed by an optional Z, +HH:MM or +HHMM
+ * offset. Date times are a full date, followed by a T and a time, both in the extended or both in the compact form.
+ * <p>
+ * Returns null for anything else, including out of range values. DateTimeParsers then falls back to the
+ * DateTimeFormatters, which handle the less common forms and create the error messages. For every value the scanner
+ * does return, the result is the same as the result of the DateTimeFormatters.
+ */
+final class DateTimeScanner {
+
+    private static final int[] NANO_MULTIPLIERS = {0, 100_000_000, 10_000_000, 1_000_000, 100_000, 10_000, 1_000, 100, 10, 1};
+
+    private final String text;
+    private int position;
+
+    private int year;
+    private int month;
+    private int day;
+    private int hour;
+    private int minute;
+    private int second;
+    private int nano;
+    private ZoneOffset offset;
+
+    private DateTimeScanner(String text) {
+        this.text = text;
+    }
+
+    static Temporal scanDate(String text) {
+        DateTimeScanner scanner = new DateTimeScanner(text);
+        //the compact form is tried first, as in DateTimeParsers
+        boolean compact = scanner.countDigits() == 8;
+        if(!scanner.date(compact) || !scanner.atEnd()) {
+            return null;
+        }
+        return scanner.createDate();
+    }
+
+    static Temporal scanTime(String text) {
+        DateTimeScanner scanner = new DateTimeScanner(text);
+        //the compact form is tried first, as in DateTimeParsers
+        boolean compact = scanner.countDigits() == 6;
+        if(!scanner.time(compact) || !scanner.atEnd()) {
+            return null;
+        }
+        LocalTime time = LocalTime.of(scanner.hour, scanner.minute, scanner.second, scanner.nano);
+        return scanner.offset == null ? time : OffsetTime.of(time, scanner.offset);
+    }
+
+    static Temporal scanDateTime(String text) {
+        DateTimeScanner scanner = new DateTimeScanner(text);
+        boolean compact = scanner.countDigits() == 8;
+        if(!scanner.date(compact)) {
+            return null;
+        }
+        if(scanner.atEnd()) {
+            //an eight digit value without time is parsed as a year by the DateTimeFormatters, leave that to them
+            return compact ? null : scanner.createDate();
+        }
+        char separator = scanner.text.charAt(scanner.position);
+        if((separator != 'T' && separator != 't') || scanner.day == 0) {
+            return null;
+        }
+        scanner.position++;
+        if(!scanner.time(compact) || !scanner.atEnd()) {
+            return null;
+        }
+        LocalDateTime dateTime = LocalDateTime.of(scanner.year, scanner.month, scanner.day, scanner.hour, scanner.minute, scanner.second, scanner.nano);
+        return scanner.offset == null ? dateTime : OffsetDateTime.of(dateTime, scanner.offset);
+    }
+
+    private Temporal createDate() {
+        if(day != 0) {
+            return LocalDate.of(year, month, day);
+        } else if (month != 0) {
+            return YearMonth.of(year, month);
+        }
+        return Year.of(year);
+    }
+
+    private boolean date(boolean compact) {
+        int digits = countDigits();
+        if(compact) {
+            if(digits != 8) {
+                return false;
+            }
+            year = readNumber(4);
+            month = readNumber(2);
+            day = readNumber(2);
+            return month != 0 && day != 0 && isValidDate();
+        }
+        if(digits != 4) {
+            return false;
+        }
+        year = readNumber(4);
+        if(consume('-')) {
+            digits = countDigits();
+            if(digits < 1 || digits > 2) {
+                return false;
+            }
+            month = readNumber(digits);
+            if(month == 0) {
+                return false;
+            }
+            if(consume('-')) {
+                digits = countDigits();
+                if(digits < 1 || digits > 2) {
+                    return false;
+                }
+                day = readNumber(digits);
+                if(day == 0) {
+                    return false;
+                }
+            }
+        }
+        return isValidDate();
+    }
+
+    /**
+     * @return true if the month and day, if present, are valid. A value of 0 means absent
+     */
+    private boolean isValidDate() {
+        if(month == 0) {
+            return true;
+        }
+        if(month > 12) {
+            return false;
+        }
+        return day == 0 || day <= YearMonth.of(year, month).lengthOfMonth();
+    }
+
+    private boolean time(boolean compact) {
+        int digits = countDigits();
+        if(compact) {
+            if(digits != 6) {
+                return false;
+            }
+            hour = readNumber(2);
+            minute = readNumber(2);
+            second = readNumber(2);
+            if(!fraction()) {
+                return false;
+            }
+        } else {
+            if(digits < 1 || digits > 2) {
+                return false;
+            }
+            hour = readNumber(digits);
+            if(consume(':')) {
+                if(countDigits() != 2) {
+                    return false;
+                }
+                minute = readNumber(2);
+                if(consume(':')) {
+                    if(countDigits() != 2) {
+                        return false;
+                    }
+                    second = readNumber(2);
+                    if(!fraction()) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return hour <= 23 && minute <= 59 && second <= 59 && offset();
+    }
+
+    private boolean fraction() {
+        if(consume(',') || consume('.')) {
+            int digits = countDigits();
+            if(digits < 1 || digits > 9) {
+                return false;
+            }
+            nano = readNumber(digits) * NANO_MULTIPLIERS[digits];
+        }
+        return true;
+    }
+
+    private boolean offset() {
+        if(atEnd()) {
+            return true;
+        }
+        char c = text.charAt(position);
+        if(c == 'Z' || c == 'z') {
+            position++;
+            offset = ZoneOffset.UTC;
+            return true;
+        } else if (c != '+' && c != '-') {
+            return false;
+        }
+        position++;
+        int offsetHours;
+        int offsetMinutes;
+        int digits = countDigits();
+        if(digits == 4) {
+            offsetHours = readNumber(2);
+            offsetMinutes = readNumber(2);
+        } else if (digits == 2) {
+            offsetHours = readNumber(2);
+            if(!consume(':') || countDigits() != 2) {
+                return false;
+            }
+            offsetMinutes = readNumber(2);
+        } else {
+            return false;
+        }
+        if(offsetMinutes > 59 || offsetHours * 60 + offsetMinutes > 18 * 60) {
+            return false;
+        }
+        int totalSeconds = (offsetHours * 60 + offsetMinutes) * 60;
+        offset = ZoneOffset.ofTotalSeconds(c == '-' ? -totalSeconds : totalSeconds);
+        return true;
+    }
+
+    private boolean atEnd() {
+        return position == text.length();
+    }
+
+    private boolean consume(char c) {
+        if(position < text.length() && text.charAt(position) == c) {
+            position++;
+            return true;
+        }
+        return false;
+    }
+
+    private int countDigits() {
+        int i = position;
+        while(i < text.length() && isDigit(text.charAt(i))) {
+            i++;
+        }
+        return i - position;
+    }
+
+    /**
+     * Reads the given number of digits, which must have been checked with countDigits() first
+     */
+    private int readNumber(int digits) {
+        int result = 0;
+        for(int i = 0; i < digits; i++) {
+            result = result * 10 + (text.charAt(position++) - '0');
+        }
+        return result;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,166 @@
+package com.nedap.archie.paths;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+
+/**
+ * Memoizes the resolution of a path within a model type, for example the property or attribute at that path.
+ * Safe for use by concurrent readers. Results that are null are cached as well.
+ * <p>
+ * Paths are cached by their attribute names only: predicates such as node ids and indices are ignored, so
+ * /items[id2]/value and /items[id3]/value share one entry. Only use this for resolutions that do not depend on the
+ * predicates.
+ * <p>
+ * The cache holds at most a maximum number of paths, after which the least recently used paths are evicted. Only use
+ * this for models that do not change, or clear it after every change. The hit and miss counters can be used to see
+ * how effective the cache is, for example during the compilation of an archetype repository.
+ *
+ * @param <T> the type of the resolved value
+ */
+public class PathResolutionCache<T> {
+
+    public static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+
+    private static final Object NULL_VALUE = new Object();
+
+    private final Cache<Key, Object> cache;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public PathResolutionCache() {
+        this(DEFAULT_MAXIMUM_SIZE);
+    }
+
+    /**
+     * @param maximumSize the maximum number of paths to cache, over all types
+     */
+    public PathResolutionCache(long maximumSize) {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .build();
+    }
+
+    /**
+     * Get the value at the given path in the given type. If not yet cached, it is resolved with the given resolver and
+     * stored. Concurrent callers can resolve the same path twice, so the resolver must not have side effects.
+     *
+     * @param typeName the name of the type the path is in
+     * @param path the path
+     * @param resolver the function that resolves the value, given the type name and path
+     * @return the value as returned by the resolver, possibly cached
+     */
+    @SuppressWarnings("unchecked")
+    public T get(String typeName, String path, BiFunction<String, String, T> resolver) {
+        Key key = new Key(typeName, removePredicates(path));
+        Object result = cache.getIfPresent(key);
+        if(result == null) {
+            misses.increment();
+            T resolved = resolver.apply(typeName, path);
+            cache.put(key, resolved == null ? NULL_VALUE : resolved);
+            return resolved;
+        }
+        hits.increment();
+        return result == NULL_VALUE ? null : (T) result;
+    }
+
+    /**
+     * Remove all predicates from a path, leaving only the attribute names. Brackets within quoted strings in a
+     * predicate are ignored.
+     *
+     * @param path the path, for example /items[id2]/value
+     * @return the path without predicates, for example /items/value
+     */
+    static String removePredicates(String path) {
+        if(path.indexOf('[') < 0) {
+            return path;
+        }
+        StringBuilder result = new StringBuilder(path.length());
+        int depth = 0;
+        char quote = 0;
+        for(int i = 0; i < path.length(); i++) {
+            char c = path.charAt(i);
+            if(quote != 0) {
+                if(c == quote) {
+                    quote = 0;
+                }
+            } else if(c == '[') {
+                depth++;
+            } else if(c == ']' && depth > 0) {
+                depth--;
+            } else if(depth > 0) {
+                if(c == '\'' || c == '"') {
+                    quote = c;
+                }
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+
+    public void clear() {
+        cache.invalidateAll();
+        hits.reset();
+        misses.reset();
+    }
+
+    /**
+     * @return the number of cached paths, over all types
+     */
+    public int size() {
+        return (int) cache.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return the fraction of the lookups that was answered from the cache, or 0 if there have been no lookups
+     */
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    @Override
+    public String toString() {
+        return "PathResolutionCache{" +
+                "size=" + size() +
+                ", hits=" + getHits() +
+                ", misses=" + getMisses() +
+                '}';
+    }
+
+    private static final class Key {
+        private final String typeName;
+        private final String path;
+
+        Key(String typeName, String path) {
+            this.typeName = typeName;
+            this.path = path;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return typeName.equals(key.typeName) && path.equals(key.path);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(typeName, path);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.nedap.archie.util;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ArrayList that counts its modifications, including replacements of elements with set(), so an index on its contents
+ * can check whether it is still up to date.
+ * <p>
+ * Replacements with set() on a subList() are not counted.
+ *
+ * @param <E> the type of the elements
+ */
+public class ModificationCountingArrayList<E> extends ArrayList<E> {
+
+    private int replacements;
+
+    public ModificationCountingArrayList() {
+        super();
+    }
+
+    public ModificationCountingArrayList(Collection<? extends E> elements) {
+        super(elements);
+    }
+
+    @Override
+    public E set(int index, E element) {
+        E result = super.set(index, element);
+        replacements++;
+        return result;
+    }
+
+    /**
+     * @return a number that is different after every modification of this list
+     */
+    public int getModificationCount() {
+        return modCount + replacements;
+    }
+
+    /**
+     * @param list any list
+     * @return the modification count of the list if it is a ModificationCountingArrayList, otherwise always 0
+     */
+    public static int getModificationCount(List<?> list) {
+        return list instanceof ModificationCountingArrayList ? ((ModificationCountingArrayList<?>) list).getModificationCount() : 0;
+    }
+}
@@ -7,8 +7,11 @@ import java.time.*;
 import java.time.temporal.ChronoUnit;
 import java.time.temporal.Temporal;
 import java.time.temporal.TemporalAmount;
+import java.util.function.Function;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.fail;
 
 /**
  * Created by pieter.bos on 02/03/16.
@@ -85,4 +88,51 @@ public class DateTimeParserTest {
         assertEquals(PeriodDuration.of(Period.of(-1 ,0, 0), Duration.of(-2, ChronoUnit.HOURS)), minusOneYear2Hours);
     }
 
+    @Test
+    public void scannerEqualsFormatters() {
+        String[] dates = {"2015-1-1", "2015-01-31", "2015-1", "2015", "20190114", "2016-02-29", "2015-02-29", "2015-2-31",
+                "2015-13", "2015-0", "2015-1-0", "20191301", "20190100", "15-1-1", "2015-", "2015-1-", "2015-001-1", " 2015", "abc", ""};
+        for(String date:dates) {
+            assertSameResult(date, DateTimeParsers::parseDateValue, DateTimeParsers::parseDateValueWithFormatters);
+        }
+        String[] times = {"12", "1", "12:01", "12:01:01", "12:01:01,1", "12:01:01.123456789", "12:01:01.1234567890", "183649",
+                "183649,294", "183649+0100", "12Z", "12:01z", "12:01:01+01:00", "12:01:01-02:00", "12:01:01+0100", "12:01:01+18:00",
+                "12:01:01+18:01", "12:01:01+01", "12:01:01-00:00", "24", "23:60", "23:59:60", "1836", "12:1", "12:01:01,", "12:01:01+01:60", "12:01:01Zabc"};
+        for(String time:times) {
+            assertSameResult(time, DateTimeParsers::parseTimeValue, DateTimeParsers::parseTimeValueWithFormatters);
+        }
+        String[] dateTimes = {"2015-1-1T12:01:01,1+0100", "2015-1-1T12", "2015-1-1t12:01", "2015-12-02T17:41:56.809Z", "2015-12-02T17:41:56.809000123Z",
+                "20190114T183649,294+0000", "20190114T183649", "20190114t183649Z", "20190114", "2015", "2015-1", "2015-1-1", "2015-1T12",
+                "2015T12", "20190114T18:36:49", "2015-01-01T183649", "2015-01-01T", "2015-01-01T24:00", "2015-02-30T12:00", "2015-1-1 12:00", "2015-01-01T12:00:00+01:00:00"};
+        for(String dateTime:dateTimes) {
+            assertSameResult(dateTime, DateTimeParsers::parseDateTimeValue, DateTimeParsers::parseDateTimeValueWithFormatters);
+        }
+    }
+
+    @Test
+    public void scannerHandlesCommonForms() {
+        assertNotNull(DateTimeScanner.scanDate("2015-01-01"));
+        assertNotNull(DateTimeScanner.scanDate("20150101"));
+        assertNotNull(DateTimeScanner.scanTime("12:01:01.123+01:00"));
+        assertNotNull(DateTimeScanner.scanTime("120101"));
+        assertNotNull(DateTimeScanner.scanDateTime("2015-12-02T17:41:56.809Z"));
+        assertNotNull(DateTimeScanner.scanDateTime("20190114T183649,294+0000"));
+    }
+
+    private void assertSameResult(String text, Function<String, Object> parser, Function<String, Object> formatterParser) {
+        Object expected;
+        try {
+            expected = formatterParser.apply(text);
+        } catch (IllegalArgumentException e) {
+            try {
+                Object result = parser.apply(text);
+                fail("expected exception for " + text + ", but got " + result);
+            } catch (IllegalArgumentException e2) {
+                assertEquals(e.getMessage(), e2.getMessage());
+            }
+            return;
+        }
+        assertEquals(text, expected, parser.apply(text));
+    }
+
 }
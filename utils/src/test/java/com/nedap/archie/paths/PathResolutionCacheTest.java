@@ -0,0 +1,45 @@
+package com.nedap.archie.paths;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class PathResolutionCacheTest {
+
+    @Test
+    public void removePredicates() {
+        assertEquals("/items/value", PathResolutionCache.removePredicates("/items/value"));
+        assertEquals("/items/value", PathResolutionCache.removePredicates("/items[id2]/value"));
+        assertEquals("/content/items/value", PathResolutionCache.removePredicates("/content[openEHR-EHR-OBSERVATION.blood_pressure.v1]/items[id2, 'name [with] brackets/slash']/value[1]"));
+    }
+
+    @Test
+    public void predicatesShareEntry() {
+        PathResolutionCache<String> cache = new PathResolutionCache<>();
+        AtomicInteger resolveCount = new AtomicInteger();
+        assertEquals("value", cache.get("ELEMENT", "/items[id2]/value", (type, path) -> { resolveCount.incrementAndGet(); return "value"; }));
+        assertEquals("value", cache.get("ELEMENT", "/items[id3]/value", (type, path) -> { resolveCount.incrementAndGet(); return "value"; }));
+        assertEquals("value", cache.get("ELEMENT", "/items/value", (type, path) -> { resolveCount.incrementAndGet(); return "value"; }));
+        assertNull(cache.get("CLUSTER", "/items/value", (type, path) -> { resolveCount.incrementAndGet(); return null; }));
+        assertNull(cache.get("CLUSTER", "/items[id4]/value", (type, path) -> { resolveCount.incrementAndGet(); return null; }));
+
+        assertEquals(2, resolveCount.get());
+        assertEquals(2, cache.size());
+        assertEquals(3, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void bounded() {
+        PathResolutionCache<String> cache = new PathResolutionCache<>(100);
+        for(int i = 0; i < 1000; i++) {
+            cache.get("ELEMENT", "/attribute_" + i, (type, path) -> path);
+        }
+        assertTrue(cache.size() <= 100);
+        assertEquals(1000, cache.getMisses());
+    }
+}